@@ -0,0 +1,117 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link BlockMap} single-block and chunk operations at several sizes.
+ *
+ * <p>Mappings are scattered over a square area sized so that chunks hold roughly 64 mappings
+ * each. Operations use raw coordinates and world names except for {@link #getBlock()}, which uses
+ * mocked {@link Block Blocks}. Mocked getters are slower than real ones, so block-based results
+ * are only comparable to each other.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockMapBenchmark {
+
+  private static final String WORLD = "world";
+  private static final int QUERIES = 1024;
+
+  @Param({"1000", "100000", "1000000"})
+  public int mappings;
+
+  private BlockMap<Integer> blockMap;
+  private int[] xs;
+  private int[] ys;
+  private int[] zs;
+  private Block[] blocks;
+  private int query;
+
+  @Setup
+  public void setup() {
+    if (Bukkit.getServer() == null) {
+      ServerMocks.newServer();
+    }
+    World world = WorldMocks.newWorld(WORLD);
+
+    Random random = new Random(0);
+    int spread = Math.max(16, (int) Math.sqrt(mappings / 64.0) * 16);
+    blockMap = new BlockMap<>();
+    xs = new int[QUERIES];
+    ys = new int[QUERIES];
+    zs = new int[QUERIES];
+    for (int i = 0; i < mappings; ++i) {
+      int x = random.nextInt(spread);
+      int y = random.nextInt(384) - 64;
+      int z = random.nextInt(spread);
+      blockMap.put(WORLD, x, y, z, i);
+      if (i < QUERIES) {
+        xs[i] = x;
+        ys[i] = y;
+        zs[i] = z;
+      }
+    }
+
+    blocks = new Block[QUERIES];
+    for (int i = 0; i < QUERIES; ++i) {
+      blocks[i] = world.getBlockAt(xs[i], ys[i], zs[i]);
+    }
+  }
+
+  @Benchmark
+  public Integer put() {
+    int index = nextQuery();
+    return blockMap.put(WORLD, xs[index], ys[index], zs[index], index);
+  }
+
+  @Benchmark
+  public Integer get() {
+    int index = nextQuery();
+    return blockMap.get(WORLD, xs[index], ys[index], zs[index]);
+  }
+
+  @Benchmark
+  public Integer getBlock() {
+    return blockMap.get(blocks[nextQuery()]);
+  }
+
+  @Benchmark
+  public boolean containsMissing() {
+    int index = nextQuery();
+    return blockMap.containsKey(WORLD, xs[index], ys[index] + 512, zs[index]);
+  }
+
+  @Benchmark
+  public Collection<Integer> getChunk() {
+    int index = nextQuery();
+    return blockMap.get(WORLD, xs[index] >> 4, zs[index] >> 4);
+  }
+
+  private int nextQuery() {
+    query = (query + 1) % QUERIES;
+    return query;
+  }
+
+}
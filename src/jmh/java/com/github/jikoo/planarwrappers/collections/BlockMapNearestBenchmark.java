@@ -0,0 +1,103 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare {@link BlockMap} distance queries against a linear scan of every mapping.
+ *
+ * <p>Mappings are scattered over a square area around the origin. Queries are made from random
+ * points inside the area with a 32 block range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockMapNearestBenchmark {
+
+  private static final String WORLD = "world";
+  private static final int RANGE = 32;
+  private static final int QUERIES = 1024;
+
+  @Param({"1000", "100000"})
+  public int mappings;
+
+  @Param({"2048"})
+  public int spread;
+
+  private BlockMap<Integer> blockMap;
+  private int[] queries;
+  private int query;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    blockMap = new BlockMap<>();
+    for (int i = 0; i < mappings; ++i) {
+      blockMap.put(WORLD, coordinate(random), random.nextInt(384) - 64, coordinate(random), i);
+    }
+
+    queries = new int[QUERIES * 3];
+    for (int i = 0; i < queries.length; i += 3) {
+      queries[i] = coordinate(random);
+      queries[i + 1] = random.nextInt(384) - 64;
+      queries[i + 2] = coordinate(random);
+    }
+  }
+
+  private int coordinate(Random random) {
+    return random.nextInt(spread * 2) - spread;
+  }
+
+  @Benchmark
+  public BlockEntry<Integer> nearest() {
+    int index = nextQuery();
+    return blockMap.nearest(WORLD, queries[index], queries[index + 1], queries[index + 2], RANGE);
+  }
+
+  @Benchmark
+  public BlockEntry<Integer> linearScan() {
+    int index = nextQuery();
+    int x = queries[index];
+    int y = queries[index + 1];
+    int z = queries[index + 2];
+    long[] best = {(long) RANGE * RANGE};
+    Object[] found = new Object[1];
+    blockMap.forEach((world, blockX, blockY, blockZ, value) -> {
+      long distance = BlockMap.distanceSquared(blockX - x, blockY - y, blockZ - z);
+      if (distance <= best[0]) {
+        best[0] = distance;
+        found[0] = new BlockEntry<>(world, blockX, blockY, blockZ, value);
+      }
+    });
+    @SuppressWarnings("unchecked")
+    BlockEntry<Integer> entry = (BlockEntry<Integer>) found[0];
+    return entry;
+  }
+
+  @Benchmark
+  public int withinRadius() {
+    int index = nextQuery();
+    return blockMap.withinRadius(
+        WORLD, queries[index], queries[index + 1], queries[index + 2], RANGE).size();
+  }
+
+  private int nextQuery() {
+    query = (query + 3) % queries.length;
+    return query;
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare importing blocks into a {@link BlockMap} one at a time against bulk insertion.
+ *
+ * <p>Imports are either a 64x64x64 cube in iteration order as produced by a paste, the same cube
+ * in random order, or the same number of blocks scattered over a wide area as loaded from saved
+ * data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockMapPutAllBenchmark {
+
+  private static final String WORLD = "world";
+  private static final int EDGE = 64;
+
+  @Param({"ordered", "shuffled", "scattered"})
+  public String layout;
+
+  private int[] xs;
+  private int[] ys;
+  private int[] zs;
+  private Integer[] values;
+
+  @Setup
+  public void setup() {
+    int size = EDGE * EDGE * EDGE;
+    xs = new int[size];
+    ys = new int[size];
+    zs = new int[size];
+    values = new Integer[size];
+
+    Random random = new Random(0);
+    int index = 0;
+    for (int x = 0; x < EDGE; ++x) {
+      for (int z = 0; z < EDGE; ++z) {
+        for (int y = 0; y < EDGE; ++y) {
+          if (layout.equals("scattered")) {
+            xs[index] = random.nextInt(8192) - 4096;
+            ys[index] = random.nextInt(384) - 64;
+            zs[index] = random.nextInt(8192) - 4096;
+          } else {
+            xs[index] = x;
+            ys[index] = y;
+            zs[index] = z;
+          }
+          values[index] = index;
+          ++index;
+        }
+      }
+    }
+
+    if (layout.equals("shuffled")) {
+      for (int i = size - 1; i > 0; --i) {
+        int j = random.nextInt(i + 1);
+        swap(xs, i, j);
+        swap(ys, i, j);
+        swap(zs, i, j);
+      }
+    }
+  }
+
+  private static void swap(int[] array, int i, int j) {
+    int value = array[i];
+    array[i] = array[j];
+    array[j] = value;
+  }
+
+  @Benchmark
+  public BlockMap<Integer> put() {
+    BlockMap<Integer> blockMap = new BlockMap<>();
+    for (int i = 0; i < values.length; ++i) {
+      blockMap.put(WORLD, xs[i], ys[i], zs[i], values[i]);
+    }
+    return blockMap;
+  }
+
+  @Benchmark
+  public BlockMap<Integer> putAll() {
+    BlockMap<Integer> blockMap = new BlockMap<>();
+    blockMap.putAll(WORLD, xs, ys, zs, values);
+    return blockMap;
+  }
+
+  @Benchmark
+  public BlockMap<Integer> builder() {
+    BlockMapBuilder<Integer> builder = new BlockMapBuilder<>();
+    for (int i = 0; i < values.length; ++i) {
+      builder.add(WORLD, xs[i], ys[i], zs[i], values[i]);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link BlockMultimap} operations for blocks holding one or several values.
+ *
+ * <p>Blocks are mocked, so absolute results include the cost of mocked getters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockMultimapBenchmark {
+
+  private static final int BLOCKS = 1024;
+
+  @Param({"1", "4"})
+  public int valuesPerBlock;
+
+  private BlockMultimap<Integer> blockMultimap;
+  private Block[] blocks;
+  private Block[] unmapped;
+  private int query;
+
+  @Setup
+  public void setup() {
+    if (Bukkit.getServer() == null) {
+      ServerMocks.newServer();
+    }
+    World world = WorldMocks.newWorld("world");
+
+    Random random = new Random(0);
+    blockMultimap = new BlockMultimap<>();
+    blocks = new Block[BLOCKS];
+    unmapped = new Block[BLOCKS];
+    for (int i = 0; i < BLOCKS; ++i) {
+      int x = random.nextInt(256);
+      int y = random.nextInt(384) - 64;
+      int z = random.nextInt(256);
+      blocks[i] = world.getBlockAt(x, y, z);
+      unmapped[i] = world.getBlockAt(x, y + 512, z);
+      for (int value = 0; value < valuesPerBlock; ++value) {
+        blockMultimap.put(blocks[i], value);
+      }
+    }
+  }
+
+  @Benchmark
+  public Collection<Integer> get() {
+    return blockMultimap.get(blocks[nextQuery()]);
+  }
+
+  @Benchmark
+  public Collection<Integer> getChunk() {
+    Block block = blocks[nextQuery()];
+    return blockMultimap.get("world", block.getX() >> 4, block.getZ() >> 4);
+  }
+
+  @Benchmark
+  public Collection<Integer> putAndRemove() {
+    Block block = unmapped[nextQuery()];
+    blockMultimap.put(block, -1);
+    return blockMultimap.remove(block);
+  }
+
+  private int nextQuery() {
+    query = (query + 1) % BLOCKS;
+    return query;
+  }
+
+}
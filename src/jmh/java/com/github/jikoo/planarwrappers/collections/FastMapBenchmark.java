@@ -0,0 +1,99 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare maps created through {@link FastMap} against a plain {@link HashMap}.
+ *
+ * <p>Allocation is measured along with a constructor lookup per allocation for reference. Lookups
+ * and replacing puts are measured on maps populated with the same string keys, which stand in for
+ * the world names {@code FastMap} maps are keyed by. Without FastUtil on the classpath, both maps
+ * are {@code HashMap} and the results show the fallback cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FastMapBenchmark {
+
+  private static final int ENTRIES = 1024;
+
+  private Class<?> fastClass;
+  private Map<String, Integer> populatedHashMap;
+  private Map<String, Integer> populatedFastMap;
+  private String[] keys;
+  private int query;
+
+  @Setup
+  public void setup() {
+    fastClass = FastMap.obj2Obj().getClass();
+
+    populatedHashMap = new HashMap<>();
+    populatedFastMap = FastMap.obj2Obj();
+    keys = new String[ENTRIES];
+    for (int i = 0; i < ENTRIES; ++i) {
+      keys[i] = "world_" + i;
+      populatedHashMap.put(keys[i], i);
+      populatedFastMap.put(keys[i], i);
+    }
+  }
+
+  @Benchmark
+  public Map<Object, Object> hashMap() {
+    return new HashMap<>();
+  }
+
+  @Benchmark
+  public Map<Object, Object> fastMap() {
+    return FastMap.obj2Obj();
+  }
+
+  @Benchmark
+  public Object reflective() throws ReflectiveOperationException {
+    Constructor<?> constructor = fastClass.getConstructor();
+    return constructor.newInstance();
+  }
+
+  @Benchmark
+  public Integer getHashMap() {
+    return populatedHashMap.get(keys[nextQuery()]);
+  }
+
+  @Benchmark
+  public Integer getFastMap() {
+    return populatedFastMap.get(keys[nextQuery()]);
+  }
+
+  @Benchmark
+  public Integer putHashMap() {
+    int index = nextQuery();
+    return populatedHashMap.put(keys[index], index);
+  }
+
+  @Benchmark
+  public Integer putFastMap() {
+    int index = nextQuery();
+    return populatedFastMap.put(keys[index], index);
+  }
+
+  private int nextQuery() {
+    query = (query + 1) % ENTRIES;
+    return query;
+  }
+
+}
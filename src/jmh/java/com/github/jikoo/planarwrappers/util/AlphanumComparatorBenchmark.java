@@ -0,0 +1,74 @@
+package com.github.jikoo.planarwrappers.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare {@link AlphanumComparator} against natural {@link String} ordering.
+ *
+ * <p>Names are built from a shared prefix and differ in their numeric chunks, as world, region, and
+ * backup names commonly do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlphanumComparatorBenchmark {
+
+  private static final int NAMES = 1024;
+
+  @Param({"plain", "numbered", "versioned"})
+  public String format;
+
+  private final AlphanumComparator comparator = new AlphanumComparator();
+  private String[] names;
+  private int index;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    names = new String[NAMES];
+    for (int i = 0; i < NAMES; ++i) {
+      names[i] = switch (format) {
+        case "plain" -> "world_" + letter(random) + letter(random) + letter(random);
+        case "numbered" -> "world_nether_" + random.nextInt(10_000);
+        default -> "save-" + random.nextInt(3) + '.' + random.nextInt(20) + '.' + random.nextInt(9);
+      };
+    }
+  }
+
+  @Benchmark
+  public int alphanum() {
+    int next = nextIndex();
+    return comparator.compare(names[next], names[(next + 1) % NAMES]);
+  }
+
+  @Benchmark
+  public int natural() {
+    int next = nextIndex();
+    return names[next].compareTo(names[(next + 1) % NAMES]);
+  }
+
+  private int nextIndex() {
+    index = (index + 1) % NAMES;
+    return index;
+  }
+
+  private static char letter(Random random) {
+    return (char) ('a' + random.nextInt(26));
+  }
+
+}
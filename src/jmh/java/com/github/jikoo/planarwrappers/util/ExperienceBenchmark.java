@@ -0,0 +1,99 @@
+package com.github.jikoo.planarwrappers.util;
+
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link Experience} calculations.
+ *
+ * <p>{@link #changeExp()} runs against a mocked {@link Player}, so its score includes four mocked
+ * calls. The pure calculations it relies on are measured separately for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExperienceBenchmark {
+
+  private static final int QUERIES = 1024;
+
+  @Param({"30", "1000"})
+  public int maxLevel;
+
+  private final AtomicInteger level = new AtomicInteger();
+  private final AtomicFloat levelProgress = new AtomicFloat();
+  private Player player;
+  private int[] levels;
+  private int[] exps;
+  private int currentExp;
+  private int index;
+
+  @Setup
+  public void setup() {
+    player = mock(Player.class);
+    when(player.getLevel()).thenAnswer(invocation -> level.get());
+    doAnswer(invocation -> {
+      level.set(invocation.getArgument(0, Integer.class));
+      return null;
+    }).when(player).setLevel(anyInt());
+    when(player.getExp()).thenAnswer(invocation -> levelProgress.get());
+    doAnswer(invocation -> {
+      levelProgress.set(invocation.getArgument(0, Float.class));
+      return null;
+    }).when(player).setExp(anyFloat());
+
+    Random random = new Random(0);
+    levels = new int[QUERIES];
+    exps = new int[QUERIES];
+    for (int i = 0; i < QUERIES; ++i) {
+      levels[i] = random.nextInt(maxLevel + 1);
+      exps[i] = Experience.getExpFromLevel(levels[i]) + random.nextInt(10);
+    }
+  }
+
+  @Benchmark
+  public int changeExp() {
+    // Move between random totals so that both gains and losses are measured.
+    int target = exps[nextIndex()];
+    Experience.changeExp(player, target - currentExp);
+    currentExp = target;
+    return target;
+  }
+
+  @Benchmark
+  public int getExpFromLevel() {
+    return Experience.getExpFromLevel(levels[nextIndex()]);
+  }
+
+  @Benchmark
+  public double getLevelFromExp() {
+    return Experience.getLevelFromExp(exps[nextIndex()]);
+  }
+
+  private int nextIndex() {
+    index = (index + 1) % QUERIES;
+    return index;
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.github.jikoo.planarwrappers.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link WeightedRandom} selection over varying numbers of choices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WeightedRandomBenchmark {
+
+  @Param({"4", "64", "1024"})
+  public int choiceCount;
+
+  private final Random random = new Random(0);
+  private List<WeightedChoice> choices;
+
+  @Setup
+  public void setup() {
+    choices = new ArrayList<>(choiceCount);
+    for (int i = 0; i < choiceCount; ++i) {
+      choices.add(new WeightedChoice(1 + random.nextInt(100)));
+    }
+  }
+
+  @Benchmark
+  public WeightedChoice choose() {
+    return WeightedRandom.choose(random, choices);
+  }
+
+  @Benchmark
+  public WeightedChoice chooseMapped() {
+    return WeightedRandom.choose(random, choices, WeightedChoice::weight);
+  }
+
+  public record WeightedChoice(int weight) implements WeightedRandom.Choice {
+
+    @Override
+    public int getWeight() {
+      return weight;
+    }
+
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.github.jikoo.planarwrappers.world;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.util.BoundingBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare assembling a bounding box from a list of {@link Block Blocks} with {@link BlockBox},
+ * Bukkit's {@link BoundingBox}, and by hand.
+ *
+ * <p>Blocks are mocked, so all three include the same cost of mocked coordinate getters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockBoxBenchmark {
+
+  @Param({"4", "64"})
+  public int blockCount;
+
+  private List<Block> blocks;
+
+  @Setup
+  public void setup() {
+    if (Bukkit.getServer() == null) {
+      ServerMocks.newServer();
+    }
+    World world = WorldMocks.newWorld("world");
+
+    Random random = new Random(0);
+    blocks = new ArrayList<>(blockCount);
+    for (int i = 0; i < blockCount; ++i) {
+      blocks.add(world.getBlockAt(random.nextInt(64), random.nextInt(64), random.nextInt(64)));
+    }
+  }
+
+  @Benchmark
+  public BlockBox blockBox() {
+    return BlockBox.ofBlocks(blocks);
+  }
+
+  @Benchmark
+  public BoundingBox bukkitBoundingBox() {
+    BoundingBox box = BoundingBox.of(blocks.get(0));
+    for (int i = 1; i < blocks.size(); ++i) {
+      box.union(BoundingBox.of(blocks.get(i)));
+    }
+    return box;
+  }
+
+  @Benchmark
+  public int[] manual() {
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    int maxZ = Integer.MIN_VALUE;
+    for (Block block : blocks) {
+      minX = Math.min(minX, block.getX());
+      minY = Math.min(minY, block.getY());
+      minZ = Math.min(minZ, block.getZ());
+      maxX = Math.max(maxX, block.getX());
+      maxY = Math.max(maxY, block.getY());
+      maxZ = Math.max(maxZ, block.getZ());
+    }
+    return new int[] {minX, minY, minZ, maxX, maxY, maxZ};
+  }
+
+}
@@ -0,0 +1,181 @@
+package com.github.jikoo.planarwrappers.world;
+
+import com.github.jikoo.planarwrappers.collections.BlockBoxGrid;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare lookups in a {@link BlockBoxIndex} and a {@link BlockBoxGrid} with a linear scan of a
+ * list of {@link BlockBox BlockBoxes}.
+ *
+ * <p>Boxes are claim-sized and spread over an area growing with their count, so the density of
+ * boxes around each query stays the same at every size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockBoxIndexBenchmark {
+
+  private static final int QUERY_COUNT = 1024;
+
+  @Param({"1000", "10000", "100000"})
+  public int boxCount;
+
+  private List<BlockBox> boxes;
+  private BlockBoxIndex<BlockBox> index;
+  private BlockBoxGrid<BlockBox> grid;
+  private int[] queryXs;
+  private int[] queryYs;
+  private int[] queryZs;
+  private BlockBox[] regions;
+  private int query;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    int spread = (int) Math.sqrt(boxCount) * 64;
+
+    boxes = new ArrayList<>(boxCount);
+    index = new BlockBoxIndex<>();
+    grid = new BlockBoxGrid<>();
+    for (int i = 0; i < boxCount; ++i) {
+      int x = random.nextInt(spread);
+      int y = random.nextInt(128) - 64;
+      int z = random.nextInt(spread);
+      int length = 8 + random.nextInt(48);
+      int height = 16 + random.nextInt(128);
+      int width = 8 + random.nextInt(48);
+      BlockBox box = new BlockBox(x, y, z, x + length, y + height, z + width);
+      boxes.add(box);
+      index.insert(box, box);
+      grid.insert(box, box);
+    }
+
+    queryXs = new int[QUERY_COUNT];
+    queryYs = new int[QUERY_COUNT];
+    queryZs = new int[QUERY_COUNT];
+    regions = new BlockBox[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; ++i) {
+      queryXs[i] = random.nextInt(spread);
+      queryYs[i] = random.nextInt(256) - 64;
+      queryZs[i] = random.nextInt(spread);
+      regions[i] = new BlockBox(
+          queryXs[i], queryYs[i], queryZs[i], queryXs[i] + 15, queryYs[i] + 15, queryZs[i] + 15);
+    }
+  }
+
+  private int nextQuery() {
+    query = (query + 1) & (QUERY_COUNT - 1);
+    return query;
+  }
+
+  @Benchmark
+  public List<BlockBox> indexQuery() {
+    int i = nextQuery();
+    return index.query(queryXs[i], queryYs[i], queryZs[i]);
+  }
+
+  @Benchmark
+  public List<BlockBox> gridQuery() {
+    int i = nextQuery();
+    return grid.query(queryXs[i], queryYs[i], queryZs[i]);
+  }
+
+  @Benchmark
+  public boolean gridContains() {
+    int i = nextQuery();
+    return grid.contains(queryXs[i], queryYs[i], queryZs[i]);
+  }
+
+  @Benchmark
+  public List<BlockBox> linearQuery() {
+    int i = nextQuery();
+    List<BlockBox> values = new ArrayList<>();
+    for (BlockBox box : boxes) {
+      if (box.contains(queryXs[i], queryYs[i], queryZs[i])) {
+        values.add(box);
+      }
+    }
+    return values;
+  }
+
+  @Benchmark
+  public List<BlockBox> indexIntersecting() {
+    return index.intersecting(regions[nextQuery()]);
+  }
+
+  @Benchmark
+  public List<BlockBox> gridIntersecting() {
+    return grid.intersecting(regions[nextQuery()]);
+  }
+
+  @Benchmark
+  public List<BlockBox> linearIntersecting() {
+    BlockBox region = regions[nextQuery()];
+    List<BlockBox> values = new ArrayList<>();
+    for (BlockBox box : boxes) {
+      if (box.intersects(region)) {
+        values.add(box);
+      }
+    }
+    return values;
+  }
+
+  @Benchmark
+  public BlockBox indexNearest() {
+    int i = nextQuery();
+    return index.nearest(queryXs[i], queryYs[i], queryZs[i]);
+  }
+
+  @Benchmark
+  public BlockBox linearNearest() {
+    int i = nextQuery();
+    int x = queryXs[i];
+    int y = queryYs[i];
+    int z = queryZs[i];
+    BlockBox nearest = null;
+    long nearestDistance = Long.MAX_VALUE;
+    for (BlockBox box : boxes) {
+      long dx = Math.max(0, Math.max(box.getMinX() - x, x - box.getMaxX()));
+      long dy = Math.max(0, Math.max(box.getMinY() - y, y - box.getMaxY()));
+      long dz = Math.max(0, Math.max(box.getMinZ() - z, z - box.getMaxZ()));
+      long distance = dx * dx + dy * dy + dz * dz;
+      if (distance < nearestDistance) {
+        nearest = box;
+        nearestDistance = distance;
+      }
+    }
+    return nearest;
+  }
+
+  @Benchmark
+  public boolean indexInsertRemove() {
+    BlockBox region = regions[nextQuery()];
+    index.insert(region, region);
+    return index.remove(region, region);
+  }
+
+  @Benchmark
+  public boolean gridInsertRemove() {
+    BlockBox region = regions[nextQuery()];
+    grid.insert(region, region);
+    return grid.remove(region, region);
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.github.jikoo.planarwrappers.world;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.BlockDataMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure {@link Shape#getBuildLocations(Block, Direction)} for cubic shapes of several sizes.
+ *
+ * <p>Relative blocks are fetched from a mocked world, which caches them after the first lookup.
+ * Each lookup still goes through the mock, so results are best compared across sizes and
+ * directions rather than taken as absolute.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeBenchmark {
+
+  @Param({"2", "4", "8"})
+  public int edge;
+
+  @Param({"NORTH", "EAST"})
+  public Direction direction;
+
+  private Shape shape;
+  private Block key;
+
+  @Setup
+  public void setup() {
+    if (Bukkit.getServer() == null) {
+      Server server = ServerMocks.newServer();
+      when(server.createBlockData(any(Material.class)))
+          .thenAnswer(parameters -> BlockDataMocks.newData(parameters.getArgument(0)));
+    }
+    key = WorldMocks.newWorld("world").getBlockAt(0, 64, 0);
+
+    shape = new Shape();
+    for (int x = 0; x < edge; ++x) {
+      for (int y = 0; y < edge; ++y) {
+        for (int z = 0; z < edge; ++z) {
+          shape.set(x - edge / 2, y, z - edge / 2, Material.STONE);
+        }
+      }
+    }
+
+    // Populate the mocked world's block cache.
+    shape.getBuildLocations(key, direction);
+  }
+
+  @Benchmark
+  public Map<Block, BlockData> getBuildLocations() {
+    return shape.getBuildLocations(key, direction);
+  }
+
+}
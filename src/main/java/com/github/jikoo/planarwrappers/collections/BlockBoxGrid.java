@@ -0,0 +1,317 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.util.Coords;
+import com.github.jikoo.planarwrappers.world.BlockBox;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A grid index of values keyed by {@link BlockBox}, bucketing each box into every chunk it
+ * overlaps.
+ *
+ * <p>Buckets are stored in a table keyed by {@link Coords#packChunk(int, int) packed chunk
+ * coordinates}, and each bucket keeps the bounds of its boxes in a flat primitive array. A lookup
+ * for a block finds its chunk's bucket with a single hash probe and tests only the boxes touching
+ * that chunk, so its cost depends on the local density of boxes rather than their total number.
+ *
+ * <p>In exchange, each box is stored once per chunk it overlaps. Insertion, removal and memory use
+ * grow with the area of a box in chunks, making the grid best suited to many small or medium boxes.
+ * For very large boxes, prefer {@link com.github.jikoo.planarwrappers.world.BlockBoxIndex}.
+ *
+ * <p>Boxes are copied on insertion, so later changes to a {@code BlockBox} do not affect the grid.
+ * The same box may be added several times with different values.
+ *
+ * @param <V> the type of value stored
+ */
+public class BlockBoxGrid<V> {
+
+  private final LongObjectMap<Bucket> chunks = new LongObjectMap<>();
+  private int size;
+
+  /**
+   * Add a value for a {@link BlockBox}.
+   *
+   * @param box the bounding box
+   * @param value the value
+   */
+  public void insert(@NotNull BlockBox box, @NotNull V value) {
+    int maxChunkX = Coords.blockToChunk(box.getMaxX());
+    int maxChunkZ = Coords.blockToChunk(box.getMaxZ());
+    for (int chunkX = Coords.blockToChunk(box.getMinX()); chunkX <= maxChunkX; ++chunkX) {
+      for (int chunkZ = Coords.blockToChunk(box.getMinZ()); chunkZ <= maxChunkZ; ++chunkZ) {
+        long key = Coords.packChunk(chunkX, chunkZ);
+        Bucket bucket = chunks.get(key);
+        if (bucket == null) {
+          bucket = new Bucket();
+          chunks.put(key, bucket);
+        }
+        bucket.add(box, value);
+      }
+    }
+    ++size;
+  }
+
+  /**
+   * Remove a value for a {@link BlockBox}. If the value was added for the box more than once, only
+   * one mapping is removed.
+   *
+   * @param box the bounding box
+   * @param value the value
+   * @return true if a mapping was removed
+   */
+  public boolean remove(@NotNull BlockBox box, @NotNull V value) {
+    int maxChunkX = Coords.blockToChunk(box.getMaxX());
+    int maxChunkZ = Coords.blockToChunk(box.getMaxZ());
+    for (int chunkX = Coords.blockToChunk(box.getMinX()); chunkX <= maxChunkX; ++chunkX) {
+      for (int chunkZ = Coords.blockToChunk(box.getMinZ()); chunkZ <= maxChunkZ; ++chunkZ) {
+        long key = Coords.packChunk(chunkX, chunkZ);
+        Bucket bucket = chunks.get(key);
+        // A mapping is stored in every chunk it overlaps, so only the first chunk can miss.
+        if (bucket == null || !bucket.remove(box, value)) {
+          return false;
+        }
+        if (bucket.size == 0) {
+          chunks.remove(key);
+        }
+      }
+    }
+    --size;
+    return true;
+  }
+
+  /**
+   * Check if any box contains the block at the coordinates specified.
+   *
+   * @param x the X coordinate of the block
+   * @param y the Y coordinate of the block
+   * @param z the Z coordinate of the block
+   * @return true if the block is in any box
+   */
+  public boolean contains(int x, int y, int z) {
+    Bucket bucket = getBucket(x, z);
+    if (bucket == null) {
+      return false;
+    }
+    for (int index = 0; index < bucket.size; ++index) {
+      if (bucket.contains(index, x, y, z)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if any box contains a {@link Block}.
+   *
+   * @param block the block
+   * @return true if the block is in any box
+   */
+  public boolean contains(@NotNull Block block) {
+    return contains(block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get all values whose boxes contain the block at the coordinates specified.
+   *
+   * @param x the X coordinate of the block
+   * @param y the Y coordinate of the block
+   * @param z the Z coordinate of the block
+   * @return the values
+   */
+  public @NotNull List<V> query(int x, int y, int z) {
+    List<V> values = new ArrayList<>();
+    Bucket bucket = getBucket(x, z);
+    if (bucket == null) {
+      return values;
+    }
+    for (int index = 0; index < bucket.size; ++index) {
+      if (bucket.contains(index, x, y, z)) {
+        values.add(bucket.value(index));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Get all values whose boxes contain a {@link Block}.
+   *
+   * @param block the block
+   * @return the values
+   */
+  public @NotNull List<V> query(@NotNull Block block) {
+    return query(block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get all values whose boxes overlap a chunk.
+   *
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the values
+   */
+  public @NotNull List<V> getChunk(int chunkX, int chunkZ) {
+    List<V> values = new ArrayList<>();
+    Bucket bucket = chunks.get(Coords.packChunk(chunkX, chunkZ));
+    if (bucket == null) {
+      return values;
+    }
+    for (int index = 0; index < bucket.size; ++index) {
+      values.add(bucket.value(index));
+    }
+    return values;
+  }
+
+  /**
+   * Get all values whose boxes intersect a {@link BlockBox}. Each mapping is included once, even
+   * if it shares several chunks with the box. Every chunk the box overlaps is checked, so the cost
+   * grows with the area of the box.
+   *
+   * @param box the bounding box
+   * @return the values
+   */
+  public @NotNull List<V> intersecting(@NotNull BlockBox box) {
+    List<V> values = new ArrayList<>();
+    int minChunkX = Coords.blockToChunk(box.getMinX());
+    int minChunkZ = Coords.blockToChunk(box.getMinZ());
+    int maxChunkX = Coords.blockToChunk(box.getMaxX());
+    int maxChunkZ = Coords.blockToChunk(box.getMaxZ());
+    for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+      for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+        Bucket bucket = chunks.get(Coords.packChunk(chunkX, chunkZ));
+        if (bucket == null) {
+          continue;
+        }
+        for (int index = 0; index < bucket.size; ++index) {
+          // Report each mapping only from the first chunk of its overlap with the box.
+          if (bucket.intersects(index, box)
+              && chunkX == Math.max(minChunkX, Coords.blockToChunk(bucket.minX(index)))
+              && chunkZ == Math.max(minChunkZ, Coords.blockToChunk(bucket.minZ(index)))) {
+            values.add(bucket.value(index));
+          }
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Get the number of mappings in the grid.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if the grid contains no mappings.
+   *
+   * @return true if the grid is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get the number of chunks overlapped by at least one box.
+   *
+   * @return the number of chunks
+   */
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /**
+   * Remove all mappings from the grid.
+   */
+  public void clear() {
+    chunks.clear();
+    size = 0;
+  }
+
+  private @Nullable Bucket getBucket(int x, int z) {
+    return chunks.get(Coords.packChunk(Coords.blockToChunk(x), Coords.blockToChunk(z)));
+  }
+
+  /** Growable parallel arrays of box bounds and values for a single chunk. */
+  private static final class Bucket {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int STRIDE = 6;
+
+    private int[] bounds = new int[INITIAL_CAPACITY * STRIDE];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    private void add(@NotNull BlockBox box, @NotNull Object value) {
+      if (size == values.length) {
+        int capacity = size + (size >> 1);
+        bounds = Arrays.copyOf(bounds, capacity * STRIDE);
+        values = Arrays.copyOf(values, capacity);
+      }
+      int offset = size * STRIDE;
+      bounds[offset] = box.getMinX();
+      bounds[offset + 1] = box.getMinY();
+      bounds[offset + 2] = box.getMinZ();
+      bounds[offset + 3] = box.getMaxX();
+      bounds[offset + 4] = box.getMaxY();
+      bounds[offset + 5] = box.getMaxZ();
+      values[size] = value;
+      ++size;
+    }
+
+    private boolean remove(@NotNull BlockBox box, @NotNull Object value) {
+      for (int index = 0; index < size; ++index) {
+        int offset = index * STRIDE;
+        if (bounds[offset] == box.getMinX()
+            && bounds[offset + 1] == box.getMinY()
+            && bounds[offset + 2] == box.getMinZ()
+            && bounds[offset + 3] == box.getMaxX()
+            && bounds[offset + 4] == box.getMaxY()
+            && bounds[offset + 5] == box.getMaxZ()
+            && value.equals(values[index])) {
+          int last = size - 1;
+          System.arraycopy(bounds, last * STRIDE, bounds, offset, STRIDE);
+          values[index] = values[last];
+          values[last] = null;
+          size = last;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean contains(int index, int x, int y, int z) {
+      int offset = index * STRIDE;
+      return x >= bounds[offset] && x <= bounds[offset + 3]
+          && y >= bounds[offset + 1] && y <= bounds[offset + 4]
+          && z >= bounds[offset + 2] && z <= bounds[offset + 5];
+    }
+
+    private boolean intersects(int index, @NotNull BlockBox box) {
+      int offset = index * STRIDE;
+      return box.getMinX() <= bounds[offset + 3] && box.getMaxX() >= bounds[offset]
+          && box.getMinY() <= bounds[offset + 4] && box.getMaxY() >= bounds[offset + 1]
+          && box.getMinZ() <= bounds[offset + 5] && box.getMaxZ() >= bounds[offset + 2];
+    }
+
+    private int minX(int index) {
+      return bounds[index * STRIDE];
+    }
+
+    private int minZ(int index) {
+      return bounds[index * STRIDE + 2];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V value(int index) {
+      return (V) values[index];
+    }
+
+  }
+
+}
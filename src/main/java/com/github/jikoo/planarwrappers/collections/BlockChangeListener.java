@@ -0,0 +1,43 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A listener for changes to mapped blocks. Receives raw coordinates so that no {@code Block} needs
+ * to be created.
+ *
+ * <p>Paging by a {@link BlockMapPager} is not a change. Mappings moved out to a page store are
+ * still part of the map's content, so moving them out and restoring them does not notify
+ * listeners. Otherwise, a listener persisting or replicating the map would delete them.
+ *
+ * @param <V> the type of value stored
+ */
+@FunctionalInterface
+public interface BlockChangeListener<V> {
+
+  /**
+   * Handle a changed mapping. As maps may store {@code null} values, removals are flagged
+   * separately rather than signalled by a {@code null} new value.
+   *
+   * <p>The listener is called after the change is made. It must not modify the map it is
+   * listening to.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param oldValue the previous value or {@code null} if no value was present
+   * @param newValue the value stored or {@code null} if the mapping was removed
+   * @param removed whether the mapping was removed
+   */
+  void changed(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      @Nullable V oldValue,
+      @Nullable V newValue,
+      boolean removed);
+
+}
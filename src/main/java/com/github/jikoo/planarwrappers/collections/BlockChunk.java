@@ -0,0 +1,737 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.function.IntTriObjConsumer;
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.util.Arrays;
+import java.util.Collection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Storage for all the mapped blocks in a single chunk.
+ *
+ * <p>Blocks are grouped into 16x16x16 sections. A section starts out sparse, storing sorted local
+ * indices alongside values. Once a section holds {@link #DENSE_THRESHOLD} entries, it is converted
+ * to a flat array indexed directly by local position. If removals bring it back under
+ * {@link #SPARSE_THRESHOLD} entries, it is converted back.
+ *
+ * @param <V> the type of value stored
+ */
+final class BlockChunk<V> {
+
+  /** Number of entries at which a section switches to dense storage. */
+  static final int DENSE_THRESHOLD = 1024;
+  /** Number of entries below which a dense section switches back to sparse storage. */
+  static final int SPARSE_THRESHOLD = 256;
+
+  private static final int SECTION_VOLUME = 16 * 16 * 16;
+  private static final Section[] NO_SECTIONS = new Section[0];
+  /** Placeholder for {@code null} values in dense sections, where {@code null} means absent. */
+  private static final Object NULL = new Object();
+
+  private final int chunkX;
+  private final int chunkZ;
+  private Section[] sections = NO_SECTIONS;
+  private int sectionCount;
+  private int size;
+  private @Nullable Object owner;
+
+  BlockChunk(int chunkX, int chunkZ) {
+    this.chunkX = chunkX;
+    this.chunkZ = chunkZ;
+  }
+
+  /**
+   * Construct a new {@code BlockChunk} containing the same mappings as another. No storage is
+   * shared with the original, and the copy is trimmed to fit.
+   *
+   * @param other the chunk storage to copy
+   */
+  BlockChunk(@NotNull BlockChunk<V> other) {
+    this(other.chunkX, other.chunkZ);
+    sectionCount = other.sectionCount;
+    size = other.size;
+    sections = sectionCount == 0 ? NO_SECTIONS : new Section[sectionCount];
+    for (int sectionIndex = 0; sectionIndex < sectionCount; ++sectionIndex) {
+      sections[sectionIndex] = new Section(other.sections[sectionIndex]);
+    }
+  }
+
+  int getChunkX() {
+    return chunkX;
+  }
+
+  int getChunkZ() {
+    return chunkZ;
+  }
+
+  /**
+   * Get the token of the owner permitted to modify the chunk in place.
+   *
+   * @return the owner or {@code null} if unowned
+   * @see BlockWorld
+   */
+  @Nullable Object getOwner() {
+    return owner;
+  }
+
+  void setOwner(@Nullable Object owner) {
+    this.owner = owner;
+  }
+
+  /**
+   * Get the value mapped to a block.
+   *
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the value or {@code null} if no value is present
+   */
+  @Nullable V get(int x, int y, int z) {
+    int sectionIndex = findSection(y >> 4);
+    if (sectionIndex < 0) {
+      return null;
+    }
+    return unmask(sections[sectionIndex].get(localIndex(x, y, z)));
+  }
+
+  /**
+   * Check if a block is mapped.
+   *
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return true if the block is mapped
+   */
+  boolean containsKey(int x, int y, int z) {
+    int sectionIndex = findSection(y >> 4);
+    return sectionIndex >= 0 && sections[sectionIndex].get(localIndex(x, y, z)) != null;
+  }
+
+  /**
+   * Map a value to a block.
+   *
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value
+   * @return the previous value or {@code null} if no value was present
+   */
+  @Nullable V put(int x, int y, int z, @Nullable V value) {
+    int sectionY = y >> 4;
+    int sectionIndex = findSection(sectionY);
+    Section section;
+    if (sectionIndex < 0) {
+      section = insertSection(-sectionIndex - 1, sectionY);
+    } else {
+      section = sections[sectionIndex];
+    }
+
+    Object old = section.put(localIndex(x, y, z), value == null ? NULL : value);
+    if (old == null) {
+      ++size;
+    }
+    return unmask(old);
+  }
+
+  /**
+   * Remove the value mapped to a block.
+   *
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the previous value or {@code null} if no value was present
+   */
+  @Nullable V remove(int x, int y, int z) {
+    int sectionIndex = findSection(y >> 4);
+    if (sectionIndex < 0) {
+      return null;
+    }
+
+    Section section = sections[sectionIndex];
+    Object old = section.remove(localIndex(x, y, z));
+    if (old == null) {
+      return null;
+    }
+
+    --size;
+    if (section.size == 0) {
+      removeSection(sectionIndex);
+    }
+    return unmask(old);
+  }
+
+  /**
+   * Get the number of mapped blocks.
+   *
+   * @return the number of mapped blocks
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Check if the chunk has no mapped blocks.
+   *
+   * @return true if the chunk is empty
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Release unused capacity in section storage.
+   */
+  void trim() {
+    if (sections.length > sectionCount) {
+      sections = sectionCount == 0 ? NO_SECTIONS : Arrays.copyOf(sections, sectionCount);
+    }
+    for (int sectionIndex = 0; sectionIndex < sectionCount; ++sectionIndex) {
+      sections[sectionIndex].trim();
+    }
+  }
+
+  /**
+   * Estimate the memory used by the chunk storage, excluding the values stored.
+   *
+   * @return the estimated size in bytes
+   */
+  long memoryFootprint() {
+    long footprint = Footprint.object(Integer.BYTES * 4 + Footprint.REFERENCE * 2)
+        + Footprint.array(sections.length, Footprint.REFERENCE);
+    for (int sectionIndex = 0; sectionIndex < sectionCount; ++sectionIndex) {
+      footprint += sections[sectionIndex].memoryFootprint();
+    }
+    return footprint;
+  }
+
+  /**
+   * Add all values to a collection.
+   *
+   * @param collection the collection to add values to
+   */
+  @SuppressWarnings("unchecked")
+  void addValuesTo(@NotNull Collection<? super V> collection) {
+    for (int sectionIndex = 0; sectionIndex < sectionCount; ++sectionIndex) {
+      Section section = sections[sectionIndex];
+      Object[] values = section.values;
+      int end = section.dense ? SECTION_VOLUME : section.size;
+      for (int index = 0; index < end; ++index) {
+        Object value = values[index];
+        if (value != null) {
+          collection.add(value == NULL ? null : (V) value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Perform an action for each mapped block in ascending Y, Z, X order.
+   *
+   * @param consumer the action to perform
+   */
+  @SuppressWarnings("unchecked")
+  void forEach(@NotNull IntTriObjConsumer<? super V> consumer) {
+    int blockX = Coords.chunkToBlock(chunkX);
+    int blockZ = Coords.chunkToBlock(chunkZ);
+    for (int sectionIndex = 0; sectionIndex < sectionCount; ++sectionIndex) {
+      Section section = sections[sectionIndex];
+      int blockY = section.sectionY << 4;
+      Object[] values = section.values;
+      if (section.dense) {
+        for (int index = 0; index < SECTION_VOLUME; ++index) {
+          Object value = values[index];
+          if (value != null) {
+            consumer.accept(
+                blockX | (index & 0xF),
+                blockY | (index >> 8),
+                blockZ | ((index >> 4) & 0xF),
+                value == NULL ? null : (V) value);
+          }
+        }
+      } else {
+        short[] indices = section.indices;
+        for (int entry = 0; entry < section.size; ++entry) {
+          int index = indices[entry];
+          Object value = values[entry];
+          consumer.accept(
+              blockX | (index & 0xF),
+              blockY | (index >> 8),
+              blockZ | ((index >> 4) & 0xF),
+              value == NULL ? null : (V) value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Perform an action for each mapped block inside the bounds specified. Sections outside the
+   * vertical bounds are skipped entirely.
+   *
+   * @param minX the minimum block X coordinate
+   * @param minY the minimum block Y coordinate
+   * @param minZ the minimum block Z coordinate
+   * @param maxX the maximum block X coordinate
+   * @param maxY the maximum block Y coordinate
+   * @param maxZ the maximum block Z coordinate
+   * @param consumer the action to perform or {@code null} to only count blocks
+   * @return the number of blocks inside the bounds
+   */
+  int forEachWithin(
+      int minX,
+      int minY,
+      int minZ,
+      int maxX,
+      int maxY,
+      int maxZ,
+      @Nullable IntTriObjConsumer<? super V> consumer) {
+    return within(minX, minY, minZ, maxX, maxY, maxZ, consumer, false);
+  }
+
+  /**
+   * Remove all mapped blocks inside the bounds specified.
+   *
+   * @param minX the minimum block X coordinate
+   * @param minY the minimum block Y coordinate
+   * @param minZ the minimum block Z coordinate
+   * @param maxX the maximum block X coordinate
+   * @param maxY the maximum block Y coordinate
+   * @param maxZ the maximum block Z coordinate
+   * @param consumer the action to perform with removed blocks or {@code null}
+   * @return the number of blocks removed
+   */
+  int removeWithin(
+      int minX,
+      int minY,
+      int minZ,
+      int maxX,
+      int maxY,
+      int maxZ,
+      @Nullable IntTriObjConsumer<? super V> consumer) {
+    return within(minX, minY, minZ, maxX, maxY, maxZ, consumer, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int within(
+      int minX,
+      int minY,
+      int minZ,
+      int maxX,
+      int maxY,
+      int maxZ,
+      @Nullable IntTriObjConsumer<? super V> consumer,
+      boolean remove) {
+    int blockX = Coords.chunkToBlock(chunkX);
+    int blockZ = Coords.chunkToBlock(chunkZ);
+    int localMinX = Math.max(minX, blockX) - blockX;
+    int localMaxX = Math.min(maxX, blockX + 15) - blockX;
+    int localMinZ = Math.max(minZ, blockZ) - blockZ;
+    int localMaxZ = Math.min(maxZ, blockZ + 15) - blockZ;
+    if (localMinX > localMaxX || localMinZ > localMaxZ || minY > maxY) {
+      return 0;
+    }
+
+    int count = 0;
+    int sectionIndex = findSection(minY >> 4);
+    if (sectionIndex < 0) {
+      sectionIndex = -sectionIndex - 1;
+    }
+    int maxSectionY = maxY >> 4;
+
+    for (; sectionIndex < sectionCount; ++sectionIndex) {
+      Section section = sections[sectionIndex];
+      if (section.sectionY > maxSectionY) {
+        break;
+      }
+
+      int blockY = section.sectionY << 4;
+      int localMinY = Math.max(minY, blockY) - blockY;
+      int localMaxY = Math.min(maxY, blockY + 15) - blockY;
+      Object[] values = section.values;
+      int matched = 0;
+
+      if (section.dense) {
+        for (int y = localMinY; y <= localMaxY; ++y) {
+          for (int z = localMinZ; z <= localMaxZ; ++z) {
+            int rowIndex = y << 8 | z << 4;
+            for (int x = localMinX; x <= localMaxX; ++x) {
+              Object value = values[rowIndex | x];
+              if (value == null) {
+                continue;
+              }
+              ++matched;
+              if (consumer != null) {
+                consumer.accept(
+                    blockX | x, blockY | y, blockZ | z, value == NULL ? null : (V) value);
+              }
+              if (remove) {
+                values[rowIndex | x] = null;
+              }
+            }
+          }
+        }
+      } else {
+        short[] indices = section.indices;
+        int end = section.size;
+        int lastIndex = localMaxY << 8 | 0xFF;
+        int entry = Arrays.binarySearch(indices, 0, end, (short) (localMinY << 8));
+        if (entry < 0) {
+          entry = -entry - 1;
+        }
+        // Entries before the first match are retained as-is when compacting.
+        int write = entry;
+        for (; entry < end; ++entry) {
+          int index = indices[entry];
+          if (index > lastIndex) {
+            break;
+          }
+          int x = index & 0xF;
+          int z = (index >> 4) & 0xF;
+          if (x < localMinX || x > localMaxX || z < localMinZ || z > localMaxZ) {
+            if (remove) {
+              indices[write] = indices[entry];
+              values[write] = values[entry];
+              ++write;
+            }
+            continue;
+          }
+          ++matched;
+          if (consumer != null) {
+            Object value = values[entry];
+            consumer.accept(
+                blockX | x, blockY | (index >> 8), blockZ | z, value == NULL ? null : (V) value);
+          }
+        }
+        if (remove && matched > 0) {
+          // Shift remaining entries down over removed entries.
+          int remaining = end - entry;
+          System.arraycopy(indices, entry, indices, write, remaining);
+          System.arraycopy(values, entry, values, write, remaining);
+          Arrays.fill(values, write + remaining, end, null);
+        }
+      }
+
+      count += matched;
+      if (remove && matched > 0) {
+        section.size -= matched;
+        size -= matched;
+        if (section.size == 0) {
+          removeSection(sectionIndex);
+          --sectionIndex;
+        } else if (section.dense && section.size < SPARSE_THRESHOLD) {
+          section.toSparse();
+        }
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Find the next mapped block. Cursors allow iteration without allocating an iterator or
+   * capturing lambda.
+   *
+   * @param cursor the previous cursor or {@code -1} to start from the beginning
+   * @return the cursor of the next mapped block or {@code -1} if there are no more blocks
+   */
+  int nextCursor(int cursor) {
+    int sectionIndex;
+    int position;
+    if (cursor < 0) {
+      sectionIndex = 0;
+      position = 0;
+    } else {
+      sectionIndex = cursor >>> 12;
+      position = (cursor & 0xFFF) + 1;
+    }
+
+    for (; sectionIndex < sectionCount; ++sectionIndex, position = 0) {
+      Section section = sections[sectionIndex];
+      if (!section.dense) {
+        if (position < section.size) {
+          return sectionIndex << 12 | position;
+        }
+        continue;
+      }
+      Object[] values = section.values;
+      for (; position < SECTION_VOLUME; ++position) {
+        if (values[position] != null) {
+          return sectionIndex << 12 | position;
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Get the X coordinate of the block at a cursor.
+   *
+   * @param cursor the cursor
+   * @return the block X coordinate
+   */
+  int xAt(int cursor) {
+    return Coords.chunkToBlock(chunkX) | (localIndexAt(cursor) & 0xF);
+  }
+
+  /**
+   * Get the Y coordinate of the block at a cursor.
+   *
+   * @param cursor the cursor
+   * @return the block Y coordinate
+   */
+  int yAt(int cursor) {
+    return sections[cursor >>> 12].sectionY << 4 | (localIndexAt(cursor) >> 8);
+  }
+
+  /**
+   * Get the Z coordinate of the block at a cursor.
+   *
+   * @param cursor the cursor
+   * @return the block Z coordinate
+   */
+  int zAt(int cursor) {
+    return Coords.chunkToBlock(chunkZ) | ((localIndexAt(cursor) >> 4) & 0xF);
+  }
+
+  /**
+   * Get the value of the block at a cursor.
+   *
+   * @param cursor the cursor
+   * @return the value
+   */
+  @Nullable V valueAt(int cursor) {
+    return unmask(sections[cursor >>> 12].values[cursor & 0xFFF]);
+  }
+
+  private int localIndexAt(int cursor) {
+    Section section = sections[cursor >>> 12];
+    int position = cursor & 0xFFF;
+    return section.dense ? position : section.indices[position];
+  }
+
+  private int findSection(int sectionY) {
+    int low = 0;
+    int high = sectionCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int middleY = sections[middle].sectionY;
+      if (middleY < sectionY) {
+        low = middle + 1;
+      } else if (middleY > sectionY) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private @NotNull Section insertSection(int sectionIndex, int sectionY) {
+    if (sectionCount == sections.length) {
+      sections = Arrays.copyOf(sections, Math.max(4, sectionCount * 2));
+    }
+    System.arraycopy(
+        sections, sectionIndex, sections, sectionIndex + 1, sectionCount - sectionIndex);
+    Section section = new Section(sectionY);
+    sections[sectionIndex] = section;
+    ++sectionCount;
+    return section;
+  }
+
+  private void removeSection(int sectionIndex) {
+    --sectionCount;
+    System.arraycopy(
+        sections, sectionIndex + 1, sections, sectionIndex, sectionCount - sectionIndex);
+    sections[sectionCount] = null;
+  }
+
+  /**
+   * Prepare a section to receive a number of additional mappings without resizing. If the section
+   * would become dense, it is converted immediately rather than growing sparse storage first.
+   *
+   * @param sectionY the section Y coordinate
+   * @param additional the number of mappings expected to be added
+   */
+  void ensureCapacity(int sectionY, int additional) {
+    int sectionIndex = findSection(sectionY);
+    Section section;
+    if (sectionIndex < 0) {
+      section = insertSection(-sectionIndex - 1, sectionY);
+    } else {
+      section = sections[sectionIndex];
+    }
+    section.ensureCapacity(additional);
+  }
+
+  /**
+   * Get the index of a block inside its section. X is the least significant, matching the order
+   * Minecraft stores blocks in.
+   */
+  static int localIndex(int x, int y, int z) {
+    return (y & 0xF) << 8 | (z & 0xF) << 4 | (x & 0xF);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> @Nullable V unmask(@Nullable Object value) {
+    return value == NULL ? null : (V) value;
+  }
+
+  /** A 16x16x16 section of blocks. */
+  private static final class Section {
+
+    private static final short[] NO_INDICES = new short[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final int sectionY;
+    private int size;
+    private boolean dense;
+    /** Sorted local indices while sparse. Unused while dense. */
+    private short[] indices = NO_INDICES;
+    /** Values matching indices while sparse, values at local indices while dense. */
+    private Object[] values = NO_VALUES;
+
+    private Section(int sectionY) {
+      this.sectionY = sectionY;
+    }
+
+    private Section(@NotNull Section other) {
+      this(other.sectionY);
+      size = other.size;
+      dense = other.dense;
+      if (dense) {
+        values = other.values.clone();
+      } else {
+        indices = Arrays.copyOf(other.indices, size);
+        values = Arrays.copyOf(other.values, size);
+      }
+    }
+
+    private @Nullable Object get(int localIndex) {
+      if (dense) {
+        return values[localIndex];
+      }
+      int entry = Arrays.binarySearch(indices, 0, size, (short) localIndex);
+      return entry < 0 ? null : values[entry];
+    }
+
+    private @Nullable Object put(int localIndex, @NotNull Object value) {
+      Object old;
+      if (dense) {
+        old = values[localIndex];
+        values[localIndex] = value;
+        if (old == null) {
+          ++size;
+        }
+        return old;
+      }
+
+      // Mappings added in order are appended without searching.
+      int entry = size == 0 || indices[size - 1] < localIndex
+          ? -size - 1
+          : Arrays.binarySearch(indices, 0, size, (short) localIndex);
+      if (entry >= 0) {
+        old = values[entry];
+        values[entry] = value;
+        return old;
+      }
+
+      entry = -entry - 1;
+      if (size == indices.length) {
+        int capacity = Math.max(4, size + (size >> 1));
+        indices = Arrays.copyOf(indices, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      System.arraycopy(indices, entry, indices, entry + 1, size - entry);
+      System.arraycopy(values, entry, values, entry + 1, size - entry);
+      indices[entry] = (short) localIndex;
+      values[entry] = value;
+      ++size;
+
+      if (size >= DENSE_THRESHOLD) {
+        toDense();
+      }
+      return null;
+    }
+
+    private @Nullable Object remove(int localIndex) {
+      Object old;
+      if (dense) {
+        old = values[localIndex];
+        if (old != null) {
+          values[localIndex] = null;
+          --size;
+          if (size < SPARSE_THRESHOLD) {
+            toSparse();
+          }
+        }
+        return old;
+      }
+
+      int entry = Arrays.binarySearch(indices, 0, size, (short) localIndex);
+      if (entry < 0) {
+        return null;
+      }
+      old = values[entry];
+      --size;
+      System.arraycopy(indices, entry + 1, indices, entry, size - entry);
+      System.arraycopy(values, entry + 1, values, entry, size - entry);
+      values[size] = null;
+      return old;
+    }
+
+    private void trim() {
+      if (!dense && indices.length > size) {
+        indices = Arrays.copyOf(indices, size);
+        values = Arrays.copyOf(values, size);
+      }
+    }
+
+    private long memoryFootprint() {
+      return Footprint.object(Integer.BYTES * 2 + 1 + Footprint.REFERENCE * 2)
+          + Footprint.array(indices.length, Short.BYTES)
+          + Footprint.array(values.length, Footprint.REFERENCE);
+    }
+
+    private void ensureCapacity(int additional) {
+      if (dense) {
+        return;
+      }
+      int capacity = size + additional;
+      if (capacity >= DENSE_THRESHOLD) {
+        toDense();
+      } else if (capacity > indices.length) {
+        indices = Arrays.copyOf(indices, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+    }
+
+    private void toDense() {
+      Object[] denseValues = new Object[SECTION_VOLUME];
+      for (int entry = 0; entry < size; ++entry) {
+        denseValues[indices[entry]] = values[entry];
+      }
+      indices = NO_INDICES;
+      values = denseValues;
+      dense = true;
+    }
+
+    private void toSparse() {
+      short[] sparseIndices = new short[size];
+      Object[] sparseValues = new Object[size];
+      int entry = 0;
+      for (int index = 0; index < SECTION_VOLUME; ++index) {
+        if (values[index] != null) {
+          sparseIndices[entry] = (short) index;
+          sparseValues[entry] = values[index];
+          ++entry;
+        }
+      }
+      indices = sparseIndices;
+      values = sparseValues;
+      dense = false;
+    }
+
+  }
+
+}
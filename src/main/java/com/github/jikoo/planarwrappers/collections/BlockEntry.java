@@ -0,0 +1,29 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A mapped block and its value. Holds raw coordinates so that no {@code Block} needs to be created.
+ *
+ * @param world the name of the world
+ * @param x the block X coordinate
+ * @param y the block Y coordinate
+ * @param z the block Z coordinate
+ * @param value the value mapped to the block
+ * @param <V> the type of value stored
+ */
+public record BlockEntry<V>(@NotNull String world, int x, int y, int z, V value) {
+
+  /**
+   * Get the squared distance between the block and the coordinates specified.
+   *
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   * @return the squared distance
+   */
+  public long distanceSquared(int x, int y, int z) {
+    return BlockMap.distanceSquared(this.x - (long) x, this.y - (long) y, this.z - (long) z);
+  }
+
+}
@@ -0,0 +1,186 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.collections.BlockMap.BlockMapEntry;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A lazy {@link Spliterator} over the entries of a {@link BlockMap}.
+ *
+ * <p>Blocks are only created as entries are consumed. Splitting first divides worlds, then divides
+ * a world's chunks into ranges along the X axis.
+ *
+ * <p>Worlds that are not loaded are skipped. The map must not be modified during traversal.
+ *
+ * @param <V> the type of value stored
+ */
+final class BlockEntrySpliterator<V> implements Spliterator<Map.Entry<Block, V>> {
+
+  private static final Comparator<BlockChunk<?>> CHUNK_ORDER =
+      Comparator.<BlockChunk<?>>comparingInt(BlockChunk::getChunkX)
+          .thenComparingInt(BlockChunk::getChunkZ);
+
+  private final @NotNull BlockWorld<V> @NotNull [] worlds;
+  private int worldIndex;
+  private int worldEnd;
+
+  private @Nullable World world;
+  private @Nullable BlockChunk<V> @Nullable [] chunks;
+  private int chunkIndex;
+  private int chunkEnd;
+  private int cursor = -1;
+
+  BlockEntrySpliterator(@NotNull BlockWorld<V> @NotNull [] worlds) {
+    this(worlds, 0, worlds.length);
+  }
+
+  private BlockEntrySpliterator(
+      @NotNull BlockWorld<V> @NotNull [] worlds,
+      int worldIndex,
+      int worldEnd) {
+    this.worlds = worlds;
+    this.worldIndex = worldIndex;
+    this.worldEnd = worldEnd;
+  }
+
+  private BlockEntrySpliterator(
+      @NotNull BlockWorld<V> @NotNull [] worlds,
+      int worldIndex,
+      @NotNull World world,
+      @NotNull BlockChunk<V> @NotNull [] chunks,
+      int chunkIndex,
+      int chunkEnd) {
+    this(worlds, worldIndex, worldIndex + 1);
+    this.world = world;
+    this.chunks = chunks;
+    this.chunkIndex = chunkIndex;
+    this.chunkEnd = chunkEnd;
+  }
+
+  @Override
+  public boolean tryAdvance(@NotNull Consumer<? super Map.Entry<Block, V>> action) {
+    while (openWorld()) {
+      World localWorld = world;
+      BlockChunk<V>[] localChunks = chunks;
+      while (chunkIndex < chunkEnd) {
+        BlockChunk<V> blockChunk = localChunks[chunkIndex];
+        cursor = blockChunk.nextCursor(cursor);
+        if (cursor >= 0) {
+          Block block = localWorld.getBlockAt(
+              blockChunk.xAt(cursor), blockChunk.yAt(cursor), blockChunk.zAt(cursor));
+          action.accept(new BlockMapEntry<>(block, blockChunk.valueAt(cursor)));
+          return true;
+        }
+        ++chunkIndex;
+      }
+      closeWorld();
+    }
+    return false;
+  }
+
+  @Override
+  public @Nullable Spliterator<Map.Entry<Block, V>> trySplit() {
+    // Hand off trailing worlds first.
+    if (worldEnd - worldIndex > 1) {
+      int middle = (worldIndex + worldEnd + 1) >>> 1;
+      BlockEntrySpliterator<V> suffix = new BlockEntrySpliterator<>(worlds, middle, worldEnd);
+      worldEnd = middle;
+      return suffix;
+    }
+
+    // Down to a single world, hand off trailing chunks. Chunks are sorted, so this splits along X.
+    if (!openWorld() || chunkEnd - chunkIndex < 2) {
+      return null;
+    }
+    int middle = (chunkIndex + chunkEnd + 1) >>> 1;
+    BlockEntrySpliterator<V> suffix =
+        new BlockEntrySpliterator<>(worlds, worldIndex, world, chunks, middle, chunkEnd);
+    chunkEnd = middle;
+    return suffix;
+  }
+
+  @Override
+  public long estimateSize() {
+    long size = 0;
+    int index = worldIndex;
+    if (chunks != null) {
+      for (int chunk = chunkIndex; chunk < chunkEnd; ++chunk) {
+        size += chunks[chunk].size();
+      }
+      ++index;
+    }
+    for (; index < worldEnd; ++index) {
+      size += size(worlds[index]);
+    }
+    return size;
+  }
+
+  @Override
+  public int characteristics() {
+    return DISTINCT | NONNULL;
+  }
+
+  /**
+   * Ensure that a world is open for traversal, advancing to the next loaded world if necessary.
+   *
+   * @return false if there are no remaining worlds
+   */
+  private boolean openWorld() {
+    while (chunks == null) {
+      if (worldIndex >= worldEnd) {
+        return false;
+      }
+      BlockWorld<V> blockWorld = worlds[worldIndex];
+      world = blockWorld.getWorld();
+      if (world == null) {
+        ++worldIndex;
+        continue;
+      }
+      chunks = sortedChunks(blockWorld);
+      chunkIndex = 0;
+      chunkEnd = chunks.length;
+      cursor = -1;
+    }
+    return true;
+  }
+
+  private void closeWorld() {
+    world = null;
+    chunks = null;
+    ++worldIndex;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> @NotNull BlockChunk<V> @NotNull [] sortedChunks(
+      @NotNull BlockWorld<V> blockWorld) {
+    LongObjectMap<BlockChunk<V>> chunkMap = blockWorld.getChunks();
+    BlockChunk<V>[] chunks = (BlockChunk<V>[]) new BlockChunk<?>[chunkMap.size()];
+    int[] index = new int[1];
+    chunkMap.forEach((chunkKey, blockChunk) -> chunks[index[0]++] = blockChunk);
+    Arrays.sort(chunks, CHUNK_ORDER);
+    return chunks;
+  }
+
+  /**
+   * Count the entries in a world. Unloaded worlds are counted as empty, matching traversal.
+   *
+   * @param blockWorld the world storage
+   * @return the number of entries
+   */
+  static long size(@NotNull BlockWorld<?> blockWorld) {
+    if (blockWorld.getWorld() == null) {
+      return 0;
+    }
+    long[] size = new long[1];
+    blockWorld.getChunks().forEach((chunkKey, blockChunk) -> size[0] += blockChunk.size());
+    return size[0];
+  }
+
+}
@@ -1,21 +1,30 @@
 package com.github.jikoo.planarwrappers.collections;
 
+import com.github.jikoo.planarwrappers.function.IntTriObjConsumer;
 import com.github.jikoo.planarwrappers.util.Coords;
+import com.github.jikoo.planarwrappers.world.BlockBox;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.SortedMap;
-import org.bukkit.Bukkit;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BinaryOperator;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import org.jetbrains.annotations.UnmodifiableView;
 
 /**
  * A more performant expression of a {@code Map<Block, ?>}. Also supports chunk-based operations.
@@ -24,8 +33,200 @@ import org.jetbrains.annotations.Nullable;
  */
 public class BlockMap<V> {
 
-  private final Map<String, SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>>> serverMap =
-      FastMap.obj2Obj();
+  /*
+   * Blocks are stored per world in a table keyed by packed chunk coordinates. Each chunk stores its
+   * blocks in sections that switch to flat arrays once densely populated. Keys are never boxed,
+   * and chunk-level operations only need to look up a single chunk.
+   *
+   * Worlds are found by identity in a small array before falling back to name lookups, so hot
+   * paths operating on loaded worlds never need to hash or compare world names.
+   *
+   * Snapshots share world storage with the map they were taken from. World storage copies shared
+   * chunk tables and chunks before they are modified, so snapshots never observe later changes.
+   *
+   * Change tracking is opt-in. Without listeners or dirty chunk tracking, mutations only pay for a
+   * null check and an empty loop.
+   */
+  private final Map<String, BlockWorld<V>> worldsByName = FastMap.obj2Obj();
+  @SuppressWarnings("unchecked")
+  private BlockWorld<V>[] worlds = (BlockWorld<V>[]) new BlockWorld<?>[0];
+  @SuppressWarnings("unchecked")
+  private BlockChangeListener<? super V>[] listeners =
+      (BlockChangeListener<? super V>[]) new BlockChangeListener<?>[0];
+  private @Nullable ChunkSet dirtyChunks;
+  private final int expectedChunks;
+  private final boolean frozen;
+
+  /**
+   * Construct a new {@code BlockMap}.
+   */
+  public BlockMap() {
+    this(0);
+  }
+
+  /**
+   * Construct a new {@code BlockMap} sized to hold mappings in a number of chunks per world
+   * without resizing.
+   *
+   * <p>Storage for a world never shrinks below the expected size automatically. It may still be
+   * released with {@link #trim()}.
+   *
+   * @param expectedChunks the number of chunks expected to contain mappings in each world
+   * @throws IllegalArgumentException if the number of chunks is negative
+   */
+  public BlockMap(int expectedChunks) {
+    if (expectedChunks < 0) {
+      throw new IllegalArgumentException("Expected chunks cannot be negative");
+    }
+    this.expectedChunks = expectedChunks;
+    this.frozen = false;
+  }
+
+  private BlockMap(@NotNull BlockMap<V> source) {
+    this.expectedChunks = source.expectedChunks;
+    this.frozen = true;
+    this.worlds = source.worlds.clone();
+    for (int index = 0; index < worlds.length; ++index) {
+      BlockWorld<V> blockWorld = worlds[index].snapshot();
+      worlds[index] = blockWorld;
+      worldsByName.put(blockWorld.getName(), blockWorld);
+    }
+  }
+
+  /**
+   * Create an immutable snapshot of the map's current content.
+   *
+   * <p>The snapshot shares storage with the map, so creating it takes time proportional to the
+   * number of worlds rather than the number of mappings. After a snapshot is taken, the first
+   * modification of each chunk and of each world's chunk table copies the affected storage.
+   * Subsequent modifications are made in place until the next snapshot.
+   *
+   * <p>The snapshot supports all read operations and may be read from another thread while this
+   * map is modified, provided it is handed off safely, i.e. through an executor or a concurrent
+   * collection. Operations that modify the snapshot throw {@link UnsupportedOperationException}.
+   * A snapshot is not itself thread-safe; it should be read by one thread at a time. Operations
+   * involving {@link Block Blocks} or loaded {@link World Worlds} are subject to the usual Bukkit
+   * threading restrictions.
+   *
+   * @return the snapshot
+   */
+  public @NotNull @Unmodifiable BlockMap<V> snapshot() {
+    return frozen ? this : new BlockMap<>(this);
+  }
+
+  private void checkMutable() {
+    if (frozen) {
+      throw new UnsupportedOperationException("Snapshots cannot be modified!");
+    }
+  }
+
+  /**
+   * Add a listener to be notified of each mapping added, replaced, or removed.
+   *
+   * <p>Listeners are notified of each mapping removed by chunk and box removals as well, which
+   * costs an additional pass over the removed chunks. Mappings moved out and restored by a
+   * {@link BlockMapPager} are not changes and are not notified.
+   *
+   * @param listener the listener
+   */
+  public void addListener(@NotNull BlockChangeListener<? super V> listener) {
+    checkMutable();
+    listeners = Arrays.copyOf(listeners, listeners.length + 1);
+    listeners[listeners.length - 1] = listener;
+  }
+
+  /**
+   * Remove a listener.
+   *
+   * @param listener the listener
+   * @return true if the listener was present
+   */
+  public boolean removeListener(@NotNull BlockChangeListener<? super V> listener) {
+    int index = Arrays.asList(listeners).indexOf(listener);
+    if (index < 0) {
+      return false;
+    }
+
+    BlockChangeListener<? super V>[] remaining = Arrays.copyOf(listeners, listeners.length - 1);
+    System.arraycopy(listeners, index + 1, remaining, index, remaining.length - index);
+    listeners = remaining;
+    return true;
+  }
+
+  /**
+   * Set whether chunks containing changed mappings are recorded. Disabling tracking discards any
+   * chunks recorded.
+   *
+   * @param track whether to record changed chunks
+   * @see #drainDirtyChunks()
+   */
+  public void setTrackingDirtyChunks(boolean track) {
+    checkMutable();
+    if (!track) {
+      dirtyChunks = null;
+    } else if (dirtyChunks == null) {
+      dirtyChunks = new ChunkSet();
+    }
+  }
+
+  /**
+   * Check whether chunks containing changed mappings are recorded.
+   *
+   * @return true if changed chunks are recorded
+   */
+  public boolean isTrackingDirtyChunks() {
+    return dirtyChunks != null;
+  }
+
+  /**
+   * Get and reset the chunks that have had mappings added, replaced, or removed since tracking was
+   * enabled or since the last time the chunks were drained.
+   *
+   * <p>Chunks that no longer contain any mappings are included so that their removal can be
+   * persisted. Chunks moved out or restored by a {@link BlockMapPager} are not recorded, because
+   * their content is unchanged. Persisting a paged-out chunk as empty would lose its mappings.
+   *
+   * @return the changed chunks, or an empty set if changed chunks are not being recorded
+   */
+  public @NotNull ChunkSet drainDirtyChunks() {
+    ChunkSet drained = dirtyChunks;
+    if (drained == null) {
+      return new ChunkSet();
+    }
+    dirtyChunks = new ChunkSet();
+    return drained;
+  }
+
+  private void changed(
+      @NotNull BlockWorld<V> blockWorld,
+      int x,
+      int y,
+      int z,
+      @Nullable V oldValue,
+      @Nullable V newValue,
+      boolean removed) {
+    markDirty(blockWorld, Coords.blockToChunk(x), Coords.blockToChunk(z));
+    notifyChanged(blockWorld, x, y, z, oldValue, newValue, removed);
+  }
+
+  private void markDirty(@NotNull BlockWorld<V> blockWorld, int chunkX, int chunkZ) {
+    if (dirtyChunks != null) {
+      dirtyChunks.add(blockWorld.getName(), chunkX, chunkZ);
+    }
+  }
+
+  private void notifyChanged(
+      @NotNull BlockWorld<V> blockWorld,
+      int x,
+      int y,
+      int z,
+      @Nullable V oldValue,
+      @Nullable V newValue,
+      boolean removed) {
+    for (BlockChangeListener<? super V> listener : listeners) {
+      listener.changed(blockWorld.getName(), x, y, z, oldValue, newValue, removed);
+    }
+  }
 
   /**
    * Add a mapping for a {@link Block}.
@@ -35,14 +236,207 @@ public class BlockMap<V> {
    * @return the previously stored value or {@code null} if no value was present
    */
   public @Nullable V put(@NotNull Block block, @Nullable V value) {
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> worldMap =
-        serverMap.computeIfAbsent(block.getWorld().getName(), k -> FastMap.int2ObjTree());
-    SortedMap<Integer, Map<Integer, V>> blockXMap =
-        worldMap.computeIfAbsent(block.getX(), k -> FastMap.int2ObjTree());
-    Map<Integer, V> blockZMap =
-        blockXMap.computeIfAbsent(block.getZ(), blockZ -> FastMap.int2Obj());
+    return put(block.getWorld(), block.getX(), block.getY(), block.getZ(), value);
+  }
 
-    return blockZMap.put(block.getY(), value);
+  /**
+   * Add a mapping for the block at the coordinates in the world specified.
+   *
+   * @param world the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull World world, int x, int y, int z, @Nullable V value) {
+    checkMutable();
+    BlockWorld<V> blockWorld = getWorld(world);
+    if (blockWorld == null) {
+      blockWorld = createWorld(world.getName(), world);
+    }
+    return put(blockWorld, x, y, z, value);
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull String world, int x, int y, int z, @Nullable V value) {
+    return put(getOrCreateWorld(world), x, y, z, value);
+  }
+
+  private @Nullable V put(
+      @NotNull BlockWorld<V> blockWorld,
+      int x,
+      int y,
+      int z,
+      @Nullable V value) {
+    V old = blockWorld.getOrCreateChunkAt(x, z).put(x, y, z, value);
+    changed(blockWorld, x, y, z, old, value, false);
+    return old;
+  }
+
+  /**
+   * Add mappings for blocks in the world named from parallel arrays of coordinates and values. If a
+   * block appears more than once, the last value is kept.
+   *
+   * <p>This is much faster than adding mappings individually when importing large numbers of
+   * blocks, i.e. when loading saved data or pasting a structure. The world is only resolved once,
+   * and mappings are sorted so that each chunk is looked up once and each section is sized once,
+   * then filled in order.
+   *
+   * @param world the name of the world
+   * @param xs the block X coordinates
+   * @param ys the block Y coordinates
+   * @param zs the block Z coordinates
+   * @param values the values to be stored using the coordinates
+   * @throws IllegalArgumentException if the arrays are not all the same length
+   * @see BlockMapBuilder
+   */
+  public void putAll(
+      @NotNull String world,
+      int @NotNull [] xs,
+      int @NotNull [] ys,
+      int @NotNull [] zs,
+      @Nullable V @NotNull [] values) {
+    int length = values.length;
+    if (xs.length != length || ys.length != length || zs.length != length) {
+      throw new IllegalArgumentException("Coordinate and value arrays must be the same length");
+    }
+    putAll(world, xs, ys, zs, values, length, null);
+  }
+
+  /**
+   * Add mappings for blocks in the world named from parallel arrays of coordinates and values.
+   *
+   * @param world the name of the world
+   * @param xs the block X coordinates
+   * @param ys the block Y coordinates
+   * @param zs the block Z coordinates
+   * @param values the values to be stored using the coordinates
+   * @param length the number of mappings to read from the arrays
+   * @param merge the function combining an existing value with a new value, or {@code null} to
+   *     replace existing values
+   */
+  @SuppressWarnings("unchecked")
+  void putAll(
+      @NotNull String world,
+      int @NotNull [] xs,
+      int @NotNull [] ys,
+      int @NotNull [] zs,
+      @Nullable Object @NotNull [] values,
+      int length,
+      @Nullable BinaryOperator<V> merge) {
+    checkMutable();
+    if (length == 0) {
+      return;
+    }
+
+    BlockWorld<V> blockWorld = getOrCreateWorld(world);
+    PositionOrder order = new PositionOrder(xs, ys, zs, length);
+
+    // Count chunks that need to be created so that the chunk table is only resized once.
+    int newChunks = 0;
+    int lastSection = 0;
+    long lastChunk = 0;
+    for (int sorted = 0; sorted < length; ++sorted) {
+      int section = order.section(sorted);
+      if (sorted > 0 && section == lastSection) {
+        continue;
+      }
+      lastSection = section;
+      int index = order.index(sorted);
+      int chunkX = Coords.blockToChunk(xs[index]);
+      int chunkZ = Coords.blockToChunk(zs[index]);
+      long chunkKey = Coords.packChunk(chunkX, chunkZ);
+      if ((sorted == 0 || chunkKey != lastChunk) && blockWorld.getChunk(chunkX, chunkZ) == null) {
+        ++newChunks;
+      }
+      lastChunk = chunkKey;
+    }
+    blockWorld.ensureCapacity(blockWorld.getChunks().size() + newChunks);
+
+    BlockChunk<V> blockChunk = null;
+    int sorted = 0;
+    while (sorted < length) {
+      int section = order.section(sorted);
+      int index = order.index(sorted);
+      int chunkX = Coords.blockToChunk(xs[index]);
+      int chunkZ = Coords.blockToChunk(zs[index]);
+      int sectionY = ys[index] >> 4;
+      if (blockChunk == null
+          || blockChunk.getChunkX() != chunkX
+          || blockChunk.getChunkZ() != chunkZ) {
+        blockChunk = blockWorld.getOrCreateChunkAt(xs[index], zs[index]);
+        markDirty(blockWorld, chunkX, chunkZ);
+      }
+
+      // Find the run of mappings in the section and size the section to receive them.
+      int end = sorted + 1;
+      while (end < length && order.section(end) == section) {
+        ++end;
+      }
+      if (!order.isExact()) {
+        // Distant sections may share keys, so the run must be checked against real coordinates.
+        for (int next = sorted + 1; next < end; ++next) {
+          index = order.index(next);
+          if (ys[index] >> 4 != sectionY
+              || Coords.blockToChunk(xs[index]) != chunkX
+              || Coords.blockToChunk(zs[index]) != chunkZ) {
+            end = next;
+            break;
+          }
+        }
+      }
+      blockChunk.ensureCapacity(sectionY, end - sorted);
+
+      // Positions within the run only differ by local index.
+      int baseX = chunkX << 4;
+      int baseY = sectionY << 4;
+      int baseZ = chunkZ << 4;
+      for (; sorted < end; ++sorted) {
+        int localIndex = order.localIndex(sorted);
+        int x = baseX | localIndex & 0xF;
+        int y = baseY | localIndex >> 8;
+        int z = baseZ | localIndex >> 4 & 0xF;
+        V value = (V) values[order.index(sorted)];
+        if (merge != null && blockChunk.containsKey(x, y, z)) {
+          value = merge.apply(blockChunk.get(x, y, z), value);
+        }
+        V old = blockChunk.put(x, y, z, value);
+        if (listeners.length > 0) {
+          notifyChanged(blockWorld, x, y, z, old, value, false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get a consumer storing mappings in a chunk on behalf of a bulk loader. The chunk is marked
+   * dirty, and each mapping stored notifies listeners as
+   * {@link #put(String, int, int, int, Object)} would.
+   *
+   * @param blockWorld the world containing the chunk
+   * @param blockChunk the chunk, which must be owned by the world
+   * @return the consumer storing mappings
+   */
+  @NotNull IntTriObjConsumer<V> chunkWriter(
+      @NotNull BlockWorld<V> blockWorld,
+      @NotNull BlockChunk<V> blockChunk) {
+    checkMutable();
+    markDirty(blockWorld, blockChunk.getChunkX(), blockChunk.getChunkZ());
+    if (listeners.length == 0) {
+      return blockChunk::put;
+    }
+    return (x, y, z, value) ->
+        notifyChanged(blockWorld, x, y, z, blockChunk.put(x, y, z, value), value, false);
   }
 
   /**
@@ -52,23 +446,91 @@ public class BlockMap<V> {
    * @return the stored value or {@code null} if no value is present
    */
   public @Nullable V get(@NotNull Block block) {
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> xzyMap =
-        serverMap.get(block.getWorld().getName());
-    if (xzyMap == null) {
+    return get(block.getWorld(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get a stored mapping for the block at the coordinates in the world specified.
+   *
+   * @param world the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull World world, int x, int y, int z) {
+    return get(getWorld(world), x, y, z);
+  }
+
+  /**
+   * Get a stored mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull String world, int x, int y, int z) {
+    return get(worldsByName.get(world), x, y, z);
+  }
+
+  private @Nullable V get(@Nullable BlockWorld<V> blockWorld, int x, int y, int z) {
+    if (blockWorld == null) {
       return null;
     }
 
-    SortedMap<Integer, Map<Integer, V>> zyMap = xzyMap.get(block.getX());
-    if (zyMap == null) {
+    BlockChunk<V> blockChunk = blockWorld.getChunkAt(x, z);
+    if (blockChunk == null) {
       return null;
     }
 
-    Map<Integer, V> yMap = zyMap.get(block.getZ());
-    if (yMap == null) {
-      return null;
+    return blockChunk.get(x, y, z);
+  }
+
+  /**
+   * Check if a mapping exists for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return true if a value is mapped to the block
+   */
+  public boolean containsKey(@NotNull Block block) {
+    return containsKey(block.getWorld(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Check if a mapping exists for the block at the coordinates in the world specified.
+   *
+   * @param world the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return true if a value is mapped to the block
+   */
+  public boolean containsKey(@NotNull World world, int x, int y, int z) {
+    return containsKey(getWorld(world), x, y, z);
+  }
+
+  /**
+   * Check if a mapping exists for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return true if a value is mapped to the block
+   */
+  public boolean containsKey(@NotNull String world, int x, int y, int z) {
+    return containsKey(worldsByName.get(world), x, y, z);
+  }
+
+  private boolean containsKey(@Nullable BlockWorld<V> blockWorld, int x, int y, int z) {
+    if (blockWorld == null) {
+      return false;
     }
 
-    return yMap.get(block.getY());
+    BlockChunk<V> blockChunk = blockWorld.getChunkAt(x, z);
+    return blockChunk != null && blockChunk.containsKey(x, y, z);
   }
 
   /**
@@ -78,7 +540,22 @@ public class BlockMap<V> {
    * @return the stored values
    */
   public @NotNull Collection<V> get(@NotNull Chunk chunk) {
-    return get(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    return get(chunk.getWorld(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Get all stored mappings for the chunk coordinates in the world specified.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! If
+   * necessary, convert with the {@link Coords} utility.
+   *
+   * @param world the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the stored values
+   */
+  public @NotNull Collection<V> get(@NotNull World world, int chunkX, int chunkZ) {
+    return getChunkValues(getWorld(world), chunkX, chunkZ);
   }
 
   /**
@@ -93,32 +570,18 @@ public class BlockMap<V> {
    * @return the stored values
    */
   public @NotNull Collection<V> get(@NotNull String world, int chunkX, int chunkZ) {
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> xzyMap = serverMap.get(world);
-    if (xzyMap == null) {
-      return Collections.emptyList();
-    }
+    return getChunkValues(worldsByName.get(world), chunkX, chunkZ);
+  }
 
-    int blockXMin = Coords.chunkToBlock(chunkX);
-    // Submap fetching is high boundary exclusive, shift responsibility for chunk size to Coords.
-    int blockXMax = Coords.chunkToBlock(chunkX + 1);
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> zySubMap =
-        xzyMap.subMap(blockXMin, blockXMax);
-    if (zySubMap.isEmpty()) {
+  private @NotNull Collection<V> getChunkValues(
+      @Nullable BlockWorld<V> blockWorld,
+      int chunkX,
+      int chunkZ) {
+    if (blockWorld == null) {
       return Collections.emptyList();
     }
 
-    List<V> values = new ArrayList<>();
-    int blockZMin = Coords.chunkToBlock(chunkZ);
-    int blockZMax = Coords.chunkToBlock(chunkZ + 1);
-    for (Map.Entry<Integer, SortedMap<Integer, Map<Integer, V>>> zyEntry : zySubMap.entrySet()) {
-      SortedMap<Integer, Map<Integer, V>> ySubMap = zyEntry.getValue().subMap(blockZMin, blockZMax);
-
-      for (Map<Integer, V> blockYMap : ySubMap.values()) {
-        values.addAll(blockYMap.values());
-      }
-    }
-
-    return values;
+    return values(blockWorld.getChunk(chunkX, chunkZ));
   }
 
   /**
@@ -128,23 +591,52 @@ public class BlockMap<V> {
    * @return the previously stored value or {@code null} if no value was present
    */
   public @Nullable V remove(@NotNull Block block) {
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> xzyMap =
-        serverMap.get(block.getWorld().getName());
-    if (xzyMap == null) {
-      return null;
-    }
+    return remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Remove a mapping for the block at the coordinates in the world specified.
+   *
+   * @param world the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull World world, int x, int y, int z) {
+    return remove(getWorld(world), x, y, z);
+  }
 
-    SortedMap<Integer, Map<Integer, V>> zyMap = xzyMap.get(block.getX());
-    if (zyMap == null) {
+  /**
+   * Remove a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull String world, int x, int y, int z) {
+    return remove(worldsByName.get(world), x, y, z);
+  }
+
+  private @Nullable V remove(@Nullable BlockWorld<V> blockWorld, int x, int y, int z) {
+    checkMutable();
+    if (blockWorld == null) {
       return null;
     }
 
-    Map<Integer, V> yMap = zyMap.get(block.getZ());
-    if (yMap == null) {
+    BlockChunk<V> blockChunk = blockWorld.getChunkAt(x, z);
+    // Check first so that storage shared with a snapshot is not copied needlessly.
+    if (blockChunk == null || !blockChunk.containsKey(x, y, z)) {
       return null;
     }
 
-    return yMap.remove(block.getY());
+    blockChunk = blockWorld.own(blockChunk);
+    V value = blockChunk.remove(x, y, z);
+    blockWorld.removeIfEmpty(blockChunk);
+    changed(blockWorld, x, y, z, value, null, true);
+    return value;
   }
 
   /**
@@ -154,7 +646,22 @@ public class BlockMap<V> {
    * @return the previously stored values
    */
   public @NotNull Collection<V> remove(@NotNull Chunk chunk) {
-    return remove(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    return remove(chunk.getWorld(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Remove all stored mappings for the chunk coordinates in the world specified.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! If
+   * necessary, convert with the {@link Coords} utility.
+   *
+   * @param world the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the previously stored values
+   */
+  public @NotNull Collection<V> remove(@NotNull World world, int chunkX, int chunkZ) {
+    return removeChunkValues(getWorld(world), chunkX, chunkZ);
   }
 
   /**
@@ -169,39 +676,465 @@ public class BlockMap<V> {
    * @return the previously stored values
    */
   public @NotNull Collection<V> remove(@NotNull String world, int chunkX, int chunkZ) {
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> xzyMap = serverMap.get(world);
-    if (xzyMap == null) {
+    return removeChunkValues(worldsByName.get(world), chunkX, chunkZ);
+  }
+
+  private @NotNull Collection<V> removeChunkValues(
+      @Nullable BlockWorld<V> blockWorld,
+      int chunkX,
+      int chunkZ) {
+    checkMutable();
+    if (blockWorld == null) {
       return Collections.emptyList();
     }
 
-    int blockXMin = Coords.chunkToBlock(chunkX);
-    SortedMap<Integer, SortedMap<Integer, Map<Integer, V>>> zySubMap =
-        xzyMap.subMap(blockXMin, blockXMin + 16);
-    if (zySubMap.isEmpty()) {
-      return Collections.emptyList();
+    BlockChunk<V> blockChunk = blockWorld.removeChunk(chunkX, chunkZ);
+    if (blockChunk != null && !blockChunk.isEmpty()) {
+      markDirty(blockWorld, chunkX, chunkZ);
+      if (listeners.length > 0) {
+        blockChunk.forEach(
+            (x, y, z, value) -> notifyChanged(blockWorld, x, y, z, value, null, true));
+      }
+    }
+    return values(blockChunk);
+  }
+
+
+  /**
+   * Perform an action for each stored mapping in a {@link Chunk}.
+   *
+   * @param chunk the {@code Chunk} of blocks to visit
+   * @param consumer the action to perform with the block coordinates and value
+   */
+  public void forEachInChunk(@NotNull Chunk chunk, @NotNull IntTriObjConsumer<? super V> consumer) {
+    forEachInChunk(getWorld(chunk.getWorld()), chunk.getX(), chunk.getZ(), consumer);
+  }
+
+  /**
+   * Perform an action for each stored mapping for the chunk coordinates in the world named.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! The
+   * coordinates provided to the consumer are block coordinates.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param consumer the action to perform with the block coordinates and value
+   */
+  public void forEachInChunk(
+      @NotNull String world,
+      int chunkX,
+      int chunkZ,
+      @NotNull IntTriObjConsumer<? super V> consumer) {
+    forEachInChunk(worldsByName.get(world), chunkX, chunkZ, consumer);
+  }
+
+  private void forEachInChunk(
+      @Nullable BlockWorld<V> blockWorld,
+      int chunkX,
+      int chunkZ,
+      @NotNull IntTriObjConsumer<? super V> consumer) {
+    if (blockWorld == null) {
+      return;
     }
 
+    BlockChunk<V> blockChunk = blockWorld.getChunk(chunkX, chunkZ);
+    if (blockChunk != null) {
+      blockChunk.forEach(consumer);
+    }
+  }
+
+  /**
+   * Get all stored mappings inside a {@link BlockBox} in the world named.
+   *
+   * @param world the name of the world
+   * @param box the bounds of the blocks to retrieve
+   * @return the stored values
+   */
+  public @NotNull Collection<V> getWithin(@NotNull String world, @NotNull BlockBox box) {
     List<V> values = new ArrayList<>();
-    int blockZMin = Coords.chunkToBlock(chunkZ);
-
-    for (Iterator<SortedMap<Integer, Map<Integer, V>>> blockXIterator =
-            zySubMap.values().iterator();
-        blockXIterator.hasNext(); ) {
-      SortedMap<Integer, Map<Integer, V>> zyValue = blockXIterator.next();
-      SortedMap<Integer, Map<Integer, V>> ySubMap = zyValue.subMap(blockZMin, blockZMin + 16);
-
-      for (Iterator<Map<Integer, V>> yIterator = ySubMap.values().iterator();
-          yIterator.hasNext(); ) {
-        values.addAll(yIterator.next().values());
-        yIterator.remove();
+    forEachWithin(world, box, (x, y, z, value) -> values.add(value));
+    return values;
+  }
+
+  /**
+   * Count the stored mappings inside a {@link BlockBox} in the world named.
+   *
+   * @param world the name of the world
+   * @param box the bounds of the blocks to count
+   * @return the number of mappings
+   */
+  public int countWithin(@NotNull String world, @NotNull BlockBox box) {
+    return within(world, box, null, false);
+  }
+
+  /**
+   * Perform an action for each stored mapping inside a {@link BlockBox} in the world named.
+   *
+   * @param world the name of the world
+   * @param box the bounds of the blocks to visit
+   * @param consumer the action to perform with the block coordinates and value
+   */
+  public void forEachWithin(
+      @NotNull String world,
+      @NotNull BlockBox box,
+      @NotNull IntTriObjConsumer<? super V> consumer) {
+    within(world, box, consumer, false);
+  }
+
+  /**
+   * Remove all stored mappings inside a {@link BlockBox} in the world named.
+   *
+   * @param world the name of the world
+   * @param box the bounds of the blocks to remove
+   * @return the previously stored values
+   */
+  public @NotNull Collection<V> removeWithin(@NotNull String world, @NotNull BlockBox box) {
+    List<V> values = new ArrayList<>();
+    within(world, box, (x, y, z, value) -> values.add(value), true);
+    return values;
+  }
+
+  /**
+   * Visit or remove mappings inside a box. Only chunks that overlap the box are visited. If the box
+   * covers more chunks than are stored, stored chunks are filtered instead of looking up every
+   * chunk in the box.
+   */
+  private int within(
+      @NotNull String world,
+      @NotNull BlockBox box,
+      @Nullable IntTriObjConsumer<? super V> consumer,
+      boolean remove) {
+    if (remove) {
+      checkMutable();
+    }
+    BlockWorld<V> blockWorld = worldsByName.get(world);
+    if (blockWorld == null) {
+      return 0;
+    }
+
+    int minX = box.getMinX();
+    int minY = box.getMinY();
+    int minZ = box.getMinZ();
+    int maxX = box.getMaxX();
+    int maxY = box.getMaxY();
+    int maxZ = box.getMaxZ();
+    List<BlockChunk<V>> overlapping = overlapping(blockWorld, minX, minZ, maxX, maxZ);
+    if (remove && listeners.length > 0) {
+      IntTriObjConsumer<? super V> removed = consumer;
+      consumer = (x, y, z, value) -> {
+        notifyChanged(blockWorld, x, y, z, value, null, true);
+        if (removed != null) {
+          removed.accept(x, y, z, value);
+        }
+      };
+    }
+
+    int count = 0;
+    for (BlockChunk<V> blockChunk : overlapping) {
+      if (remove) {
+        // Don't copy storage shared with a snapshot unless a mapping will be removed.
+        if (blockWorld.isShared(blockChunk)
+            && blockChunk.forEachWithin(minX, minY, minZ, maxX, maxY, maxZ, null) == 0) {
+          continue;
+        }
+        BlockChunk<V> writable = blockWorld.own(blockChunk);
+        int removed = writable.removeWithin(minX, minY, minZ, maxX, maxY, maxZ, consumer);
+        if (removed > 0) {
+          markDirty(blockWorld, writable.getChunkX(), writable.getChunkZ());
+        }
+        blockWorld.removeIfEmpty(writable);
+        count += removed;
+      } else {
+        count += blockChunk.forEachWithin(minX, minY, minZ, maxX, maxY, maxZ, consumer);
       }
+    }
+    return count;
+  }
+
+  /**
+   * Get stored chunks overlapping the bounds specified. If the bounds cover more chunks than are
+   * stored, stored chunks are filtered instead of looking up every chunk in the bounds.
+   */
+  private static <V> @NotNull List<BlockChunk<V>> overlapping(
+      @NotNull BlockWorld<V> blockWorld,
+      int minX,
+      int minZ,
+      int maxX,
+      int maxZ) {
+    int minChunkX = Coords.blockToChunk(minX);
+    int minChunkZ = Coords.blockToChunk(minZ);
+    int maxChunkX = Coords.blockToChunk(maxX);
+    int maxChunkZ = Coords.blockToChunk(maxZ);
+    LongObjectMap<BlockChunk<V>> chunks = blockWorld.getChunks();
+    List<BlockChunk<V>> overlapping = new ArrayList<>();
 
-      if (zyValue.isEmpty()) {
-        blockXIterator.remove();
+    long boxChunks = (maxChunkX - minChunkX + 1L) * (maxChunkZ - minChunkZ + 1L);
+    if (boxChunks <= chunks.size()) {
+      for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+          BlockChunk<V> blockChunk = chunks.get(Coords.packChunk(chunkX, chunkZ));
+          if (blockChunk != null) {
+            overlapping.add(blockChunk);
+          }
+        }
       }
+    } else {
+      chunks.forEach((chunkKey, blockChunk) -> {
+        int chunkX = blockChunk.getChunkX();
+        int chunkZ = blockChunk.getChunkZ();
+        if (chunkX >= minChunkX && chunkX <= maxChunkX
+            && chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+          overlapping.add(blockChunk);
+        }
+      });
     }
 
-    return values;
+    return overlapping;
+  }
+
+  /**
+   * Get all stored mappings within a distance of the coordinates in the world named. Entries are
+   * not in any particular order.
+   *
+   * @param world the name of the world
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   * @param radius the maximum distance in blocks
+   * @return the stored mappings
+   * @throws IllegalArgumentException if the radius is negative or not a number
+   */
+  public @NotNull List<BlockEntry<V>> withinRadius(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      double radius) {
+    List<BlockEntry<V>> entries = new ArrayList<>();
+    forEachWithinRadius(
+        world,
+        x,
+        y,
+        z,
+        radius,
+        (blockX, blockY, blockZ, value) ->
+            entries.add(new BlockEntry<>(world, blockX, blockY, blockZ, value)));
+    return entries;
+  }
+
+  /**
+   * Perform an action for each stored mapping within a distance of the coordinates in the world
+   * named.
+   *
+   * @param world the name of the world
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   * @param radius the maximum distance in blocks
+   * @param consumer the action to perform with the block coordinates and value
+   * @throws IllegalArgumentException if the radius is negative or not a number
+   */
+  public void forEachWithinRadius(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      double radius,
+      @NotNull IntTriObjConsumer<? super V> consumer) {
+    long maxDistanceSquared = maxDistanceSquared(radius);
+    BlockWorld<V> blockWorld = worldsByName.get(world);
+    if (blockWorld == null) {
+      return;
+    }
+
+    int reach = (int) Math.min(Integer.MAX_VALUE, (long) radius);
+    int minY = clamp((long) y - reach);
+    int maxY = clamp((long) y + reach);
+    for (BlockChunk<V> blockChunk : nearby(blockWorld, x, z, reach)) {
+      if (distanceSquared(blockChunk, x, z) > maxDistanceSquared) {
+        continue;
+      }
+      blockChunk.forEachWithin(
+          Integer.MIN_VALUE,
+          minY,
+          Integer.MIN_VALUE,
+          Integer.MAX_VALUE,
+          maxY,
+          Integer.MAX_VALUE,
+          (blockX, blockY, blockZ, value) -> {
+            if (distanceSquared(blockX - (long) x, blockY - (long) y, blockZ - (long) z)
+                <= maxDistanceSquared) {
+              consumer.accept(blockX, blockY, blockZ, value);
+            }
+          });
+    }
+  }
+
+  /**
+   * Get the closest stored mapping within a distance of the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   * @param maxDistance the maximum distance in blocks
+   * @return the closest mapping or {@code null} if there are no mappings in range
+   * @throws IllegalArgumentException if the distance is negative or not a number
+   */
+  public @Nullable BlockEntry<V> nearest(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      double maxDistance) {
+    List<BlockEntry<V>> nearest = nearest(world, x, y, z, maxDistance, 1);
+    return nearest.isEmpty() ? null : nearest.get(0);
+  }
+
+  /**
+   * Get the closest stored mappings within a distance of the coordinates in the world named.
+   *
+   * <p>Chunks are visited in order of distance, and stop being visited once no block in the next
+   * chunk could be closer than the mappings already found.
+   *
+   * @param world the name of the world
+   * @param x the X coordinate
+   * @param y the Y coordinate
+   * @param z the Z coordinate
+   * @param maxDistance the maximum distance in blocks
+   * @param limit the maximum number of mappings to get
+   * @return up to the specified number of mappings in order of increasing distance
+   * @throws IllegalArgumentException if the distance is negative or not a number or the limit is
+   *     not positive
+   */
+  public @NotNull List<BlockEntry<V>> nearest(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      double maxDistance,
+      int limit) {
+    long maxDistanceSquared = maxDistanceSquared(maxDistance);
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive");
+    }
+    BlockWorld<V> blockWorld = worldsByName.get(world);
+    if (blockWorld == null) {
+      return Collections.emptyList();
+    }
+
+    int reach = (int) Math.min(Integer.MAX_VALUE, (long) maxDistance);
+    List<BlockChunk<V>> chunks = nearby(blockWorld, x, z, reach);
+    chunks.sort(Comparator.comparingLong(blockChunk -> distanceSquared(blockChunk, x, z)));
+
+    // Farthest candidate first so that it can be evicted when a closer mapping is found.
+    PriorityQueue<Candidate<V>> candidates = new PriorityQueue<>(
+        Math.min(limit, 64), Comparator.comparingLong(Candidate<V>::distanceSquared).reversed());
+    long[] threshold = {maxDistanceSquared};
+    int minY = clamp((long) y - reach);
+    int maxY = clamp((long) y + reach);
+
+    for (BlockChunk<V> blockChunk : chunks) {
+      if (distanceSquared(blockChunk, x, z) > threshold[0]) {
+        break;
+      }
+      blockChunk.forEachWithin(
+          Integer.MIN_VALUE,
+          minY,
+          Integer.MIN_VALUE,
+          Integer.MAX_VALUE,
+          maxY,
+          Integer.MAX_VALUE,
+          (blockX, blockY, blockZ, value) -> {
+            long distance =
+                distanceSquared(blockX - (long) x, blockY - (long) y, blockZ - (long) z);
+            if (distance > threshold[0]) {
+              return;
+            }
+            candidates.add(new Candidate<>(distance, blockX, blockY, blockZ, value));
+            if (candidates.size() > limit) {
+              candidates.poll();
+            }
+            if (candidates.size() == limit) {
+              threshold[0] = candidates.element().distanceSquared();
+            }
+          });
+    }
+
+    BlockEntry<V>[] entries = newEntryArray(candidates.size());
+    for (int index = entries.length - 1; index >= 0; --index) {
+      Candidate<V> candidate = candidates.remove();
+      entries[index] = new BlockEntry<>(
+          world, candidate.x(), candidate.y(), candidate.z(), candidate.value());
+    }
+    return Arrays.asList(entries);
+  }
+
+  /**
+   * Get stored chunks that may contain blocks within a horizontal distance of a point.
+   */
+  private static <V> @NotNull List<BlockChunk<V>> nearby(
+      @NotNull BlockWorld<V> blockWorld,
+      int x,
+      int z,
+      int reach) {
+    return overlapping(
+        blockWorld,
+        clamp((long) x - reach),
+        clamp((long) z - reach),
+        clamp((long) x + reach),
+        clamp((long) z + reach));
+  }
+
+  /**
+   * Get the lowest possible squared distance between a point and any block in a chunk.
+   */
+  private static long distanceSquared(@NotNull BlockChunk<?> blockChunk, int x, int z) {
+    long minX = Coords.chunkToBlock(blockChunk.getChunkX());
+    long minZ = Coords.chunkToBlock(blockChunk.getChunkZ());
+    long dx = Math.max(0, Math.max(minX - x, x - (minX + 15)));
+    long dz = Math.max(0, Math.max(minZ - z, z - (minZ + 15)));
+    return dx * dx + dz * dz;
+  }
+
+  static long distanceSquared(long dx, long dy, long dz) {
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private static long maxDistanceSquared(double maxDistance) {
+    if (!(maxDistance >= 0)) {
+      throw new IllegalArgumentException("Distance must be a non-negative number");
+    }
+    // Coordinates are integers, so any fractional part of the distance can be dropped.
+    double squared = Math.floor(maxDistance * maxDistance);
+    return squared >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) squared;
+  }
+
+  private static int clamp(long value) {
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> @NotNull BlockEntry<V> @NotNull [] newEntryArray(int length) {
+    return (BlockEntry<V>[]) new BlockEntry<?>[length];
+  }
+
+  /**
+   * Perform an action for each stored mapping.
+   *
+   * <p>Unlike {@link #entries()}, this includes mappings in worlds that are not loaded and does
+   * not create {@link Block Blocks}.
+   *
+   * @param visitor the action to perform with the world name, block coordinates, and value
+   */
+  public void forEach(@NotNull BlockVisitor<? super V> visitor) {
+    for (BlockWorld<V> blockWorld : worlds) {
+      String worldName = blockWorld.getName();
+      blockWorld.getChunks().forEach(
+          (chunkKey, blockChunk) ->
+              blockChunk.forEach((x, y, z, value) -> visitor.visit(worldName, x, y, z, value)));
+    }
   }
 
   /**
@@ -209,31 +1142,186 @@ public class BlockMap<V> {
    *
    * <p>N.B. This ignores any entries that do not currently have a loaded world!
    *
+   * <p>The collection is a copy and may be safely iterated while modifying the map. To avoid
+   * copying, use {@link #entries()} or {@link #forEach(BlockVisitor)}.
+   *
    * @return a collection of entries
    */
   public @NotNull Collection<Map.Entry<Block, V>> entrySet() {
-    List<Map.Entry<Block, V>> entries = new ArrayList<>();
+    return new ArrayList<>(entries());
+  }
 
-    this.serverMap.forEach(
-        (worldName, worldMap) -> {
-          World world = Bukkit.getWorld(worldName);
-          if (world == null) {
-            return;
-          }
+  /**
+   * Gets a view of the entries. {@link Block Blocks} are only created as entries are traversed.
+   * The view's {@link Collection#parallelStream() parallel stream} splits by world and then by
+   * ranges of chunks along the X axis.
+   *
+   * <p>N.B. This ignores any entries that do not currently have a loaded world!
+   *
+   * <p>The view is backed by the map. The map must not be modified while the view is traversed.
+   *
+   * @return a view of the entries
+   */
+  public @NotNull @UnmodifiableView Collection<Map.Entry<Block, V>> entries() {
+    return new AbstractCollection<>() {
+      @Override
+      public @NotNull Iterator<Map.Entry<Block, V>> iterator() {
+        return Spliterators.iterator(spliterator());
+      }
 
-          worldMap.forEach(
-              (x, xMap) ->
-                  xMap.forEach(
-                      (z, zMap) ->
-                          zMap.forEach(
-                              (y, value) ->
-                                  entries.add(
-                                      new BlockMapEntry<>(world.getBlockAt(x, y, z), value)))));
-        });
+      @Override
+      public @NotNull Spliterator<Map.Entry<Block, V>> spliterator() {
+        return new BlockEntrySpliterator<>(worlds);
+      }
 
-    return entries;
+      @Override
+      public int size() {
+        long size = 0;
+        for (BlockWorld<V> blockWorld : worlds) {
+          size += BlockEntrySpliterator.size(blockWorld);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+      }
+    };
+  }
+
+  /**
+   * Release unused capacity. Storage for worlds without mappings is discarded, and chunk tables and
+   * chunk storage are shrunk to fit their content.
+   *
+   * <p>Compacting a map with many worlds may be spread across several ticks by trimming individual
+   * worlds with {@link #trim(String)}, i.e. from a
+   * {@link com.github.jikoo.planarwrappers.scheduler.DistributedTask DistributedTask}.
+   */
+  public void trim() {
+    checkMutable();
+    for (BlockWorld<V> blockWorld : worlds) {
+      trim(blockWorld);
+    }
   }
 
+  /**
+   * Release unused capacity in the world named.
+   *
+   * @param world the name of the world
+   * @see #trim()
+   */
+  public void trim(@NotNull String world) {
+    checkMutable();
+    BlockWorld<V> blockWorld = worldsByName.get(world);
+    if (blockWorld != null) {
+      trim(blockWorld);
+    }
+  }
+
+  private void trim(@NotNull BlockWorld<V> blockWorld) {
+    if (blockWorld.getChunks().isEmpty()) {
+      removeWorld(blockWorld);
+    } else {
+      blockWorld.trim();
+    }
+  }
+
+  /**
+   * Estimate the memory used by the map's internal structure. The values stored are not included.
+   *
+   * <p>The estimate assumes a 64-bit JVM with compressed object pointers. It is intended for
+   * comparing maps and observing the effect of {@link #trim()}, not for precise accounting.
+   *
+   * @return the estimated size in bytes
+   */
+  public long memoryFootprint() {
+    long footprint = Footprint.array(worlds.length, Footprint.REFERENCE);
+    for (BlockWorld<V> blockWorld : worlds) {
+      footprint += blockWorld.memoryFootprint();
+    }
+    return footprint;
+  }
+
+  /**
+   * Get storage for a loaded {@link World}. The world is compared by identity first; if it is not
+   * found, storage is looked up by name and bound to the world for subsequent calls.
+   *
+   * @param world the world
+   * @return the storage or {@code null} if no mappings have ever been made for the world
+   */
+  @Nullable BlockWorld<V> getWorld(@NotNull World world) {
+    for (BlockWorld<V> blockWorld : worlds) {
+      if (blockWorld.is(world)) {
+        return blockWorld;
+      }
+    }
+
+    BlockWorld<V> blockWorld = worldsByName.get(world.getName());
+    if (blockWorld != null) {
+      blockWorld.bind(world);
+    }
+    return blockWorld;
+  }
+
+  /**
+   * Get storage for all worlds that have ever had mappings.
+   *
+   * @return the world storage
+   */
+  @NotNull BlockWorld<V> @NotNull [] getWorlds() {
+    return worlds;
+  }
+
+  /**
+   * Get storage for a world by name.
+   *
+   * @param name the name of the world
+   * @return the storage or {@code null} if no mappings have ever been made for the world
+   */
+  @Nullable BlockWorld<V> getWorld(@NotNull String name) {
+    return worldsByName.get(name);
+  }
+
+  /**
+   * Get storage for a world by name, creating it if necessary.
+   *
+   * @param name the name of the world
+   * @return the storage
+   */
+  @NotNull BlockWorld<V> getOrCreateWorld(@NotNull String name) {
+    checkMutable();
+    BlockWorld<V> blockWorld = worldsByName.get(name);
+    if (blockWorld == null) {
+      blockWorld = createWorld(name, null);
+    }
+    return blockWorld;
+  }
+
+  private @NotNull BlockWorld<V> createWorld(@NotNull String name, @Nullable World world) {
+    BlockWorld<V> blockWorld = new BlockWorld<>(name, world, expectedChunks);
+    worldsByName.put(name, blockWorld);
+    worlds = Arrays.copyOf(worlds, worlds.length + 1);
+    worlds[worlds.length - 1] = blockWorld;
+    return blockWorld;
+  }
+
+  private void removeWorld(@NotNull BlockWorld<V> blockWorld) {
+    worldsByName.remove(blockWorld.getName());
+    int index = Arrays.asList(worlds).indexOf(blockWorld);
+    BlockWorld<V>[] remaining = Arrays.copyOf(worlds, worlds.length - 1);
+    System.arraycopy(worlds, index + 1, remaining, index, remaining.length - index);
+    worlds = remaining;
+  }
+
+  private static <V> @NotNull Collection<V> values(@Nullable BlockChunk<V> blockChunk) {
+    if (blockChunk == null || blockChunk.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<V> values = new ArrayList<>(blockChunk.size());
+    blockChunk.addValuesTo(values);
+    return values;
+  }
+
+  /** A mapping found by a distance query, ordered by distance. */
+  private record Candidate<V>(long distanceSquared, int x, int y, int z, V value) {}
+
   record BlockMapEntry<V>(Block key, V value) implements Entry<Block, V> {
 
     @Override
@@ -0,0 +1,128 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A collector for bulk imports into a {@link BlockMap}.
+ *
+ * <p>Mappings are buffered in primitive arrays per world in any order. When built, each world's
+ * mappings are sorted by chunk and section and written in a single pass with
+ * {@link BlockMap#putAll(String, int[], int[], int[], Object[])}. If a block is added more than
+ * once, the last value is kept.
+ *
+ * <p>The builder retains its mappings after building, so it may be used to fill several maps.
+ *
+ * @param <V> the type of value stored
+ */
+public class BlockMapBuilder<V> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<String, Batch> batches = FastMap.obj2Obj();
+  private int size;
+
+  /**
+   * Add a mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @param value the value to be stored using the key
+   * @return the same builder instance
+   */
+  @Contract("_, _ -> this")
+  public @NotNull BlockMapBuilder<V> add(@NotNull Block block, @Nullable V value) {
+    return add(block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), value);
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @return the same builder instance
+   */
+  @Contract("_, _, _, _, _ -> this")
+  public @NotNull BlockMapBuilder<V> add(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      @Nullable V value) {
+    batches.computeIfAbsent(world, key -> new Batch()).add(x, y, z, value);
+    ++size;
+    return this;
+  }
+
+  /**
+   * Get the number of mappings added.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Create a new {@link BlockMap} containing the mappings added.
+   *
+   * @return the map
+   */
+  public @NotNull BlockMap<V> build() {
+    BlockMap<V> blockMap = new BlockMap<>();
+    putInto(blockMap);
+    return blockMap;
+  }
+
+  /**
+   * Add the mappings to an existing {@link BlockMap}, replacing existing mappings for the same
+   * blocks.
+   *
+   * @param blockMap the map to add mappings to
+   */
+  public void putInto(@NotNull BlockMap<V> blockMap) {
+    batches.forEach((world, batch) ->
+        blockMap.putAll(world, batch.xs, batch.ys, batch.zs, batch.values, batch.size, null));
+  }
+
+  /**
+   * Remove all mappings added.
+   */
+  public void clear() {
+    batches.clear();
+    size = 0;
+  }
+
+  /** Growable parallel arrays of coordinates and values for a single world. */
+  private static final class Batch {
+
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] zs = new int[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    private void add(int x, int y, int z, @Nullable Object value) {
+      if (size == xs.length) {
+        int capacity = size + (size >> 1);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      xs[size] = x;
+      ys[size] = y;
+      zs[size] = z;
+      values[size] = value;
+      ++size;
+    }
+
+  }
+
+}
@@ -0,0 +1,443 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.event.Event;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A paging layer moving the mappings of unloaded chunks out of a {@link BlockMap}.
+ *
+ * <p>When a chunk unloads, its mappings remain in the map until more than the resident budget of
+ * unloaded chunks are held. The oldest unloaded chunks are then encoded and moved to a
+ * {@link ChunkPageStore}. When a paged-out chunk loads again, its mappings are read and decoded on
+ * a background thread and restored to the map on the main thread.
+ *
+ * <p>Mappings in paged-out chunks are not visible through the map until they are restored.
+ * Mappings added to a chunk while it is paged out take precedence over restored mappings. Use
+ * {@link #pageIn(String, int, int)} to restore a chunk on demand.
+ *
+ * <p>Paging does not change the map's content, so it is invisible to
+ * {@link BlockChangeListener BlockChangeListeners} and to
+ * {@link BlockMap#drainDirtyChunks() dirty chunk tracking}. Moving a chunk out and restoring it
+ * notifies no listeners and records no chunks.
+ *
+ * <p>All methods must be called from the main thread.
+ *
+ * @param <V> the type of value stored
+ */
+public class BlockMapPager<V> {
+
+  private final @NotNull Plugin plugin;
+  private final @NotNull BlockMap<V> blockMap;
+  private final @NotNull ValueCodec<V> codec;
+  private final @NotNull ChunkPageStore store;
+  private final int residentBudget;
+  private final @NotNull String key;
+
+  private final Set<PageKey> resident = new LinkedHashSet<>();
+  private final Set<PageKey> pagedOut = new HashSet<>();
+  private final Map<PageKey, Restore<V>> restoring = new HashMap<>();
+  private @Nullable ExecutorService io;
+
+  private long hits;
+  private long misses;
+  private long pageOuts;
+  private long pageIns;
+
+  /**
+   * Construct a new {@code BlockMapPager}.
+   *
+   * @param plugin the plugin owning the map
+   * @param blockMap the map to page
+   * @param codec the codec used to encode values
+   * @param store the backing store for paged-out chunks
+   * @param residentBudget the maximum number of unloaded chunks to keep in the map
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public BlockMapPager(
+      @NotNull Plugin plugin,
+      @NotNull BlockMap<V> blockMap,
+      @NotNull ValueCodec<V> codec,
+      @NotNull ChunkPageStore store,
+      int residentBudget) {
+    if (residentBudget < 0) {
+      throw new IllegalArgumentException("Resident budget may not be negative");
+    }
+    this.plugin = plugin;
+    this.blockMap = blockMap;
+    this.codec = codec;
+    this.store = store;
+    this.residentBudget = residentBudget;
+    this.key = "BlockMapPager@" + Integer.toHexString(System.identityHashCode(this));
+  }
+
+  /** Start paging in response to chunks loading and unloading. */
+  public void register() {
+    if (io != null) {
+      return;
+    }
+
+    io = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, plugin.getName() + " BlockMap paging");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Event.register(ChunkUnloadEvent.class, this::onUnload, plugin, key, EventPriority.MONITOR);
+    Event.register(ChunkLoadEvent.class, this::onLoad, plugin, key, EventPriority.MONITOR);
+  }
+
+  /**
+   * Stop paging. All paged-out chunks are restored to the map before returning, i.e. so that the
+   * full content may be persisted when the plugin is disabled.
+   */
+  public void unregister() {
+    Event.unregister(ChunkUnloadEvent.class, key);
+    Event.unregister(ChunkLoadEvent.class, key);
+
+    ExecutorService localIo = io;
+    if (localIo == null) {
+      return;
+    }
+    io = null;
+
+    // The executor is single-threaded, so once it terminates all pending writes are complete.
+    localIo.shutdown();
+    try {
+      if (!localIo.awaitTermination(1, TimeUnit.MINUTES)) {
+        plugin.getLogger().warning("[BlockMapPager] Timed out waiting for paging to complete");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    for (PageKey pageKey : new ArrayList<>(restoring.keySet())) {
+      completeRestore(pageKey);
+    }
+    for (PageKey pageKey : new ArrayList<>(pagedOut)) {
+      pagedOut.remove(pageKey);
+      try {
+        BlockChunk<V> restored = readPage(pageKey);
+        store.delete(pageKey.world(), pageKey.chunkX(), pageKey.chunkZ());
+        merge(pageKey, restored);
+        ++pageIns;
+      } catch (IOException e) {
+        plugin.getLogger().log(
+            Level.WARNING, e, () -> "[BlockMapPager] Unable to restore " + pageKey);
+      }
+    }
+    resident.clear();
+  }
+
+  private void onUnload(@NotNull ChunkUnloadEvent event) {
+    Chunk chunk = event.getChunk();
+    World world = chunk.getWorld();
+    BlockWorld<V> blockWorld = blockMap.getWorld(world);
+    if (blockWorld == null) {
+      return;
+    }
+    BlockChunk<V> blockChunk = blockWorld.getChunk(chunk.getX(), chunk.getZ());
+    if (blockChunk == null || blockChunk.isEmpty()) {
+      return;
+    }
+
+    resident.add(new PageKey(world.getName(), chunk.getX(), chunk.getZ()));
+    trimResident();
+  }
+
+  private void onLoad(@NotNull ChunkLoadEvent event) {
+    Chunk chunk = event.getChunk();
+    PageKey pageKey = new PageKey(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    if (resident.remove(pageKey)) {
+      ++hits;
+    } else if (pagedOut.contains(pageKey)) {
+      ++misses;
+      pageIn(pageKey);
+    }
+  }
+
+  /**
+   * Page out the mappings of a chunk immediately, regardless of whether the chunk is loaded.
+   *
+   * <p>Note that this method accepts chunk coordinates, not block coordinates!
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if the chunk had mappings to page out
+   * @throws IllegalStateException if the pager is not registered
+   */
+  public boolean pageOut(@NotNull String world, int chunkX, int chunkZ) {
+    PageKey pageKey = new PageKey(world, chunkX, chunkZ);
+    resident.remove(pageKey);
+    return pageOut(pageKey);
+  }
+
+  private boolean pageOut(@NotNull PageKey pageKey) {
+    ExecutorService localIo = io;
+    if (localIo == null) {
+      throw new IllegalStateException("Pager is not registered");
+    }
+    // Don't overwrite stored content that is still being restored.
+    if (restoring.containsKey(pageKey)) {
+      return false;
+    }
+
+    BlockWorld<V> blockWorld = blockMap.getWorld(pageKey.world());
+    if (blockWorld == null) {
+      return false;
+    }
+    // Detach the chunk from storage directly. This is not a removal from the map's content, so
+    // listeners are not notified and the chunk is not marked dirty.
+    BlockChunk<V> blockChunk = blockWorld.removeChunk(pageKey.chunkX(), pageKey.chunkZ());
+    if (blockChunk == null || blockChunk.isEmpty()) {
+      return false;
+    }
+
+    // The chunk is detached from the map, so it is safe to encode on the I/O thread. It may still
+    // be shared with a map snapshot, so it is only read.
+    boolean merge = !pagedOut.add(pageKey);
+    ++pageOuts;
+    localIo.execute(() -> {
+      try {
+        BlockChunk<V> page = blockChunk;
+        if (merge) {
+          // Mappings were added while the chunk was paged out. Combine them with stored content.
+          page = readPage(pageKey);
+          for (int cursor = blockChunk.nextCursor(-1); cursor >= 0;
+              cursor = blockChunk.nextCursor(cursor)) {
+            page.put(
+                blockChunk.xAt(cursor),
+                blockChunk.yAt(cursor),
+                blockChunk.zAt(cursor),
+                blockChunk.valueAt(cursor));
+          }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BlockMapSnapshot.writeChunk(out, page, codec);
+        out.flush();
+        store.write(pageKey.world(), pageKey.chunkX(), pageKey.chunkZ(), bytes.toByteArray());
+      } catch (IOException | RuntimeException e) {
+        plugin.getLogger().log(
+            Level.WARNING, e, () -> "[BlockMapPager] Unable to page out " + pageKey);
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Restore the mappings of a paged-out chunk. Mappings are read on a background thread and
+   * restored to the map on the main thread.
+   *
+   * <p>Note that this method accepts chunk coordinates, not block coordinates!
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return a future completing with the number of mappings restored
+   */
+  public @NotNull CompletableFuture<Integer> pageIn(@NotNull String world, int chunkX, int chunkZ) {
+    return pageIn(new PageKey(world, chunkX, chunkZ));
+  }
+
+  private @NotNull CompletableFuture<Integer> pageIn(@NotNull PageKey pageKey) {
+    Restore<V> existing = restoring.get(pageKey);
+    if (existing != null) {
+      return existing.result();
+    }
+    ExecutorService localIo = io;
+    if (localIo == null || !pagedOut.remove(pageKey)) {
+      return CompletableFuture.completedFuture(0);
+    }
+
+    CompletableFuture<BlockChunk<V>> read = CompletableFuture.supplyAsync(() -> {
+      try {
+        BlockChunk<V> restored = readPage(pageKey);
+        store.delete(pageKey.world(), pageKey.chunkX(), pageKey.chunkZ());
+        return restored;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, localIo);
+    Restore<V> restore = new Restore<>(read, new CompletableFuture<>());
+    restoring.put(pageKey, restore);
+    read.whenComplete((restored, throwable) -> {
+      if (plugin.isEnabled()) {
+        plugin.getServer().getScheduler().runTask(plugin, () -> completeRestore(pageKey));
+      }
+    });
+    return restore.result();
+  }
+
+  private void completeRestore(@NotNull PageKey pageKey) {
+    Restore<V> restore = restoring.remove(pageKey);
+    if (restore == null) {
+      return;
+    }
+
+    BlockChunk<V> restored;
+    try {
+      restored = restore.read().join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause() instanceof UncheckedIOException unchecked
+          ? unchecked.getCause()
+          : e.getCause();
+      plugin.getLogger().log(
+          Level.WARNING, cause, () -> "[BlockMapPager] Unable to restore " + pageKey);
+      restore.result().completeExceptionally(cause);
+      return;
+    }
+
+    ++pageIns;
+    restore.result().complete(merge(pageKey, restored));
+  }
+
+  private @NotNull BlockChunk<V> readPage(@NotNull PageKey pageKey) throws IOException {
+    BlockChunk<V> restored = new BlockChunk<>(pageKey.chunkX(), pageKey.chunkZ());
+    byte[] data = store.read(pageKey.world(), pageKey.chunkX(), pageKey.chunkZ());
+    if (data != null) {
+      BlockMapSnapshot.readChunk(
+          new DataInputStream(new ByteArrayInputStream(data)),
+          pageKey.chunkX(),
+          pageKey.chunkZ(),
+          codec,
+          restored::put);
+    }
+    return restored;
+  }
+
+  /**
+   * Restore mappings directly into storage. Like paging out, this bypasses listeners and dirty
+   * chunk tracking, as the map's content is unchanged.
+   */
+  private int merge(@NotNull PageKey pageKey, @NotNull BlockChunk<V> restored) {
+    if (restored.isEmpty()) {
+      return 0;
+    }
+
+    BlockWorld<V> blockWorld = blockMap.getOrCreateWorld(pageKey.world());
+    BlockChunk<V> existing = blockWorld.getChunk(pageKey.chunkX(), pageKey.chunkZ());
+    int count = 0;
+    if (existing == null) {
+      blockWorld.putChunk(restored);
+      count = restored.size();
+    } else {
+      existing = blockWorld.own(existing);
+      for (int cursor = restored.nextCursor(-1); cursor >= 0;
+          cursor = restored.nextCursor(cursor)) {
+        int x = restored.xAt(cursor);
+        int y = restored.yAt(cursor);
+        int z = restored.zAt(cursor);
+        if (!existing.containsKey(x, y, z)) {
+          existing.put(x, y, z, restored.valueAt(cursor));
+          ++count;
+        }
+      }
+    }
+
+    // If the chunk unloaded again while restoring, it is now an unloaded resident chunk.
+    World world = blockWorld.getWorld();
+    if (io != null
+        && (world == null || !world.isChunkLoaded(pageKey.chunkX(), pageKey.chunkZ()))) {
+      resident.add(pageKey);
+      trimResident();
+    }
+
+    return count;
+  }
+
+  private void trimResident() {
+    Iterator<PageKey> iterator = resident.iterator();
+    while (resident.size() > residentBudget && iterator.hasNext()) {
+      PageKey eldest = iterator.next();
+      iterator.remove();
+      pageOut(eldest);
+    }
+  }
+
+  /**
+   * Get the number of times a chunk loaded while its mappings were still resident.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of times a chunk loaded after its mappings had been paged out.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the total number of chunks paged out.
+   *
+   * @return the number of chunks paged out
+   */
+  public long getPageOuts() {
+    return pageOuts;
+  }
+
+  /**
+   * Get the total number of chunks restored.
+   *
+   * @return the number of chunks restored
+   */
+  public long getPageIns() {
+    return pageIns;
+  }
+
+  /**
+   * Get the number of unloaded chunks whose mappings are currently resident.
+   *
+   * @return the number of unloaded resident chunks
+   */
+  public int getResidentChunks() {
+    return resident.size();
+  }
+
+  /**
+   * Get the number of chunks whose mappings are currently paged out or being restored.
+   *
+   * @return the number of paged-out chunks
+   */
+  public int getPagedOutChunks() {
+    return pagedOut.size() + restoring.size();
+  }
+
+  private record PageKey(@NotNull String world, int chunkX, int chunkZ) {}
+
+  private record Restore<V>(
+      @NotNull CompletableFuture<BlockChunk<V>> read,
+      @NotNull CompletableFuture<Integer> result) {}
+
+}
@@ -0,0 +1,503 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.function.IntTriObjConsumer;
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnmodifiableView;
+
+/**
+ * A compact binary snapshot of a {@link BlockMap}.
+ *
+ * <p>Mappings are grouped by world and chunk. Within a chunk, blocks are written in ascending
+ * Y, Z, X order as deltas between packed chunk-local coordinates, so most keys occupy a single
+ * byte. An index of chunk locations is stored at the end of the file, allowing individual chunks
+ * to be read on demand, i.e. when they are loaded by the server.
+ *
+ * <p>Reading from an open snapshot is thread-safe; chunks may be decoded off the main thread.
+ *
+ * @param <V> the type of value stored
+ */
+public final class BlockMapSnapshot<V> implements Closeable {
+
+  private static final int MAGIC = 0x50574D42;
+  private static final int VERSION = 1;
+  private static final int HEADER_LENGTH = Integer.BYTES * 2 + Long.BYTES;
+
+  /**
+   * Write the content of a {@link BlockMap} to a file, replacing any existing content.
+   *
+   * @param map the map to write
+   * @param path the file to write to
+   * @param codec the codec used to write values
+   * @param <V> the type of value stored
+   * @throws IOException if an I/O error occurs
+   */
+  public static <V> void write(
+      @NotNull BlockMap<V> map,
+      @NotNull Path path,
+      @NotNull ValueCodec<? super V> codec) throws IOException {
+    try (FileChannel channel = FileChannel.open(
+        path,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+      Buffer chunkBuffer = new Buffer();
+      DataOutputStream chunkOut = new DataOutputStream(chunkBuffer);
+      Buffer worldBuffer = new Buffer();
+      DataOutputStream worldOut = new DataOutputStream(worldBuffer);
+      Buffer indexBuffer = new Buffer();
+      DataOutputStream indexOut = new DataOutputStream(indexBuffer);
+
+      long position = HEADER_LENGTH;
+      int worldCount = 0;
+
+      for (BlockWorld<V> blockWorld : map.getWorlds()) {
+        worldBuffer.reset();
+        int chunkCount = 0;
+        for (BlockChunk<V> blockChunk : chunksOf(blockWorld)) {
+          chunkBuffer.reset();
+          writeChunk(chunkOut, blockChunk, codec);
+          chunkOut.flush();
+          int length = chunkBuffer.size();
+          writeFully(channel, chunkBuffer.view(), position);
+
+          worldOut.writeInt(blockChunk.getChunkX());
+          worldOut.writeInt(blockChunk.getChunkZ());
+          worldOut.writeLong(position);
+          worldOut.writeInt(length);
+          position += length;
+          ++chunkCount;
+        }
+        worldOut.flush();
+
+        if (chunkCount > 0) {
+          indexOut.writeUTF(blockWorld.getName());
+          indexOut.writeInt(chunkCount);
+          worldBuffer.writeTo(indexOut);
+          ++worldCount;
+        }
+      }
+      indexOut.flush();
+
+      ByteBuffer indexHeader = ByteBuffer.allocate(Integer.BYTES).putInt(worldCount).flip();
+      writeFully(channel, indexHeader, position);
+      writeFully(channel, indexBuffer.view(), position + Integer.BYTES);
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.putInt(MAGIC).putInt(VERSION).putLong(position).flip();
+      writeFully(channel, header, 0);
+    }
+  }
+
+  /**
+   * Read the entire content of a snapshot into a new {@link BlockMap}.
+   *
+   * @param path the file to read from
+   * @param codec the codec used to read values
+   * @param <V> the type of value stored
+   * @return the map
+   * @throws IOException if an I/O error occurs or the file is not a valid snapshot
+   */
+  public static <V> @NotNull BlockMap<V> read(
+      @NotNull Path path,
+      @NotNull ValueCodec<? extends V> codec) throws IOException {
+    BlockMap<V> map = new BlockMap<>();
+    try (BlockMapSnapshot<V> snapshot = open(path, codec)) {
+      snapshot.loadAll(map);
+    }
+    return map;
+  }
+
+  /**
+   * Open a snapshot for reading. Only the chunk index is read; chunk content is read on demand.
+   *
+   * @param path the file to read from
+   * @param codec the codec used to read values
+   * @param <V> the type of value stored
+   * @return the snapshot
+   * @throws IOException if an I/O error occurs or the file is not a valid snapshot
+   */
+  public static <V> @NotNull BlockMapSnapshot<V> open(
+      @NotNull Path path,
+      @NotNull ValueCodec<? extends V> codec) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new BlockMapSnapshot<>(channel, codec);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private final @NotNull FileChannel channel;
+  private final @NotNull ValueCodec<? extends V> codec;
+  private final @NotNull Map<String, LongObjectMap<Extent>> index = new HashMap<>();
+
+  private BlockMapSnapshot(
+      @NotNull FileChannel channel,
+      @NotNull ValueCodec<? extends V> codec) throws IOException {
+    this.channel = channel;
+    this.codec = codec;
+
+    long fileSize = channel.size();
+    if (fileSize < HEADER_LENGTH) {
+      throw new IOException("Not a BlockMap snapshot: too short");
+    }
+    ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a BlockMap snapshot: bad header");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported BlockMap snapshot version " + version);
+    }
+    long indexOffset = header.getLong();
+    if (indexOffset < HEADER_LENGTH || indexOffset > fileSize
+        || fileSize - indexOffset > Integer.MAX_VALUE) {
+      throw new IOException("Corrupt BlockMap snapshot: bad index offset " + indexOffset);
+    }
+
+    DataInput in = input(readFully(channel, indexOffset, (int) (fileSize - indexOffset)));
+    int worldCount = in.readInt();
+    for (int world = 0; world < worldCount; ++world) {
+      String name = in.readUTF();
+      int chunkCount = in.readInt();
+      LongObjectMap<Extent> chunks = new LongObjectMap<>(chunkCount);
+      for (int chunk = 0; chunk < chunkCount; ++chunk) {
+        int chunkX = in.readInt();
+        int chunkZ = in.readInt();
+        Extent extent = new Extent(in.readLong(), in.readInt());
+        if (extent.offset() < HEADER_LENGTH
+            || extent.length() < 0
+            || extent.offset() + extent.length() > indexOffset) {
+          throw new IOException("Corrupt BlockMap snapshot: bad chunk extent " + extent);
+        }
+        chunks.put(Coords.packChunk(chunkX, chunkZ), extent);
+      }
+      index.put(name, chunks);
+    }
+  }
+
+  /**
+   * Get the names of all worlds with content in the snapshot.
+   *
+   * @return the world names
+   */
+  public @NotNull @UnmodifiableView Set<String> getWorlds() {
+    return Collections.unmodifiableSet(index.keySet());
+  }
+
+  /**
+   * Check if the snapshot contains any mappings for a chunk.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if the chunk has mappings
+   */
+  public boolean contains(@NotNull String world, int chunkX, int chunkZ) {
+    LongObjectMap<Extent> chunks = index.get(world);
+    return chunks != null && chunks.containsKey(Coords.packChunk(chunkX, chunkZ));
+  }
+
+  /**
+   * Read all mappings for a chunk.
+   *
+   * <p>Note that this method accepts chunk coordinates, not block coordinates! The coordinates
+   * provided to the consumer are block coordinates.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param consumer the action to perform with the block coordinates and value
+   * @return the number of mappings read
+   * @throws IOException if an I/O error occurs
+   */
+  public int forEachInChunk(
+      @NotNull String world,
+      int chunkX,
+      int chunkZ,
+      @NotNull IntTriObjConsumer<? super V> consumer) throws IOException {
+    LongObjectMap<Extent> chunks = index.get(world);
+    if (chunks == null) {
+      return 0;
+    }
+    Extent extent = chunks.get(Coords.packChunk(chunkX, chunkZ));
+    if (extent == null) {
+      return 0;
+    }
+    return readChunk(extent, chunkX, chunkZ, consumer);
+  }
+
+  /**
+   * Read all mappings for a chunk into a {@link BlockMap}. Existing mappings for blocks present in
+   * the snapshot are replaced. As with {@link BlockMap#put(String, int, int, int, Object)}, the
+   * map's listeners are notified of each mapping read and the chunk is recorded as changed.
+   *
+   * <p>Note that this method accepts chunk coordinates, not block coordinates!
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param map the map to read into
+   * @return the number of mappings read
+   * @throws IOException if an I/O error occurs
+   */
+  public int loadChunk(
+      @NotNull String world,
+      int chunkX,
+      int chunkZ,
+      @NotNull BlockMap<V> map) throws IOException {
+    LongObjectMap<Extent> chunks = index.get(world);
+    if (chunks == null) {
+      return 0;
+    }
+    Extent extent = chunks.get(Coords.packChunk(chunkX, chunkZ));
+    if (extent == null) {
+      return 0;
+    }
+    return readChunk(extent, chunkX, chunkZ, map, map.getOrCreateWorld(world));
+  }
+
+  /**
+   * Read all mappings into a {@link BlockMap}. Existing mappings for blocks present in the
+   * snapshot are replaced. As with {@link BlockMap#put(String, int, int, int, Object)}, the map's
+   * listeners are notified of each mapping read and each chunk read is recorded as changed.
+   *
+   * @param map the map to read into
+   * @return the number of mappings read
+   * @throws IOException if an I/O error occurs
+   */
+  public int loadAll(@NotNull BlockMap<V> map) throws IOException {
+    int count = 0;
+    for (Map.Entry<String, LongObjectMap<Extent>> entry : index.entrySet()) {
+      BlockWorld<V> blockWorld = map.getOrCreateWorld(entry.getKey());
+      LongObjectMap<Extent> chunks = entry.getValue();
+      long[] keys = new long[chunks.size()];
+      Extent[] extents = new Extent[keys.length];
+      int[] next = new int[1];
+      chunks.forEach((chunkKey, extent) -> {
+        keys[next[0]] = chunkKey;
+        extents[next[0]++] = extent;
+      });
+      for (int i = 0; i < keys.length; ++i) {
+        count += readChunk(
+            extents[i],
+            Coords.unpackChunkX(keys[i]),
+            Coords.unpackChunkZ(keys[i]),
+            map,
+            blockWorld);
+      }
+    }
+    return count;
+  }
+
+  private int readChunk(
+      @NotNull Extent extent,
+      int chunkX,
+      int chunkZ,
+      @NotNull BlockMap<V> map,
+      @NotNull BlockWorld<V> blockWorld) throws IOException {
+    BlockChunk<V> blockChunk = blockWorld.getOrCreateChunkAt(chunkX << 4, chunkZ << 4);
+    try {
+      return readChunk(extent, chunkX, chunkZ, map.chunkWriter(blockWorld, blockChunk));
+    } finally {
+      blockWorld.removeIfEmpty(blockChunk);
+    }
+  }
+
+  private int readChunk(
+      @NotNull Extent extent,
+      int chunkX,
+      int chunkZ,
+      @NotNull IntTriObjConsumer<? super V> consumer) throws IOException {
+    DataInput in = input(readFully(channel, extent.offset(), extent.length()));
+    return readChunk(in, chunkX, chunkZ, codec, consumer);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Read the mappings of a chunk written by {@link #writeChunk(DataOutput, BlockChunk,
+   * ValueCodec)}.
+   *
+   * @param in the input
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param codec the codec used to read values
+   * @param consumer the action to perform with the block coordinates and value
+   * @param <V> the type of value stored
+   * @return the number of mappings read
+   * @throws IOException if an I/O error occurs
+   */
+  static <V> int readChunk(
+      @NotNull DataInput in,
+      int chunkX,
+      int chunkZ,
+      @NotNull ValueCodec<? extends V> codec,
+      @NotNull IntTriObjConsumer<? super V> consumer) throws IOException {
+    int blockX = chunkX << 4;
+    int blockZ = chunkZ << 4;
+    int count = readVarInt(in);
+    long local = 0;
+    for (int i = 0; i < count; ++i) {
+      long delta = readVarLong(in);
+      // First key is zigzag-encoded as it may be negative. Subsequent keys are ascending.
+      local = i == 0 ? (delta >>> 1) ^ -(delta & 1) : local + delta;
+      consumer.accept(
+          blockX | (int) (local & 0xF),
+          (int) (local >> 8),
+          blockZ | (int) ((local >> 4) & 0xF),
+          codec.read(in));
+    }
+    return count;
+  }
+
+  /**
+   * Write the mappings of a chunk.
+   *
+   * @param out the output
+   * @param blockChunk the chunk storage
+   * @param codec the codec used to write values
+   * @param <V> the type of value stored
+   * @throws IOException if an I/O error occurs
+   */
+  static <V> void writeChunk(
+      @NotNull DataOutput out,
+      @NotNull BlockChunk<V> blockChunk,
+      @NotNull ValueCodec<? super V> codec) throws IOException {
+    writeVarInt(out, blockChunk.size());
+    long previous = 0;
+    boolean first = true;
+    for (int cursor = blockChunk.nextCursor(-1); cursor >= 0;
+        cursor = blockChunk.nextCursor(cursor)) {
+      // Cursor order is ascending Y, Z, X, so packed local keys are strictly increasing.
+      long local = ((long) blockChunk.yAt(cursor) << 8)
+          | (blockChunk.zAt(cursor) & 0xF) << 4
+          | (blockChunk.xAt(cursor) & 0xF);
+      if (first) {
+        writeVarLong(out, (local << 1) ^ (local >> 63));
+        first = false;
+      } else {
+        writeVarLong(out, local - previous);
+      }
+      previous = local;
+      codec.write(out, blockChunk.valueAt(cursor));
+    }
+  }
+
+  private static <V> @NotNull List<BlockChunk<V>> chunksOf(@NotNull BlockWorld<V> blockWorld) {
+    LongObjectMap<BlockChunk<V>> chunks = blockWorld.getChunks();
+    List<BlockChunk<V>> nonEmpty = new ArrayList<>(chunks.size());
+    chunks.forEach((chunkKey, blockChunk) -> {
+      if (!blockChunk.isEmpty()) {
+        nonEmpty.add(blockChunk);
+      }
+    });
+    return nonEmpty;
+  }
+
+  private static void writeVarInt(@NotNull DataOutput out, int value) throws IOException {
+    writeVarLong(out, value & 0xFFFFFFFFL);
+  }
+
+  private static void writeVarLong(@NotNull DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static int readVarInt(@NotNull DataInput in) throws IOException {
+    long value = readVarLong(in);
+    if (value >>> 32 != 0) {
+      throw new IOException("Corrupt BlockMap snapshot: varint too large");
+    }
+    return (int) value;
+  }
+
+  private static long readVarLong(@NotNull DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte read = in.readByte();
+      value |= (long) (read & 0x7F) << shift;
+      if (read >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Corrupt BlockMap snapshot: varint too long");
+  }
+
+  private static void writeFully(
+      @NotNull FileChannel channel,
+      @NotNull ByteBuffer buffer,
+      long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static @NotNull ByteBuffer readFully(
+      @NotNull FileChannel channel,
+      long position,
+      int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new EOFException();
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static @NotNull DataInput input(@NotNull ByteBuffer buffer) {
+    return new DataInputStream(
+        new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.limit()));
+  }
+
+  /** A {@link ByteArrayOutputStream} that can expose its content without copying. */
+  private static final class Buffer extends ByteArrayOutputStream {
+
+    private Buffer() {
+      super(4096);
+    }
+
+    private @NotNull ByteBuffer view() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+
+  }
+
+  /**
+   * The location of a chunk's data in the file.
+   *
+   * @param offset the offset from the start of the file
+   * @param length the length in bytes
+   */
+  private record Extent(long offset, int length) {}
+
+}
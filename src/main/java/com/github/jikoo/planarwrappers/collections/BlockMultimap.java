@@ -1,13 +1,18 @@
 package com.github.jikoo.planarwrappers.collections;
 
 import com.github.jikoo.planarwrappers.collections.BlockMap.BlockMapEntry;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
 import org.bukkit.Chunk;
 import org.bukkit.block.Block;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
@@ -16,11 +21,34 @@ import org.jetbrains.annotations.Unmodifiable;
  * A more performant expression of a {@code Map<Block, <List<V>>}. Also supports chunk-based
  * operations.
  *
+ * <p>Most blocks in a typical multimap only ever have a single value. To avoid allocating a list
+ * per block, a lone value is stored directly and is only replaced with a small array-backed holder
+ * once a second value is added.
+ *
  * @param <V> the type of value stored
  */
 public class BlockMultimap<V> {
 
-  private final BlockMap<List<V>> blockMap = new BlockMap<>();
+  private final BlockMap<Object> blockMap;
+
+  /**
+   * Construct a new {@code BlockMultimap}.
+   */
+  public BlockMultimap() {
+    this(0);
+  }
+
+  /**
+   * Construct a new {@code BlockMultimap} sized to hold mappings in a number of chunks per world
+   * without resizing.
+   *
+   * @param expectedChunks the number of chunks expected to contain mappings in each world
+   * @throws IllegalArgumentException if the number of chunks is negative
+   * @see BlockMap#BlockMap(int)
+   */
+  public BlockMultimap(int expectedChunks) {
+    blockMap = new BlockMap<>(expectedChunks);
+  }
 
   /**
    * Add a mapping for a {@link Block}.
@@ -29,28 +57,59 @@ public class BlockMultimap<V> {
    * @param value the value to be stored using the key
    */
   public void put(@NotNull Block block, @NotNull V value) {
-    List<V> list = blockMap.get(block);
-    if (list == null) {
-      list = new ArrayList<>();
-      blockMap.put(block, list);
+    Object existing = blockMap.get(block);
+    if (existing == null) {
+      blockMap.put(block, value);
+    } else if (existing instanceof Values<?> values) {
+      values.append(value);
+    } else {
+      blockMap.put(block, new Values<>(existing, value));
+    }
+  }
+
+  /**
+   * Add mappings for blocks in the world named from parallel arrays of coordinates and values.
+   *
+   * @param world the name of the world
+   * @param xs the block X coordinates
+   * @param ys the block Y coordinates
+   * @param zs the block Z coordinates
+   * @param values the values to be stored using the coordinates
+   * @throws IllegalArgumentException if the arrays are not all the same length
+   * @see BlockMap#putAll(String, int[], int[], int[], Object[])
+   */
+  public void putAll(
+      @NotNull String world,
+      int @NotNull [] xs,
+      int @NotNull [] ys,
+      int @NotNull [] zs,
+      @NotNull V @NotNull [] values) {
+    int length = values.length;
+    if (xs.length != length || ys.length != length || zs.length != length) {
+      throw new IllegalArgumentException("Coordinate and value arrays must be the same length");
+    }
+    blockMap.putAll(world, xs, ys, zs, values, length, BlockMultimap::merge);
+  }
+
+  private static @NotNull Object merge(@NotNull Object existing, @NotNull Object value) {
+    if (existing instanceof Values<?> values) {
+      values.append(value);
+      return values;
     }
-    list.add(value);
+    return new Values<>(existing, value);
   }
 
   /**
    * Get all mappings for a {@link Block}.
    *
-   * <p>Note that the Collection returned is immutable.
+   * <p>Note that the Collection returned is an immutable snapshot. Values added to the block later
+   * are not reflected in it.
    *
    * @param block the key used to map the value
    * @return the values stored using the key, or {@code null} if no values have been set
    */
   public @Nullable @Unmodifiable Collection<V> get(@NotNull Block block) {
-    List<V> list = blockMap.get(block);
-    if (list == null) {
-      return null;
-    }
-    return Collections.unmodifiableCollection(list);
+    return view(blockMap.get(block));
   }
 
   /**
@@ -76,8 +135,9 @@ public class BlockMultimap<V> {
    * @return the values associated with the keys
    */
   public @NotNull @Unmodifiable Collection<V> get(@NotNull String world, int chunkX, int chunkZ) {
-    return blockMap.get(world, chunkX, chunkZ).stream()
-        .flatMap(Collection::stream).toList();
+    List<V> values = new ArrayList<>();
+    blockMap.forEachInChunk(world, chunkX, chunkZ, (x, y, z, stored) -> addTo(values, stored));
+    return Collections.unmodifiableList(values);
   }
 
   /**
@@ -89,11 +149,7 @@ public class BlockMultimap<V> {
    * @return the values stored using the key, or {@code null} if no values have been set
    */
   public @Nullable @Unmodifiable Collection<V> remove(@NotNull Block block) {
-    List<V> list = blockMap.remove(block);
-    if (list == null) {
-      return null;
-    }
-    return Collections.unmodifiableCollection(list);
+    return view(blockMap.remove(block));
   }
 
   /**
@@ -119,9 +175,15 @@ public class BlockMultimap<V> {
    * @return the values associated with the keys
    */
   public @NotNull @Unmodifiable Collection<V> remove(@NotNull String world, int chunkX, int chunkZ) {
-    return blockMap.remove(world, chunkX, chunkZ).stream()
-        .flatMap(Collection::stream)
-        .toList();
+    Collection<Object> removed = blockMap.remove(world, chunkX, chunkZ);
+    if (removed.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<V> values = new ArrayList<>(removed.size());
+    for (Object stored : removed) {
+      addTo(values, stored);
+    }
+    return Collections.unmodifiableList(values);
   }
 
   /**
@@ -130,13 +192,120 @@ public class BlockMultimap<V> {
    * @return all mappings
    */
   public @NotNull @Unmodifiable Collection<Map.Entry<Block, Collection<V>>> entrySet() {
-    return blockMap.entrySet().stream()
+    return blockMap.entries().stream()
         .map(
             entry ->
                 (Map.Entry<Block, Collection<V>>)
-                    new BlockMapEntry<>(
-                    entry.getKey(),
-                        Collections.unmodifiableCollection(entry.getValue())))
+                    new BlockMapEntry<>(entry.getKey(), view(entry.getValue())))
         .toList();
   }
+
+  /**
+   * Release unused capacity, including spare room in blocks with multiple values.
+   *
+   * @see BlockMap#trim()
+   */
+  public void trim() {
+    blockMap.forEach((world, x, y, z, stored) -> {
+      if (stored instanceof Values<?> values) {
+        values.trim();
+      }
+    });
+    blockMap.trim();
+  }
+
+  /**
+   * Estimate the memory used by the multimap's internal structure. The values stored are not
+   * included.
+   *
+   * @return the estimated size in bytes
+   * @see BlockMap#memoryFootprint()
+   */
+  public long memoryFootprint() {
+    long[] footprint = {blockMap.memoryFootprint()};
+    blockMap.forEach((world, x, y, z, stored) -> {
+      if (stored instanceof Values<?> values) {
+        footprint[0] += values.memoryFootprint();
+      }
+    });
+    return footprint[0];
+  }
+
+  @Contract("null -> null; !null -> !null")
+  @SuppressWarnings("unchecked")
+  private @Nullable @Unmodifiable Collection<V> view(@Nullable Object stored) {
+    if (stored == null) {
+      return null;
+    }
+    // Lone values are stored directly and cannot be viewed live, so holders are copied as well.
+    if (stored instanceof Values<?> values) {
+      return Collections.unmodifiableList(Arrays.asList((V[]) values.toArray()));
+    }
+    return Collections.singletonList((V) stored);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addTo(@NotNull Collection<V> collection, @NotNull Object stored) {
+    if (stored instanceof Values<?> values) {
+      collection.addAll((Values<V>) values);
+    } else {
+      collection.add((V) stored);
+    }
+  }
+
+  /**
+   * A compact growable list of values for a block with more than one mapping.
+   *
+   * <p>Instances are never exposed directly, so a stored value can never be mistaken for a holder.
+   *
+   * @param <V> the type of value stored
+   */
+  private static final class Values<V> extends AbstractList<V> implements RandomAccess {
+
+    private Object[] elements;
+    private int size;
+
+    private Values(@NotNull Object first, @NotNull Object second) {
+      elements = new Object[] {first, second};
+      size = 2;
+    }
+
+    private void append(@NotNull Object value) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, size + (size >> 1) + 1);
+      }
+      elements[size++] = value;
+    }
+
+    private void trim() {
+      if (elements.length > size) {
+        elements = Arrays.copyOf(elements, size);
+      }
+    }
+
+    private long memoryFootprint() {
+      // List modification count, element array, and size.
+      return Footprint.object(Integer.BYTES * 2 + Footprint.REFERENCE)
+          + Footprint.array(elements.length, Footprint.REFERENCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+      Objects.checkIndex(index, size);
+      return (V) elements[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public @NotNull Object @NotNull [] toArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+  }
+
 }
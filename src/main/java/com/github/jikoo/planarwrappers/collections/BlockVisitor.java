@@ -0,0 +1,25 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A visitor for mapped blocks. Receives raw coordinates so that no {@code Block} needs to be
+ * created.
+ *
+ * @param <V> the type of value stored
+ */
+@FunctionalInterface
+public interface BlockVisitor<V> {
+
+  /**
+   * Visit a mapped block.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value mapped to the block
+   */
+  void visit(@NotNull String world, int x, int y, int z, V value);
+
+}
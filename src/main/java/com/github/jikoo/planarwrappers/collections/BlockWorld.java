@@ -0,0 +1,262 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.lang.ref.WeakReference;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Storage for all the mapped blocks in a single world.
+ *
+ * <p>The {@link World} the storage was last accessed with is weakly referenced so that it can be
+ * found by identity rather than by comparing names, and so that entries do not need to look the
+ * world up again. The reference does not prevent unloaded worlds from being collected.
+ *
+ * <p>Storage may be shared with {@link #snapshot() snapshots}. Shared structures are never
+ * modified; they are copied the first time they are written to instead. A chunk may be modified in
+ * place only if it is owned by the storage's current generation, which is replaced whenever a
+ * snapshot is taken. Callers must obtain writable chunks through {@link #own(BlockChunk)} or the
+ * methods that create chunks.
+ *
+ * @param <V> the type of value stored
+ */
+final class BlockWorld<V> {
+
+  private final @NotNull String name;
+  private @NotNull LongObjectMap<BlockChunk<V>> chunks;
+  private @NotNull WeakReference<World> world;
+  private @NotNull Object generation = new Object();
+  private boolean sharedChunks;
+
+  BlockWorld(@NotNull String name, @Nullable World world, int expectedChunks) {
+    this.name = name;
+    this.world = new WeakReference<>(world);
+    this.chunks = new LongObjectMap<>(expectedChunks);
+  }
+
+  private BlockWorld(@NotNull BlockWorld<V> source) {
+    this.name = source.name;
+    this.world = new WeakReference<>(source.world.get());
+    this.chunks = source.chunks;
+    this.sharedChunks = true;
+  }
+
+  /**
+   * Create storage sharing all current content. The snapshot must not be modified. Content in
+   * this storage is copied as it is modified, so the snapshot is unaffected by later changes.
+   *
+   * @return the snapshot
+   */
+  @NotNull BlockWorld<V> snapshot() {
+    sharedChunks = true;
+    generation = new Object();
+    return new BlockWorld<>(this);
+  }
+
+  @NotNull String getName() {
+    return name;
+  }
+
+  /**
+   * Check if the storage is currently bound to a {@link World} instance.
+   *
+   * @param world the world
+   * @return true if the world is the bound instance
+   */
+  boolean is(@NotNull World world) {
+    return this.world.get() == world;
+  }
+
+  /**
+   * Bind the storage to a {@link World} instance.
+   *
+   * @param world the world
+   */
+  void bind(@NotNull World world) {
+    this.world = new WeakReference<>(world);
+  }
+
+  /**
+   * Get the bound {@link World}. If the world has not been bound or has been unloaded, attempts to
+   * look it up by name.
+   *
+   * @return the world or {@code null} if the world is not loaded
+   */
+  @Nullable World getWorld() {
+    World bound = world.get();
+    if (bound != null) {
+      return bound;
+    }
+
+    bound = Bukkit.getWorld(name);
+    if (bound != null) {
+      bind(bound);
+    }
+    return bound;
+  }
+
+  /**
+   * Get the chunk table. The table and the chunks in it may be shared and must not be modified.
+   *
+   * @return the chunk table
+   */
+  @NotNull LongObjectMap<BlockChunk<V>> getChunks() {
+    return chunks;
+  }
+
+  /**
+   * Get storage for the chunk containing a block.
+   *
+   * @param blockX the block X coordinate
+   * @param blockZ the block Z coordinate
+   * @return the chunk storage or {@code null} if the chunk has no mappings
+   */
+  @Nullable BlockChunk<V> getChunkAt(int blockX, int blockZ) {
+    return chunks.get(
+        Coords.packChunk(Coords.blockToChunk(blockX), Coords.blockToChunk(blockZ)));
+  }
+
+  /**
+   * Get or create storage for the chunk containing a block.
+   *
+   * @param blockX the block X coordinate
+   * @param blockZ the block Z coordinate
+   * @return the chunk storage
+   */
+  @NotNull BlockChunk<V> getOrCreateChunkAt(int blockX, int blockZ) {
+    int chunkX = Coords.blockToChunk(blockX);
+    int chunkZ = Coords.blockToChunk(blockZ);
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    BlockChunk<V> blockChunk = chunks.get(chunkKey);
+    if (blockChunk == null) {
+      blockChunk = new BlockChunk<>(chunkX, chunkZ);
+      putChunk(blockChunk);
+      return blockChunk;
+    }
+    return own(blockChunk);
+  }
+
+  /**
+   * Check if chunk storage is shared with a snapshot. Shared storage is copied by
+   * {@link #own(BlockChunk)} before it may be modified, so callers that may not end up modifying
+   * it should check first whether a copy is needed.
+   *
+   * @param blockChunk the chunk storage
+   * @return true if the storage is shared
+   */
+  boolean isShared(@NotNull BlockChunk<V> blockChunk) {
+    return blockChunk.getOwner() != generation;
+  }
+
+  /**
+   * Get a version of chunk storage that may be modified in place. If the storage is shared with a
+   * snapshot, it is replaced with a copy.
+   *
+   * @param blockChunk the chunk storage
+   * @return the writable chunk storage
+   */
+  @NotNull BlockChunk<V> own(@NotNull BlockChunk<V> blockChunk) {
+    if (!isShared(blockChunk)) {
+      return blockChunk;
+    }
+    BlockChunk<V> copy = new BlockChunk<>(blockChunk);
+    putChunk(copy);
+    return copy;
+  }
+
+  /**
+   * Add chunk storage, replacing any existing storage for the chunk. The storage must not be
+   * shared.
+   *
+   * @param blockChunk the chunk storage
+   */
+  void putChunk(@NotNull BlockChunk<V> blockChunk) {
+    blockChunk.setOwner(generation);
+    writableChunks().put(
+        Coords.packChunk(blockChunk.getChunkX(), blockChunk.getChunkZ()), blockChunk);
+  }
+
+  private @NotNull LongObjectMap<BlockChunk<V>> writableChunks() {
+    if (sharedChunks) {
+      chunks = new LongObjectMap<>(chunks);
+      sharedChunks = false;
+    }
+    return chunks;
+  }
+
+  /**
+   * Grow the chunk table so that it can hold a number of chunks without resizing.
+   *
+   * @param expectedChunks the number of chunks expected
+   */
+  void ensureCapacity(int expectedChunks) {
+    if (expectedChunks > chunks.size()) {
+      writableChunks().ensureCapacity(expectedChunks);
+    }
+  }
+
+  /**
+   * Get storage for a chunk.
+   *
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the chunk storage or {@code null} if the chunk has no mappings
+   */
+  @Nullable BlockChunk<V> getChunk(int chunkX, int chunkZ) {
+    return chunks.get(Coords.packChunk(chunkX, chunkZ));
+  }
+
+  /**
+   * Remove storage for a chunk.
+   *
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the removed chunk storage or {@code null} if the chunk had no mappings
+   */
+  @Nullable BlockChunk<V> removeChunk(int chunkX, int chunkZ) {
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    return chunks.containsKey(chunkKey) ? writableChunks().remove(chunkKey) : null;
+  }
+
+  /**
+   * Remove storage for a chunk if it no longer contains any mappings.
+   *
+   * @param blockChunk the chunk storage
+   */
+  void removeIfEmpty(@NotNull BlockChunk<V> blockChunk) {
+    if (blockChunk.isEmpty()) {
+      writableChunks().remove(Coords.packChunk(blockChunk.getChunkX(), blockChunk.getChunkZ()));
+    }
+  }
+
+  /**
+   * Release unused capacity in the chunk table and in each chunk.
+   */
+  void trim() {
+    // Shared chunks are left as-is; they are compacted when copied.
+    chunks.forEach((chunkKey, blockChunk) -> {
+      if (blockChunk.getOwner() == generation) {
+        blockChunk.trim();
+      }
+    });
+    writableChunks().trim();
+  }
+
+  /**
+   * Estimate the memory used by the world storage, excluding the values stored.
+   *
+   * @return the estimated size in bytes
+   */
+  long memoryFootprint() {
+    // Storage and its weak reference to the world.
+    long[] footprint = {
+        Footprint.object(Footprint.REFERENCE * 3) + Footprint.object(Footprint.REFERENCE * 4)
+            + chunks.memoryFootprint()
+    };
+    chunks.forEach((chunkKey, blockChunk) -> footprint[0] += blockChunk.memoryFootprint());
+    return footprint[0];
+  }
+
+}
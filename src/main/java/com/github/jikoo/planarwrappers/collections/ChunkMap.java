@@ -0,0 +1,298 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Chunk;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A more performant expression of a {@code Map<Chunk, ?>}. Also supports region-based operations.
+ *
+ * <p>Chunks are stored per world in a table keyed by {@link Coords#packChunk(int, int) packed
+ * chunk coordinates}. Keys are never boxed and chunks never need to be loaded.
+ *
+ * @param <V> the type of value stored
+ */
+public class ChunkMap<V> {
+
+  private static final int REGION_CHUNKS = 32 * 32;
+
+  private final Map<String, LongObjectMap<V>> worlds = FastMap.obj2Obj();
+  private final int expectedChunks;
+
+  /**
+   * Construct a new {@code ChunkMap}.
+   */
+  public ChunkMap() {
+    this(0);
+  }
+
+  /**
+   * Construct a new {@code ChunkMap} sized to hold a number of chunks per world without resizing.
+   *
+   * @param expectedChunks the number of chunks expected to be mapped in each world
+   * @throws IllegalArgumentException if the number of chunks is negative
+   */
+  public ChunkMap(int expectedChunks) {
+    if (expectedChunks < 0) {
+      throw new IllegalArgumentException("Expected chunks cannot be negative");
+    }
+    this.expectedChunks = expectedChunks;
+  }
+
+  /**
+   * Add a mapping for a {@link Chunk}.
+   *
+   * @param chunk the key used to map the value
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull Chunk chunk, @Nullable V value) {
+    return put(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), value);
+  }
+
+  /**
+   * Add a mapping for the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull String world, int chunkX, int chunkZ, @Nullable V value) {
+    LongObjectMap<V> chunks = worlds.get(world);
+    if (chunks == null) {
+      chunks = new LongObjectMap<>(expectedChunks);
+      worlds.put(world, chunks);
+    }
+    return chunks.put(Coords.packChunk(chunkX, chunkZ), value);
+  }
+
+  /**
+   * Get a stored mapping for a {@link Chunk}.
+   *
+   * @param chunk the key used to map the value
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull Chunk chunk) {
+    return get(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Get a stored mapping for the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull String world, int chunkX, int chunkZ) {
+    LongObjectMap<V> chunks = worlds.get(world);
+    return chunks == null ? null : chunks.get(Coords.packChunk(chunkX, chunkZ));
+  }
+
+  /**
+   * Check if a mapping exists for a {@link Chunk}.
+   *
+   * @param chunk the key used to map the value
+   * @return true if a value is mapped to the chunk
+   */
+  public boolean containsKey(@NotNull Chunk chunk) {
+    return containsKey(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Check if a mapping exists for the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if a value is mapped to the chunk
+   */
+  public boolean containsKey(@NotNull String world, int chunkX, int chunkZ) {
+    LongObjectMap<V> chunks = worlds.get(world);
+    return chunks != null && chunks.containsKey(Coords.packChunk(chunkX, chunkZ));
+  }
+
+  /**
+   * Remove a mapping for a {@link Chunk}.
+   *
+   * @param chunk the key used to map the value
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull Chunk chunk) {
+    return remove(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Remove a mapping for the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull String world, int chunkX, int chunkZ) {
+    LongObjectMap<V> chunks = worlds.get(world);
+    if (chunks == null) {
+      return null;
+    }
+
+    V value = chunks.remove(Coords.packChunk(chunkX, chunkZ));
+    if (chunks.isEmpty()) {
+      worlds.remove(world);
+    }
+    return value;
+  }
+
+  /**
+   * Get all stored mappings for a region in the world named.
+   *
+   * <p>Note that this method accepts region coordinates, not chunk coordinates! The lowest chunk
+   * in the region is the chunk provided by {@link Coords#getRegionChunkCoords(String)} for the
+   * region's file.
+   *
+   * @param world the name of the world
+   * @param regionX the region X coordinate
+   * @param regionZ the region Z coordinate
+   * @return the stored values
+   */
+  public @NotNull Collection<V> getRegion(@NotNull String world, int regionX, int regionZ) {
+    List<V> values = new ArrayList<>();
+    region(world, regionX, regionZ, (name, chunkX, chunkZ, value) -> values.add(value), false);
+    return values;
+  }
+
+  /**
+   * Perform an action for each stored mapping in a region in the world named.
+   *
+   * <p>Note that this method accepts region coordinates, not chunk coordinates! The coordinates
+   * provided to the visitor are chunk coordinates.
+   *
+   * @param world the name of the world
+   * @param regionX the region X coordinate
+   * @param regionZ the region Z coordinate
+   * @param visitor the action to perform with the world name, chunk coordinates, and value
+   */
+  public void forEachInRegion(
+      @NotNull String world,
+      int regionX,
+      int regionZ,
+      @NotNull ChunkVisitor<? super V> visitor) {
+    region(world, regionX, regionZ, visitor, false);
+  }
+
+  /**
+   * Remove all stored mappings for a region in the world named.
+   *
+   * <p>Note that this method accepts region coordinates, not chunk coordinates!
+   *
+   * @param world the name of the world
+   * @param regionX the region X coordinate
+   * @param regionZ the region Z coordinate
+   * @return the previously stored values
+   */
+  public @NotNull Collection<V> removeRegion(@NotNull String world, int regionX, int regionZ) {
+    List<V> values = new ArrayList<>();
+    region(world, regionX, regionZ, (name, chunkX, chunkZ, value) -> values.add(value), true);
+    return values;
+  }
+
+  /**
+   * Visit or remove mappings in a region. If the region covers more chunks than are stored, stored
+   * chunks are filtered instead of looking up every chunk in the region.
+   */
+  private void region(
+      @NotNull String world,
+      int regionX,
+      int regionZ,
+      @NotNull ChunkVisitor<? super V> visitor,
+      boolean remove) {
+    LongObjectMap<V> chunks = worlds.get(world);
+    if (chunks == null) {
+      return;
+    }
+
+    if (REGION_CHUNKS <= chunks.size()) {
+      int minChunkX = Coords.regionToChunk(regionX);
+      int minChunkZ = Coords.regionToChunk(regionZ);
+      for (int chunkX = minChunkX; chunkX < minChunkX + 32; ++chunkX) {
+        for (int chunkZ = minChunkZ; chunkZ < minChunkZ + 32; ++chunkZ) {
+          long chunkKey = Coords.packChunk(chunkX, chunkZ);
+          if (chunks.containsKey(chunkKey)) {
+            V value = remove ? chunks.remove(chunkKey) : chunks.get(chunkKey);
+            visitor.visit(world, chunkX, chunkZ, value);
+          }
+        }
+      }
+    } else {
+      // Entries cannot be removed while iterating; collect keys to remove afterwards.
+      long[] matched = new long[remove ? Math.min(REGION_CHUNKS, chunks.size()) : 0];
+      int[] count = new int[1];
+      chunks.forEach((chunkKey, value) -> {
+        int chunkX = Coords.unpackChunkX(chunkKey);
+        int chunkZ = Coords.unpackChunkZ(chunkKey);
+        if (Coords.chunkToRegion(chunkX) == regionX && Coords.chunkToRegion(chunkZ) == regionZ) {
+          visitor.visit(world, chunkX, chunkZ, value);
+          if (remove) {
+            matched[count[0]++] = chunkKey;
+          }
+        }
+      });
+      for (int index = 0; index < count[0]; ++index) {
+        chunks.remove(matched[index]);
+      }
+    }
+
+    if (remove && chunks.isEmpty()) {
+      worlds.remove(world);
+    }
+  }
+
+  /**
+   * Perform an action for each stored mapping.
+   *
+   * @param visitor the action to perform with the world name, chunk coordinates, and value
+   */
+  public void forEach(@NotNull ChunkVisitor<? super V> visitor) {
+    worlds.forEach((world, chunks) -> chunks.forEach(
+        (chunkKey, value) -> visitor.visit(
+            world, Coords.unpackChunkX(chunkKey), Coords.unpackChunkZ(chunkKey), value)));
+  }
+
+  /**
+   * Get the number of mapped chunks.
+   *
+   * @return the number of mapped chunks
+   */
+  public int size() {
+    int size = 0;
+    for (LongObjectMap<V> chunks : worlds.values()) {
+      size += chunks.size();
+    }
+    return size;
+  }
+
+  /**
+   * Check if no chunks are mapped.
+   *
+   * @return true if the map is empty
+   */
+  public boolean isEmpty() {
+    // Storage for a world is discarded when its last mapping is removed.
+    return worlds.isEmpty();
+  }
+
+  /**
+   * Remove all mappings.
+   */
+  public void clear() {
+    worlds.clear();
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Backing storage for chunks paged out of a {@link BlockMap} by a {@link BlockMapPager}.
+ *
+ * <p>Stores are accessed from a background thread and must be thread-safe.
+ */
+public interface ChunkPageStore {
+
+  /**
+   * Store the encoded content of a chunk, replacing any existing content.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param data the encoded content
+   * @throws IOException if an I/O error occurs
+   */
+  void write(@NotNull String world, int chunkX, int chunkZ, byte @NotNull [] data)
+      throws IOException;
+
+  /**
+   * Read the encoded content of a chunk.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the encoded content or {@code null} if the chunk is not stored
+   * @throws IOException if an I/O error occurs
+   */
+  byte @Nullable [] read(@NotNull String world, int chunkX, int chunkZ) throws IOException;
+
+  /**
+   * Delete the content of a chunk.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @throws IOException if an I/O error occurs
+   */
+  void delete(@NotNull String world, int chunkX, int chunkZ) throws IOException;
+
+  /**
+   * Get a store that keeps chunks in memory, compressed.
+   *
+   * @return the store
+   */
+  static @NotNull ChunkPageStore memory() {
+    return new MemoryPageStore();
+  }
+
+  /**
+   * Get a store that keeps chunks in files in a directory. Each world is stored in its own
+   * subdirectory.
+   *
+   * @param directory the directory
+   * @return the store
+   */
+  static @NotNull ChunkPageStore directory(@NotNull Path directory) {
+    return new FilePageStore(directory);
+  }
+
+}
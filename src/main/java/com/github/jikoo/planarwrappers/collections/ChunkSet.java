@@ -0,0 +1,195 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.util.Coords;
+import com.github.jikoo.planarwrappers.util.Coords.Coord;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.bukkit.Chunk;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A more performant expression of a {@code Set<Chunk>}. Also supports region-based operations.
+ *
+ * <p>Chunks are stored as {@link Coords#packChunk(int, int) packed chunk coordinates} and never
+ * need to be loaded.
+ *
+ * @see ChunkMap
+ */
+public class ChunkSet {
+
+  private static final Object PRESENT = new Object();
+
+  private final ChunkMap<Object> chunks;
+
+  /**
+   * Construct a new {@code ChunkSet}.
+   */
+  public ChunkSet() {
+    this(0);
+  }
+
+  /**
+   * Construct a new {@code ChunkSet} sized to hold a number of chunks per world without resizing.
+   *
+   * @param expectedChunks the number of chunks expected to be present in each world
+   * @throws IllegalArgumentException if the number of chunks is negative
+   */
+  public ChunkSet(int expectedChunks) {
+    chunks = new ChunkMap<>(expectedChunks);
+  }
+
+  /**
+   * Add a {@link Chunk}.
+   *
+   * @param chunk the chunk
+   * @return true if the chunk was not already present
+   */
+  public boolean add(@NotNull Chunk chunk) {
+    return add(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Add the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if the chunk was not already present
+   */
+  public boolean add(@NotNull String world, int chunkX, int chunkZ) {
+    return chunks.put(world, chunkX, chunkZ, PRESENT) == null;
+  }
+
+  /**
+   * Check if a {@link Chunk} is present.
+   *
+   * @param chunk the chunk
+   * @return true if the chunk is present
+   */
+  public boolean contains(@NotNull Chunk chunk) {
+    return chunks.containsKey(chunk);
+  }
+
+  /**
+   * Check if the chunk coordinates in the world named are present.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if the chunk is present
+   */
+  public boolean contains(@NotNull String world, int chunkX, int chunkZ) {
+    return chunks.containsKey(world, chunkX, chunkZ);
+  }
+
+  /**
+   * Remove a {@link Chunk}.
+   *
+   * @param chunk the chunk
+   * @return true if the chunk was present
+   */
+  public boolean remove(@NotNull Chunk chunk) {
+    return chunks.remove(chunk) != null;
+  }
+
+  /**
+   * Remove the chunk coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return true if the chunk was present
+   */
+  public boolean remove(@NotNull String world, int chunkX, int chunkZ) {
+    return chunks.remove(world, chunkX, chunkZ) != null;
+  }
+
+  /**
+   * Get the coordinates of all present chunks in a region in the world named.
+   *
+   * <p>Note that this method accepts region coordinates, not chunk coordinates! The lowest chunk
+   * in the region is the chunk provided by {@link Coords#getRegionChunkCoords(String)} for the
+   * region's file.
+   *
+   * @param world the name of the world
+   * @param regionX the region X coordinate
+   * @param regionZ the region Z coordinate
+   * @return the chunk coordinates
+   */
+  public @NotNull Collection<Coord> getRegion(@NotNull String world, int regionX, int regionZ) {
+    List<Coord> coords = new ArrayList<>();
+    chunks.forEachInRegion(
+        world,
+        regionX,
+        regionZ,
+        (name, chunkX, chunkZ, value) -> coords.add(new Coord(chunkX, chunkZ)));
+    return coords;
+  }
+
+  /**
+   * Remove all present chunks in a region in the world named.
+   *
+   * <p>Note that this method accepts region coordinates, not chunk coordinates!
+   *
+   * @param world the name of the world
+   * @param regionX the region X coordinate
+   * @param regionZ the region Z coordinate
+   * @return the number of chunks removed
+   */
+  public int removeRegion(@NotNull String world, int regionX, int regionZ) {
+    return chunks.removeRegion(world, regionX, regionZ).size();
+  }
+
+  /**
+   * Perform an action for each present chunk.
+   *
+   * @param visitor the action to perform with the world name and chunk coordinates
+   */
+  public void forEach(@NotNull Visitor visitor) {
+    chunks.forEach((world, chunkX, chunkZ, value) -> visitor.visit(world, chunkX, chunkZ));
+  }
+
+  /**
+   * Get the number of present chunks.
+   *
+   * @return the number of present chunks
+   */
+  public int size() {
+    return chunks.size();
+  }
+
+  /**
+   * Check if no chunks are present.
+   *
+   * @return true if the set is empty
+   */
+  public boolean isEmpty() {
+    return chunks.isEmpty();
+  }
+
+  /**
+   * Remove all chunks.
+   */
+  public void clear() {
+    chunks.clear();
+  }
+
+  /**
+   * A visitor for present chunks.
+   */
+  @FunctionalInterface
+  public interface Visitor {
+
+    /**
+     * Visit a present chunk.
+     *
+     * @param world the name of the world
+     * @param chunkX the chunk X coordinate
+     * @param chunkZ the chunk Z coordinate
+     */
+    void visit(@NotNull String world, int chunkX, int chunkZ);
+
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A visitor for mapped chunks. Receives raw coordinates so that no {@code Chunk} needs to be
+ * loaded.
+ *
+ * @param <V> the type of value stored
+ */
+@FunctionalInterface
+public interface ChunkVisitor<V> {
+
+  /**
+   * Visit a mapped chunk.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param value the value mapped to the chunk
+   */
+  void visit(@NotNull String world, int chunkX, int chunkZ, V value);
+
+}
@@ -0,0 +1,411 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.function.IntTriObjConsumer;
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A thread-safe variant of {@link BlockMap}.
+ *
+ * <p>Chunks are divided between a fixed number of lock stripes per world by chunk key. Writes lock
+ * only the stripe owning the chunk being modified. Single-block reads are optimistic and do not
+ * acquire a lock unless a write to the same stripe occurs during the read. Chunk-level operations
+ * hold the stripe lock for their duration, so they are atomic with respect to the chunk.
+ *
+ * <p>Consumers passed to chunk-level operations are run while holding a lock. They should be fast
+ * and must not modify the map.
+ *
+ * @param <V> the type of value stored
+ */
+public class ConcurrentBlockMap<V> {
+
+  private static final int STRIPES = 64;
+
+  private final Map<String, Stripe<V>[]> worlds = new ConcurrentHashMap<>();
+
+  /**
+   * Add a mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull Block block, @Nullable V value) {
+    return put(block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), value);
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull String world, int x, int y, int z, @Nullable V value) {
+    int chunkX = Coords.blockToChunk(x);
+    int chunkZ = Coords.blockToChunk(z);
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    Stripe<V> stripe = stripe(worlds.computeIfAbsent(world, key -> newStripes()), chunkKey);
+
+    long stamp = stripe.lock.writeLock();
+    try {
+      BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+      if (blockChunk == null) {
+        blockChunk = new BlockChunk<>(chunkX, chunkZ);
+        stripe.chunks.put(chunkKey, blockChunk);
+      }
+      return blockChunk.put(x, y, z, value);
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Get a stored mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull Block block) {
+    return get(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get a stored mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull String world, int x, int y, int z) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return null;
+    }
+
+    long chunkKey = Coords.packChunk(Coords.blockToChunk(x), Coords.blockToChunk(z));
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    long stamp = stripe.lock.tryOptimisticRead();
+    if (stamp != 0) {
+      V value;
+      try {
+        value = getUnsafe(stripe, chunkKey, x, y, z);
+      } catch (RuntimeException e) {
+        // Read raced a write and observed inconsistent state. Will fail validation.
+        value = null;
+      }
+      if (stripe.lock.validate(stamp)) {
+        return value;
+      }
+    }
+
+    stamp = stripe.lock.readLock();
+    try {
+      return getUnsafe(stripe, chunkKey, x, y, z);
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+  }
+
+  private @Nullable V getUnsafe(@NotNull Stripe<V> stripe, long chunkKey, int x, int y, int z) {
+    BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+    return blockChunk == null ? null : blockChunk.get(x, y, z);
+  }
+
+  /**
+   * Check if a mapping exists for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return true if a value is mapped to the block
+   */
+  public boolean containsKey(@NotNull Block block) {
+    return containsKey(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Check if a mapping exists for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return true if a value is mapped to the block
+   */
+  public boolean containsKey(@NotNull String world, int x, int y, int z) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return false;
+    }
+
+    long chunkKey = Coords.packChunk(Coords.blockToChunk(x), Coords.blockToChunk(z));
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    long stamp = stripe.lock.tryOptimisticRead();
+    if (stamp != 0) {
+      boolean contains;
+      try {
+        contains = containsKeyUnsafe(stripe, chunkKey, x, y, z);
+      } catch (RuntimeException e) {
+        // Read raced a write and observed inconsistent state. Will fail validation.
+        contains = false;
+      }
+      if (stripe.lock.validate(stamp)) {
+        return contains;
+      }
+    }
+
+    stamp = stripe.lock.readLock();
+    try {
+      return containsKeyUnsafe(stripe, chunkKey, x, y, z);
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+  }
+
+  private boolean containsKeyUnsafe(
+      @NotNull Stripe<V> stripe,
+      long chunkKey,
+      int x,
+      int y,
+      int z) {
+    BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+    return blockChunk != null && blockChunk.containsKey(x, y, z);
+  }
+
+  /**
+   * Remove a mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull Block block) {
+    return remove(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Remove a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull String world, int x, int y, int z) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return null;
+    }
+
+    long chunkKey = Coords.packChunk(Coords.blockToChunk(x), Coords.blockToChunk(z));
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    long stamp = stripe.lock.writeLock();
+    try {
+      BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+      if (blockChunk == null) {
+        return null;
+      }
+      V value = blockChunk.remove(x, y, z);
+      if (blockChunk.isEmpty()) {
+        stripe.chunks.remove(chunkKey);
+      }
+      return value;
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Get all stored mappings for a {@link Chunk}.
+   *
+   * @param chunk the {@code Chunk} of blocks to retrieve
+   * @return the stored values
+   */
+  public @NotNull Collection<V> get(@NotNull Chunk chunk) {
+    return get(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Get all stored mappings for the chunk coordinates in the world named.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! If
+   * necessary, convert with the {@link Coords} utility.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the stored values
+   */
+  public @NotNull Collection<V> get(@NotNull String world, int chunkX, int chunkZ) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return Collections.emptyList();
+    }
+
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    long stamp = stripe.lock.readLock();
+    try {
+      BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+      if (blockChunk == null) {
+        return Collections.emptyList();
+      }
+      List<V> values = new ArrayList<>(blockChunk.size());
+      blockChunk.addValuesTo(values);
+      return values;
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Remove all stored mappings for a {@link Chunk}.
+   *
+   * @param chunk the {@code Chunk} of blocks to remove
+   * @return the previously stored values
+   */
+  public @NotNull Collection<V> remove(@NotNull Chunk chunk) {
+    return remove(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+  }
+
+  /**
+   * Remove all stored mappings for the chunk coordinates in the world named.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! If
+   * necessary, convert with the {@link Coords} utility.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the previously stored values
+   */
+  public @NotNull Collection<V> remove(@NotNull String world, int chunkX, int chunkZ) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return Collections.emptyList();
+    }
+
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    BlockChunk<V> blockChunk;
+    long stamp = stripe.lock.writeLock();
+    try {
+      blockChunk = stripe.chunks.remove(chunkKey);
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+
+    if (blockChunk == null) {
+      return Collections.emptyList();
+    }
+
+    // Chunk is no longer reachable by other threads, values can be collected without locking.
+    List<V> values = new ArrayList<>(blockChunk.size());
+    blockChunk.addValuesTo(values);
+    return values;
+  }
+
+  /**
+   * Perform an action for each stored mapping for the chunk coordinates in the world named.
+   *
+   * <p>Note that this method accepts {@link Chunk} coordinates, not block coordinates! The
+   * coordinates provided to the consumer are block coordinates.
+   *
+   * @param world the name of the world
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @param consumer the action to perform with the block coordinates and value
+   */
+  public void forEachInChunk(
+      @NotNull String world,
+      int chunkX,
+      int chunkZ,
+      @NotNull IntTriObjConsumer<? super V> consumer) {
+    Stripe<V>[] stripes = worlds.get(world);
+    if (stripes == null) {
+      return;
+    }
+
+    long chunkKey = Coords.packChunk(chunkX, chunkZ);
+    Stripe<V> stripe = stripe(stripes, chunkKey);
+
+    long stamp = stripe.lock.readLock();
+    try {
+      BlockChunk<V> blockChunk = stripe.chunks.get(chunkKey);
+      if (blockChunk != null) {
+        blockChunk.forEach(consumer);
+      }
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Perform an action for each stored mapping.
+   *
+   * <p>Each chunk is visited atomically, but the map as a whole is not locked. Mappings added or
+   * removed in other chunks during traversal may or may not be visited.
+   *
+   * @param visitor the action to perform with the world name, block coordinates, and value
+   */
+  public void forEach(@NotNull BlockVisitor<? super V> visitor) {
+    worlds.forEach((worldName, stripes) -> {
+      IntTriObjConsumer<V> consumer = (x, y, z, value) -> visitor.visit(worldName, x, y, z, value);
+      for (Stripe<V> stripe : stripes) {
+        long stamp = stripe.lock.readLock();
+        try {
+          stripe.chunks.forEach((chunkKey, blockChunk) -> blockChunk.forEach(consumer));
+        } finally {
+          stripe.lock.unlockRead(stamp);
+        }
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> @NotNull Stripe<V> @NotNull [] newStripes() {
+    Stripe<V>[] stripes = (Stripe<V>[]) new Stripe<?>[STRIPES];
+    for (int index = 0; index < STRIPES; ++index) {
+      stripes[index] = new Stripe<>();
+    }
+    return stripes;
+  }
+
+  private static <V> @NotNull Stripe<V> stripe(@NotNull Stripe<V> @NotNull [] stripes, long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return stripes[(int) (hash >>> 58)];
+  }
+
+  /**
+   * A lock and the chunks it guards.
+   *
+   * @param <V> the type of value stored
+   */
+  private static final class Stripe<V> {
+
+    private final StampedLock lock = new StampedLock();
+    private final LongObjectMap<BlockChunk<V>> chunks = new LongObjectMap<>();
+
+  }
+
+}
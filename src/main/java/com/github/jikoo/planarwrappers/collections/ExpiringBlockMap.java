@@ -0,0 +1,356 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.scheduler.TickTimeUnit;
+import com.github.jikoo.planarwrappers.scheduler.TimingWheel;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link BlockMap} whose mappings expire after a set number of server ticks.
+ *
+ * <p>Expiry is tracked in a {@link TimingWheel}, so each tick only costs time proportional to the
+ * number of mappings expiring. Mappings may optionally be passed to a listener as they expire.
+ *
+ * <p>The map must be advanced once per tick, either manually via {@link #tick()} or by scheduling
+ * it with {@link #schedule(Plugin)}.
+ *
+ * @param <V> the type of value stored
+ */
+public class ExpiringBlockMap<V> {
+
+  private final int expectedChunks;
+  private @NotNull BlockMap<TimingWheel.Entry<BlockEntry<V>>> map;
+  private final @NotNull TimingWheel<BlockEntry<V>> wheel = new TimingWheel<>();
+  private final @Nullable BlockVisitor<? super V> evictionListener;
+  private int taskId = -1;
+
+  /**
+   * Construct a new {@code ExpiringBlockMap}.
+   */
+  public ExpiringBlockMap() {
+    this(null);
+  }
+
+  /**
+   * Construct a new {@code ExpiringBlockMap} that notifies a listener when mappings expire.
+   *
+   * <p>The listener is not notified of mappings that are removed or replaced.
+   *
+   * @param evictionListener the action to perform with each expired mapping
+   */
+  public ExpiringBlockMap(@Nullable BlockVisitor<? super V> evictionListener) {
+    this(0, evictionListener);
+  }
+
+  /**
+   * Construct a new {@code ExpiringBlockMap} sized to hold mappings in a number of chunks per world
+   * that notifies a listener when mappings expire.
+   *
+   * @param expectedChunks the number of chunks expected to contain mappings in each world
+   * @param evictionListener the action to perform with each expired mapping
+   * @throws IllegalArgumentException if the expected number of chunks is negative
+   * @see BlockMap#BlockMap(int)
+   */
+  public ExpiringBlockMap(int expectedChunks, @Nullable BlockVisitor<? super V> evictionListener) {
+    this.map = new BlockMap<>(expectedChunks);
+    this.expectedChunks = expectedChunks;
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Add a mapping for a {@link Block} that expires after a number of ticks.
+   *
+   * @param block the key used to map the value
+   * @param value the value to be stored using the key
+   * @param ticks the number of ticks until the mapping expires
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(@NotNull Block block, @Nullable V value, long ticks) {
+    return put(block.getWorld(), block.getX(), block.getY(), block.getZ(), value, ticks);
+  }
+
+  /**
+   * Add a mapping for a {@link Block} that expires after a duration.
+   *
+   * @param block the key used to map the value
+   * @param value the value to be stored using the key
+   * @param duration the duration until the mapping expires
+   * @param unit the {@link TimeUnit} of the duration
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(
+      @NotNull Block block,
+      @Nullable V value,
+      long duration,
+      @NotNull TimeUnit unit) {
+    return put(block, value, TickTimeUnit.toTicks(duration, unit));
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world specified that expires after a
+   * number of ticks.
+   *
+   * @param world the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @param ticks the number of ticks until the mapping expires
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(
+      @NotNull World world,
+      int x,
+      int y,
+      int z,
+      @Nullable V value,
+      long ticks) {
+    BlockEntry<V> entry = new BlockEntry<>(world.getName(), x, y, z, value);
+    return replaced(map.put(world, x, y, z, wheel.schedule(entry, ticks)));
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world named that expires after a number
+   * of ticks.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @param ticks the number of ticks until the mapping expires
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      @Nullable V value,
+      long ticks) {
+    BlockEntry<V> entry = new BlockEntry<>(world, x, y, z, value);
+    return replaced(map.put(world, x, y, z, wheel.schedule(entry, ticks)));
+  }
+
+  /**
+   * Add a mapping for the block at the coordinates in the world named that expires after a
+   * duration.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param value the value to be stored using the key
+   * @param duration the duration until the mapping expires
+   * @param unit the {@link TimeUnit} of the duration
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V put(
+      @NotNull String world,
+      int x,
+      int y,
+      int z,
+      @Nullable V value,
+      long duration,
+      @NotNull TimeUnit unit) {
+    return put(world, x, y, z, value, TickTimeUnit.toTicks(duration, unit));
+  }
+
+  /**
+   * Get a stored mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull Block block) {
+    return value(map.get(block));
+  }
+
+  /**
+   * Get a stored mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the stored value or {@code null} if no value is present
+   */
+  public @Nullable V get(@NotNull String world, int x, int y, int z) {
+    return value(map.get(world, x, y, z));
+  }
+
+  /**
+   * Check if a mapping is present for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return true if a mapping is present
+   */
+  public boolean containsKey(@NotNull Block block) {
+    return map.containsKey(block);
+  }
+
+  /**
+   * Check if a mapping is present for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return true if a mapping is present
+   */
+  public boolean containsKey(@NotNull String world, int x, int y, int z) {
+    return map.containsKey(world, x, y, z);
+  }
+
+  /**
+   * Get the number of ticks until a mapping expires.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the number of ticks remaining or {@code -1} if no mapping is present
+   */
+  public long getRemainingTicks(@NotNull String world, int x, int y, int z) {
+    TimingWheel.Entry<BlockEntry<V>> entry = map.get(world, x, y, z);
+    return entry == null ? -1 : entry.getExpiry() - wheel.getTick();
+  }
+
+  /**
+   * Reset the expiration of an existing mapping.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @param ticks the number of ticks until the mapping expires
+   * @return true if a mapping was present
+   */
+  public boolean touch(@NotNull String world, int x, int y, int z, long ticks) {
+    TimingWheel.Entry<BlockEntry<V>> entry = map.get(world, x, y, z);
+    if (entry == null) {
+      return false;
+    }
+    wheel.reschedule(entry, ticks);
+    return true;
+  }
+
+  /**
+   * Remove a mapping for a {@link Block}.
+   *
+   * @param block the key used to map the value
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull Block block) {
+    return replaced(map.remove(block));
+  }
+
+  /**
+   * Remove a mapping for the block at the coordinates in the world named.
+   *
+   * @param world the name of the world
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the previously stored value or {@code null} if no value was present
+   */
+  public @Nullable V remove(@NotNull String world, int x, int y, int z) {
+    return replaced(map.remove(world, x, y, z));
+  }
+
+  /**
+   * Get the number of stored mappings.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return wheel.size();
+  }
+
+  /**
+   * Check if the map contains no mappings.
+   *
+   * @return true if no mappings are present
+   */
+  public boolean isEmpty() {
+    return wheel.size() == 0;
+  }
+
+  /**
+   * Perform an action for each stored mapping.
+   *
+   * @param visitor the action to perform with the world name, block coordinates, and value
+   */
+  public void forEach(@NotNull BlockVisitor<? super V> visitor) {
+    map.forEach((world, x, y, z, entry) -> visitor.visit(world, x, y, z, value(entry)));
+  }
+
+  /**
+   * Remove all mappings without notifying the eviction listener.
+   */
+  public void clear() {
+    map.forEach((world, x, y, z, entry) -> wheel.cancel(entry));
+    map = new BlockMap<>(expectedChunks);
+  }
+
+  /**
+   * Advance the map by a single tick, removing and reporting any mappings that expire.
+   */
+  public void tick() {
+    wheel.advance(this::evict);
+  }
+
+  private void evict(@NotNull BlockEntry<V> entry) {
+    map.remove(entry.world(), entry.x(), entry.y(), entry.z());
+    if (evictionListener != null) {
+      evictionListener.visit(entry.world(), entry.x(), entry.y(), entry.z(), entry.value());
+    }
+  }
+
+  private @Nullable V replaced(@Nullable TimingWheel.Entry<BlockEntry<V>> previous) {
+    if (previous == null) {
+      return null;
+    }
+    wheel.cancel(previous);
+    return previous.getElement().value();
+  }
+
+  private static <V> @Nullable V value(@Nullable TimingWheel.Entry<BlockEntry<V>> entry) {
+    return entry == null ? null : entry.getElement().value();
+  }
+
+  /**
+   * Schedule the map to tick with the Bukkit scheduler.
+   *
+   * @param plugin the plugin scheduling the task
+   * @return the same map instance
+   */
+  @Contract("_ -> this")
+  public @NotNull ExpiringBlockMap<V> schedule(@NotNull Plugin plugin) {
+    if (taskId != -1) {
+      cancel(plugin);
+    }
+
+    taskId = plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, this::tick, 1, 1);
+
+    return this;
+  }
+
+  /**
+   * Cancel the task scheduled with the Bukkit scheduler.
+   *
+   * @param plugin the plugin cancelling the task
+   */
+  public void cancel(@NotNull Plugin plugin) {
+    if (taskId != -1) {
+      plugin.getServer().getScheduler().cancelTask(taskId);
+      taskId = -1;
+    }
+  }
+
+}
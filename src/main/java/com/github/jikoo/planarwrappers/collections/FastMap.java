@@ -1,26 +1,27 @@
 package com.github.jikoo.planarwrappers.collections;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A utility for creating FastUtil maps.
  *
  * <p>While Craftbukkit and Paper both shade FastUtil, CB relocates FastUtil and Paper does not. The
  * performance gains of using FastUtil's maps are worth the hit of fumbling around a bit initially
- * to figure out which is present.
+ * to figure out which is present. The implementation is resolved once, when first needed, into a
+ * factory; creating a map never performs a reflective lookup.
  */
 @SuppressWarnings("unchecked")
 final class FastMap {
 
-  private static Class<Map<?, ?>> obj2Obj;
-  private static Class<SortedMap<Integer, ?>> int2ObjTree;
-  private static Class<Map<Integer, ?>> int2Obj;
+  private static final Supplier<Map<?, ?>> OBJ_2_OBJ =
+      factory("it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap", HashMap::new);
 
   private FastMap() {
     throw new IllegalStateException("Cannot instantiate static utility classes!");
@@ -36,76 +37,67 @@ final class FastMap {
    * @return the Map created
    */
   static <K, V> Map<K, V> obj2Obj() {
-    if (obj2Obj == null) {
-      obj2Obj = newFast("it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap", HashMap.class);
-    }
-
-    return (Map<K, V>) instanceOr(obj2Obj, HashMap::new);
+    return (Map<K, V>) OBJ_2_OBJ.get();
   }
 
   /**
-   * Create an {@code Int2ObjectOpenHashMap} if the class can be found.
+   * Resolve a factory for a FastUtil map with a public no-argument constructor.
    *
-   * <p>If FastUtil cannot be located, provides a {@code HashMap} instead.
-   *
-   * @param <V> the type of value
-   * @return the Map created
+   * @param className the unrelocated name of the map class
+   * @param fallback the factory to use if the class is not present or is incompatible
+   * @return the factory
    */
-  static <V> Map<Integer, V> int2Obj() {
-    if (int2Obj == null) {
-      int2Obj = newFast("it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap", HashMap.class);
+  private static @NotNull Supplier<Map<?, ?>> factory(
+      @NotNull String className,
+      @NotNull Supplier<Map<?, ?>> fallback) {
+    Class<?> clazz = findFast(className);
+    if (clazz == null || !Map.class.isAssignableFrom(clazz)) {
+      return fallback;
     }
 
-    return (Map<Integer, V>) instanceOr(int2Obj, HashMap::new);
-  }
-
-  /**
-   * Create an {@code Int2ObjectRBTreeMap} if the class can be found.
-   *
-   * <p>If FastUtil cannot be located, provides a {@code HashMap} instead.
-   *
-   * @param <V> the type of value
-   * @return the Map created
-   */
-  static <V> SortedMap<Integer, V> int2ObjTree() {
-    if (int2ObjTree == null) {
-      int2ObjTree = newFast("it.unimi.dsi.fastutil.ints.Int2ObjectRBTreeMap", TreeMap.class);
+    MethodHandle constructor;
+    try {
+      constructor = MethodHandles.publicLookup()
+          .unreflectConstructor(clazz.getConstructor())
+          .asType(MethodType.methodType(Map.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Unexpected FastUtil version. Fall through to default implementation.
+      return fallback;
     }
 
-    return (SortedMap<Integer, V>) instanceOr(int2ObjTree, TreeMap::new);
+    return () -> {
+      try {
+        return (Map<?, ?>) constructor.invokeExact();
+      } catch (Throwable throwable) {
+        throw rethrow(throwable);
+      }
+    };
   }
 
-  private static <T extends Map<?, ?>, V extends T> Class<T> newFast(
-      String className, Class<V> defaultClazz) {
-    if (Modifier.isAbstract(defaultClazz.getModifiers())) {
-      throw new IllegalArgumentException(
-          "Cannot provide a default implementation that cannot be instantiated!");
-    }
+  private static @Nullable Class<?> findFast(@NotNull String className) {
     try {
       // CB/Spigot provides FastUtil but relocates it.
-      return (Class<T>) Class.forName("org.bukkit.craftbukkit.libs." + className);
+      return Class.forName("org.bukkit.craftbukkit.libs." + className);
     } catch (ClassNotFoundException e) {
       // Not relocated by CB, move on.
     }
     try {
       // Paper removes FastUtil relocation.
-      return (Class<T>) Class.forName(className);
+      return Class.forName(className);
     } catch (ClassNotFoundException e) {
-      // Not present at all? Fall through to provided implementation.
+      // Not present at all.
+      return null;
     }
-    // Hack around compilation error
-    return (Class<T>) defaultClazz;
   }
 
-  private static <T> T instanceOr(Class<? extends T> clazz, Supplier<T> supplier) {
-    try {
-      return clazz.getConstructor().newInstance();
-    } catch (InstantiationException
-        | InvocationTargetException
-        | IllegalAccessException
-        | NoSuchMethodException e) {
-      // Fall through to supplier.
-      return supplier.get();
+  private static @NotNull RuntimeException rethrow(@NotNull Throwable throwable) {
+    if (throwable instanceof RuntimeException runtime) {
+      return runtime;
     }
+    if (throwable instanceof Error error) {
+      throw error;
+    }
+    return new IllegalStateException(throwable);
   }
+
 }
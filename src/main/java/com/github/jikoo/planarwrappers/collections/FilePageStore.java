@@ -0,0 +1,46 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/** A {@link ChunkPageStore} keeping a file per chunk. */
+final class FilePageStore implements ChunkPageStore {
+
+  private final @NotNull Path directory;
+
+  FilePageStore(@NotNull Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public void write(@NotNull String world, int chunkX, int chunkZ, byte @NotNull [] data)
+      throws IOException {
+    Path file = file(world, chunkX, chunkZ);
+    Files.createDirectories(file.getParent());
+    Files.write(file, data);
+  }
+
+  @Override
+  public byte @Nullable [] read(@NotNull String world, int chunkX, int chunkZ)
+      throws IOException {
+    try {
+      return Files.readAllBytes(file(world, chunkX, chunkZ));
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void delete(@NotNull String world, int chunkX, int chunkZ) throws IOException {
+    Files.deleteIfExists(file(world, chunkX, chunkZ));
+  }
+
+  private @NotNull Path file(@NotNull String world, int chunkX, int chunkZ) {
+    return directory.resolve(world).resolve(chunkX + "." + chunkZ + ".page");
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.github.jikoo.planarwrappers.collections;
+
+/**
+ * Rough estimates of heap usage.
+ *
+ * <p>Estimates assume a 64-bit JVM with compressed object pointers and 8-byte object alignment,
+ * which is the default for heaps under 32GB. They are intended for comparing the relative overhead
+ * of collections, not for precise accounting.
+ */
+final class Footprint {
+
+  /** Size of a reference. */
+  static final int REFERENCE = 4;
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+
+  private Footprint() {
+    throw new IllegalStateException("Cannot instantiate static utility classes!");
+  }
+
+  /**
+   * Estimate the size of an object.
+   *
+   * @param fieldBytes the total size of the object's fields
+   * @return the estimated size in bytes
+   */
+  static long object(int fieldBytes) {
+    return align(OBJECT_HEADER + (long) fieldBytes);
+  }
+
+  /**
+   * Estimate the size of an array.
+   *
+   * @param length the length of the array
+   * @param elementBytes the size of each element
+   * @return the estimated size in bytes
+   */
+  static long array(int length, int elementBytes) {
+    return align(ARRAY_HEADER + (long) length * elementBytes);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+}
@@ -0,0 +1,383 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A minimal open-addressing hash map with primitive {@code long} keys.
+ *
+ * <p>Keys are never boxed. Collisions are resolved by linear probing and removals shift following
+ * entries back rather than leaving tombstones, so lookups never degrade after heavy churn. As with
+ * FastUtil, the zero key is stored in a dedicated slot at the end of the table. Also as with
+ * FastUtil, the table shrinks when removals leave it mostly empty, but never below the capacity
+ * requested on construction.
+ *
+ * <p>The map is not thread-safe. Lookups do tolerate racing a writer in that they always terminate,
+ * either returning some value or throwing a {@link RuntimeException}, so that callers may perform
+ * optimistic reads that are validated afterwards.
+ *
+ * @param <V> the type of value stored
+ */
+final class LongObjectMap<V> {
+
+  private static final float LOAD_FACTOR = .75F;
+  private static final int MIN_CAPACITY = 4;
+
+  private long[] keys;
+  private V[] values;
+  private int mask;
+  private boolean containsZeroKey;
+  private int size;
+  private int maxFill;
+  private final int minTableSize;
+
+  LongObjectMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Construct a new {@code LongObjectMap} able to hold the expected number of entries without
+   * resizing.
+   *
+   * @param expected the expected number of entries
+   */
+  LongObjectMap(int expected) {
+    if (expected < 0) {
+      throw new IllegalArgumentException("Expected entries cannot be negative");
+    }
+    minTableSize = tableSize(expected);
+    allocate(minTableSize);
+  }
+
+  /**
+   * Construct a new {@code LongObjectMap} containing the same entries as another.
+   *
+   * @param other the map to copy
+   */
+  LongObjectMap(@NotNull LongObjectMap<V> other) {
+    keys = other.keys.clone();
+    values = other.values.clone();
+    mask = other.mask;
+    containsZeroKey = other.containsZeroKey;
+    size = other.size;
+    maxFill = other.maxFill;
+    minTableSize = other.minTableSize;
+  }
+
+  /**
+   * Get the value mapped to a key.
+   *
+   * @param key the key
+   * @return the value or {@code null} if no value is present
+   */
+  @Nullable V get(long key) {
+    if (key == 0) {
+      return containsZeroKey ? values[mask + 1] : null;
+    }
+
+    // Probe using only the local key array so that a read racing a resize always terminates.
+    long[] localKeys = keys;
+    int localMask = localKeys.length - 2;
+    int index = mix(key) & localMask;
+    long current;
+    while ((current = localKeys[index]) != 0) {
+      if (current == key) {
+        return values[index];
+      }
+      index = (index + 1) & localMask;
+    }
+
+    return null;
+  }
+
+  /**
+   * Check if a key is mapped.
+   *
+   * @param key the key
+   * @return true if the key is present
+   */
+  boolean containsKey(long key) {
+    if (key == 0) {
+      return containsZeroKey;
+    }
+
+    long[] localKeys = keys;
+    int localMask = localKeys.length - 2;
+    int index = mix(key) & localMask;
+    long current;
+    while ((current = localKeys[index]) != 0) {
+      if (current == key) {
+        return true;
+      }
+      index = (index + 1) & localMask;
+    }
+
+    return false;
+  }
+
+  /**
+   * Map a value to a key.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the previous value or {@code null} if no value was present
+   */
+  @Nullable V put(long key, @Nullable V value) {
+    int index;
+    if (key == 0) {
+      index = mask + 1;
+      if (containsZeroKey) {
+        return replace(index, value);
+      }
+      containsZeroKey = true;
+    } else {
+      long[] localKeys = keys;
+      index = mix(key) & mask;
+      long current;
+      while ((current = localKeys[index]) != 0) {
+        if (current == key) {
+          return replace(index, value);
+        }
+        index = (index + 1) & mask;
+      }
+      localKeys[index] = key;
+    }
+
+    values[index] = value;
+    if (size++ >= maxFill) {
+      rehash(tableSize(size + 1));
+    }
+    return null;
+  }
+
+  private @Nullable V replace(int index, @Nullable V value) {
+    V old = values[index];
+    values[index] = value;
+    return old;
+  }
+
+  /**
+   * Remove the value mapped to a key.
+   *
+   * @param key the key
+   * @return the previous value or {@code null} if no value was present
+   */
+  @Nullable V remove(long key) {
+    if (key == 0) {
+      if (!containsZeroKey) {
+        return null;
+      }
+      containsZeroKey = false;
+      --size;
+      V old = replace(mask + 1, null);
+      shrinkIfSparse();
+      return old;
+    }
+
+    long[] localKeys = keys;
+    int index = mix(key) & mask;
+    long current;
+    while ((current = localKeys[index]) != 0) {
+      if (current == key) {
+        V old = values[index];
+        --size;
+        shiftKeys(index);
+        shrinkIfSparse();
+        return old;
+      }
+      index = (index + 1) & mask;
+    }
+
+    return null;
+  }
+
+  /**
+   * Backward-shift deletion. Moves any following entries that would have hashed to or before the
+   * emptied slot into it so that probe sequences remain unbroken.
+   *
+   * @param index the index of the removed entry
+   */
+  private void shiftKeys(int index) {
+    long[] localKeys = keys;
+    V[] localValues = values;
+    int last;
+    long current;
+    while (true) {
+      last = index;
+      index = (index + 1) & mask;
+      while (true) {
+        if ((current = localKeys[index]) == 0) {
+          localKeys[last] = 0;
+          localValues[last] = null;
+          return;
+        }
+        int slot = mix(current) & mask;
+        // Entry may only move back if its ideal slot is not cyclically between last and index.
+        if (last <= index ? last >= slot || slot > index : last >= slot && slot > index) {
+          break;
+        }
+        index = (index + 1) & mask;
+      }
+      localKeys[last] = current;
+      localValues[last] = localValues[index];
+    }
+  }
+
+  private void shrinkIfSparse() {
+    int tableSize = mask + 1;
+    if (tableSize > minTableSize && size < maxFill / 4) {
+      rehash(tableSize >> 1);
+    }
+  }
+
+  /**
+   * Grow the table so that it can hold the expected number of entries without resizing.
+   *
+   * @param expected the expected number of entries
+   */
+  void ensureCapacity(int expected) {
+    int tableSize = tableSize(expected);
+    if (tableSize > mask + 1) {
+      rehash(tableSize);
+    }
+  }
+
+  /**
+   * Shrink the table to the smallest size that can hold the current entries, ignoring the capacity
+   * requested on construction.
+   *
+   * @return true if the table was shrunk
+   */
+  boolean trim() {
+    int tableSize = tableSize(size);
+    if (tableSize >= mask + 1) {
+      return false;
+    }
+    rehash(tableSize);
+    return true;
+  }
+
+  /**
+   * Estimate the memory used by the map itself, excluding the values stored.
+   *
+   * @return the estimated size in bytes
+   */
+  long memoryFootprint() {
+    return Footprint.object(Footprint.REFERENCE * 2 + Integer.BYTES * 4 + 1)
+        + Footprint.array(keys.length, Long.BYTES)
+        + Footprint.array(values.length, Footprint.REFERENCE);
+  }
+
+  /**
+   * Get the number of entries.
+   *
+   * @return the number of entries
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Check if the map has no entries.
+   *
+   * @return true if the map is empty
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Remove all entries. */
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+    size = 0;
+    containsZeroKey = false;
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, null);
+  }
+
+  /**
+   * Perform an action for each entry.
+   *
+   * @param consumer the action to perform
+   */
+  void forEach(@NotNull EntryConsumer<? super V> consumer) {
+    long[] localKeys = keys;
+    V[] localValues = values;
+    for (int index = 0; index <= mask; ++index) {
+      if (localKeys[index] != 0) {
+        consumer.accept(localKeys[index], localValues[index]);
+      }
+    }
+    if (containsZeroKey) {
+      consumer.accept(0, localValues[mask + 1]);
+    }
+  }
+
+  private void rehash(int newSize) {
+    long[] oldKeys = keys;
+    V[] oldValues = values;
+    int oldMask = mask;
+    allocate(newSize);
+
+    long[] localKeys = keys;
+    V[] localValues = values;
+    for (int oldIndex = 0; oldIndex <= oldMask; ++oldIndex) {
+      long key = oldKeys[oldIndex];
+      if (key == 0) {
+        continue;
+      }
+      int index = mix(key) & mask;
+      while (localKeys[index] != 0) {
+        index = (index + 1) & mask;
+      }
+      localKeys[index] = key;
+      localValues[index] = oldValues[oldIndex];
+    }
+    localValues[mask + 1] = oldValues[oldMask + 1];
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocate(int tableSize) {
+    mask = tableSize - 1;
+    maxFill = Math.min((int) Math.ceil(tableSize * LOAD_FACTOR), tableSize - 1);
+    // Final slot is reserved for the zero key.
+    keys = new long[tableSize + 1];
+    values = (V[]) new Object[tableSize + 1];
+  }
+
+  private static int tableSize(int expected) {
+    long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expected / LOAD_FACTOR));
+    if (needed > 1 << 30) {
+      throw new IllegalStateException("Too large (" + expected + " expected elements)");
+    }
+    return Integer.highestOneBit((int) needed - 1) << 1;
+  }
+
+  /**
+   * Scramble key bits so that sequential coordinates spread across the table.
+   *
+   * @param key the key
+   * @return the mixed hash
+   */
+  private static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    return (int) (hash ^ (hash >>> 16));
+  }
+
+  /**
+   * A consumer of primitive key entries.
+   *
+   * @param <V> the type of value
+   */
+  @FunctionalInterface
+  interface EntryConsumer<V> {
+
+    void accept(long key, V value);
+
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/** A {@link ChunkPageStore} keeping deflated chunks in memory. */
+final class MemoryPageStore implements ChunkPageStore {
+
+  private final Map<Key, Page> pages = new ConcurrentHashMap<>();
+
+  @Override
+  public void write(@NotNull String world, int chunkX, int chunkZ, byte @NotNull [] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      byte[] buffer = new byte[Math.max(64, data.length / 2)];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      Page page = new Page(data.length, Arrays.copyOf(buffer, length));
+      pages.put(new Key(world, chunkX, chunkZ), page);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte @Nullable [] read(@NotNull String world, int chunkX, int chunkZ)
+      throws IOException {
+    Page page = pages.get(new Key(world, chunkX, chunkZ));
+    if (page == null) {
+      return null;
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(page.compressed());
+      byte[] data = new byte[page.length()];
+      int length = 0;
+      while (length < data.length && !inflater.finished()) {
+        int inflated = inflater.inflate(data, length, data.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != data.length) {
+        throw new IOException("Truncated page for chunk " + chunkX + ", " + chunkZ);
+      }
+      return data;
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Override
+  public void delete(@NotNull String world, int chunkX, int chunkZ) {
+    pages.remove(new Key(world, chunkX, chunkZ));
+  }
+
+  private record Key(@NotNull String world, int chunkX, int chunkZ) {}
+
+  private record Page(int length, byte @NotNull [] compressed) {}
+
+}
@@ -0,0 +1,162 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An ordering of block positions matching the layout of chunk storage: by chunk, then by section,
+ * then by index within the section.
+ *
+ * <p>Each position is assigned a key holding its chunk and section relative to the lowest in the
+ * input, its local index, and its index in the input. Keys are radix sorted on the bits actually
+ * in use. As the sort is stable and keys start out in input order, duplicate positions keep their
+ * input order.
+ *
+ * <p>If the input spans too many chunks or sections for their offsets to fit in the key, only the
+ * low bits of the offsets are kept. Distant chunks and sections sharing low bits are then
+ * interleaved, which costs locality but not correctness; callers must compare the actual
+ * coordinates of positions sharing a section key.
+ */
+final class PositionOrder {
+
+  /** Bits available for chunk and section offsets alongside the local index. */
+  private static final int OFFSET_BITS = 20;
+  private static final int LOCAL_BITS = 12;
+  private static final int RADIX_BITS = 11;
+  /** Inputs below this size are sorted with a comparison sort instead. */
+  private static final int RADIX_THRESHOLD = 1024;
+
+  private final long @NotNull [] keys;
+  private final boolean exact;
+
+  PositionOrder(int @NotNull [] xs, int @NotNull [] ys, int @NotNull [] zs, int length) {
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    int maxZ = Integer.MIN_VALUE;
+    for (int index = 0; index < length; ++index) {
+      minX = Math.min(minX, xs[index]);
+      maxX = Math.max(maxX, xs[index]);
+      minY = Math.min(minY, ys[index]);
+      maxY = Math.max(maxY, ys[index]);
+      minZ = Math.min(minZ, zs[index]);
+      maxZ = Math.max(maxZ, zs[index]);
+    }
+
+    int minChunkX = Coords.blockToChunk(minX);
+    int minChunkZ = Coords.blockToChunk(minZ);
+    int minSectionY = minY >> 4;
+    int xBits = bitsFor(Coords.blockToChunk(maxX) - (long) minChunkX);
+    int zBits = bitsFor(Coords.blockToChunk(maxZ) - (long) minChunkZ);
+    int yBits = bitsFor((maxY >> 4) - (long) minSectionY);
+    exact = xBits + zBits + yBits <= OFFSET_BITS;
+    if (!exact) {
+      xBits = 8;
+      zBits = 8;
+      yBits = 4;
+    }
+
+    int keyBits = LOCAL_BITS + xBits + zBits + yBits;
+    int xMask = (1 << xBits) - 1;
+    int zMask = (1 << zBits) - 1;
+    int yMask = (1 << yBits) - 1;
+    keys = new long[length];
+    for (int index = 0; index < length; ++index) {
+      int x = xs[index];
+      int y = ys[index];
+      int z = zs[index];
+      long offsets = (long) (Coords.blockToChunk(x) - minChunkX & xMask) << (zBits + yBits)
+          | (long) (Coords.blockToChunk(z) - minChunkZ & zMask) << yBits
+          | (long) ((y >> 4) - minSectionY & yMask);
+      keys[index] = (offsets << LOCAL_BITS | BlockChunk.localIndex(x, y, z)) << 32 | index;
+    }
+
+    if (length < RADIX_THRESHOLD) {
+      // Signed order may differ from radix order, but sections are grouped either way.
+      Arrays.sort(keys);
+    } else {
+      radixSort(keys, keyBits);
+    }
+  }
+
+  private static int bitsFor(long span) {
+    return 64 - Long.numberOfLeadingZeros(span);
+  }
+
+  /**
+   * Stable least significant digit radix sort on the high {@code keyBits} of the upper half of
+   * each key.
+   */
+  private static void radixSort(long @NotNull [] keys, int keyBits) {
+    long[] source = keys;
+    long[] target = new long[keys.length];
+    int[] counts = new int[1 << RADIX_BITS];
+    int mask = (1 << RADIX_BITS) - 1;
+    for (int shift = 32; shift < 32 + keyBits; shift += RADIX_BITS) {
+      Arrays.fill(counts, 0);
+      for (long key : source) {
+        ++counts[(int) (key >>> shift) & mask];
+      }
+      int offset = 0;
+      for (int digit = 0; digit < counts.length; ++digit) {
+        int count = counts[digit];
+        counts[digit] = offset;
+        offset += count;
+      }
+      for (long key : source) {
+        target[counts[(int) (key >>> shift) & mask]++] = key;
+      }
+      long[] swap = source;
+      source = target;
+      target = swap;
+    }
+    if (source != keys) {
+      System.arraycopy(source, 0, keys, 0, keys.length);
+    }
+  }
+
+  /**
+   * Check whether keys identify chunks and sections exactly, in which case positions sharing a
+   * section key are known to be in the same section.
+   *
+   * @return true if keys are exact
+   */
+  boolean isExact() {
+    return exact;
+  }
+
+  /**
+   * Get the input index of the position at a sorted index.
+   *
+   * @param sorted the sorted index
+   * @return the input index
+   */
+  int index(int sorted) {
+    return (int) keys[sorted];
+  }
+
+  /**
+   * Get the section key of the position at a sorted index. Positions in the same section share a
+   * section key. If keys are not exact, positions in other sections may share it as well.
+   *
+   * @param sorted the sorted index
+   * @return the section key
+   */
+  int section(int sorted) {
+    return (int) (keys[sorted] >>> 32 + LOCAL_BITS);
+  }
+
+  /**
+   * Get the local index within its section of the position at a sorted index.
+   *
+   * @param sorted the sorted index
+   * @return the local index
+   */
+  int localIndex(int sorted) {
+    return (int) (keys[sorted] >>> 32) & (1 << LOCAL_BITS) - 1;
+  }
+
+}
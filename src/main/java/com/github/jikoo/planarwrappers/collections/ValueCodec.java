@@ -0,0 +1,55 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A binary codec for values persisted by a {@link BlockMapSnapshot}.
+ *
+ * <p>If the map may contain {@code null} values, the codec is responsible for encoding them.
+ *
+ * @param <V> the type of value
+ */
+public interface ValueCodec<V> {
+
+  /**
+   * Write a value.
+   *
+   * @param out the output
+   * @param value the value
+   * @throws IOException if an I/O error occurs
+   */
+  void write(@NotNull DataOutput out, V value) throws IOException;
+
+  /**
+   * Read a value.
+   *
+   * @param in the input
+   * @return the value
+   * @throws IOException if an I/O error occurs
+   */
+  V read(@NotNull DataInput in) throws IOException;
+
+  /**
+   * Get a codec for {@link String Strings} using modified UTF-8.
+   *
+   * @return the codec
+   * @see DataOutput#writeUTF(String)
+   */
+  static @NotNull ValueCodec<String> utf() {
+    return new ValueCodec<>() {
+      @Override
+      public void write(@NotNull DataOutput out, String value) throws IOException {
+        out.writeUTF(value);
+      }
+
+      @Override
+      public String read(@NotNull DataInput in) throws IOException {
+        return in.readUTF();
+      }
+    };
+  }
+
+}
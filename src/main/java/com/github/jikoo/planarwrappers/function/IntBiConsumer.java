@@ -0,0 +1,10 @@
+package com.github.jikoo.planarwrappers.function;
+
+/**
+ * An interface accepting two {@code int} arguments. Used to pass coordinates without boxing.
+ */
+@FunctionalInterface
+public interface IntBiConsumer {
+
+  void accept(int i, int j);
+}
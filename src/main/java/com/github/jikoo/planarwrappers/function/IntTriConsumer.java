@@ -0,0 +1,10 @@
+package com.github.jikoo.planarwrappers.function;
+
+/**
+ * An interface accepting three {@code int} arguments. Used to pass coordinates without boxing.
+ */
+@FunctionalInterface
+public interface IntTriConsumer {
+
+  void accept(int i, int j, int k);
+}
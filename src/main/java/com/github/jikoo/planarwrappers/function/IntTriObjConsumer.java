@@ -0,0 +1,13 @@
+package com.github.jikoo.planarwrappers.function;
+
+/**
+ * An interface accepting three {@code int} arguments and an object. Used to pass coordinates
+ * without boxing.
+ *
+ * @param <T> the type of the object input
+ */
+@FunctionalInterface
+public interface IntTriObjConsumer<T> {
+
+  void accept(int i, int j, int k, T t);
+}
@@ -0,0 +1,250 @@
+package com.github.jikoo.planarwrappers.scheduler;
+
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A hierarchical timing wheel for expiring large numbers of elements by server tick.
+ *
+ * <p>Elements are placed into one of 64 slots on the lowest wheel that can represent their delay.
+ * Each time a higher wheel's slot comes due, its elements are redistributed to lower wheels. Each
+ * element is moved at most once per wheel, so advancing a tick costs time proportional to the
+ * number of elements expiring rather than the number of elements scheduled. Scheduling and
+ * cancelling elements are constant time.
+ *
+ * <p>Delays are capped at 2<sup>36</sup> - 1 ticks, over a century at 20 ticks per second.
+ *
+ * <p>The wheel is not thread-safe.
+ *
+ * @param <T> the type of element scheduled
+ */
+public class TimingWheel<T> {
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int LEVELS = 6;
+  private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+  @SuppressWarnings("unchecked")
+  private final @Nullable Entry<T> @NotNull [] @NotNull [] wheels =
+      (Entry<T>[][]) new Entry<?>[LEVELS][SLOTS];
+  private long tick;
+  private int size;
+
+  /**
+   * Get the current tick. The tick starts at 0 and increases each time the wheel is advanced.
+   *
+   * @return the current tick
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Get the number of scheduled elements.
+   *
+   * @return the number of scheduled elements
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schedule an element to expire after a number of ticks.
+   *
+   * @param element the element
+   * @param delay the number of ticks until the element expires; values under 1 expire the element
+   *     on the next tick
+   * @return the entry, which may be used to cancel or reschedule the element
+   */
+  public @NotNull Entry<T> schedule(@NotNull T element, long delay) {
+    Entry<T> entry = new Entry<>(element);
+    place(entry, expiryFor(delay));
+    ++size;
+    return entry;
+  }
+
+  /**
+   * Reschedule an entry to expire after a number of ticks. If the entry has expired or been
+   * cancelled, it is scheduled again.
+   *
+   * @param entry the entry
+   * @param delay the number of ticks until the element expires; values under 1 expire the element
+   *     on the next tick
+   * @throws IllegalArgumentException if the entry belongs to another wheel
+   */
+  public void reschedule(@NotNull Entry<T> entry, long delay) {
+    if (entry.wheel != null) {
+      checkOwner(entry);
+      unlink(entry);
+    } else {
+      ++size;
+    }
+    place(entry, expiryFor(delay));
+  }
+
+  /**
+   * Cancel an entry.
+   *
+   * @param entry the entry
+   * @return true if the entry was scheduled
+   * @throws IllegalArgumentException if the entry belongs to another wheel
+   */
+  public boolean cancel(@NotNull Entry<T> entry) {
+    if (entry.wheel == null) {
+      return false;
+    }
+    checkOwner(entry);
+    unlink(entry);
+    --size;
+    return true;
+  }
+
+  /**
+   * Advance the wheel by a single tick.
+   *
+   * @param expired the action to perform with each element expiring
+   */
+  public void advance(@NotNull Consumer<? super T> expired) {
+    ++tick;
+
+    // Redistribute higher wheels whose current slot just came due, highest first.
+    int level = 0;
+    while (level < LEVELS - 1 && (tick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+      ++level;
+    }
+    for (; level > 0; --level) {
+      int slot = (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+      Entry<T> entry = wheels[level][slot];
+      wheels[level][slot] = null;
+      while (entry != null) {
+        Entry<T> next = entry.next;
+        place(entry, entry.expiry);
+        entry = next;
+      }
+    }
+
+    // Entries are unlinked one at a time so that the action may safely cancel or schedule others.
+    // New entries always expire on a later tick, so they can never land in this slot.
+    int slot = (int) tick & SLOT_MASK;
+    Entry<T> entry;
+    while ((entry = wheels[0][slot]) != null) {
+      unlink(entry);
+      --size;
+      expired.accept(entry.element);
+    }
+  }
+
+  /**
+   * Advance the wheel by a number of ticks.
+   *
+   * @param ticks the number of ticks
+   * @param expired the action to perform with each element expiring
+   */
+  public void advance(long ticks, @NotNull Consumer<? super T> expired) {
+    for (long i = 0; i < ticks; ++i) {
+      advance(expired);
+    }
+  }
+
+  private long expiryFor(long delay) {
+    return tick + Math.max(1, Math.min(MAX_DELAY, delay));
+  }
+
+  /**
+   * Insert an entry into the slot for its expiry. The lowest wheel whose range covers the
+   * remaining delay is used, so the slot is always reached before the entry is due.
+   */
+  private void place(@NotNull Entry<T> entry, long expiry) {
+    long delay = expiry - tick;
+    int level = 0;
+    while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+      ++level;
+    }
+    int slot = (int) (expiry >>> (SLOT_BITS * level)) & SLOT_MASK;
+
+    entry.wheel = this;
+    entry.expiry = expiry;
+    entry.level = level;
+    entry.slot = slot;
+    entry.previous = null;
+    entry.next = wheels[level][slot];
+    if (entry.next != null) {
+      entry.next.previous = entry;
+    }
+    wheels[level][slot] = entry;
+  }
+
+  private void unlink(@NotNull Entry<T> entry) {
+    if (entry.previous == null) {
+      wheels[entry.level][entry.slot] = entry.next;
+    } else {
+      entry.previous.next = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.previous = entry.previous;
+    }
+    entry.wheel = null;
+    entry.previous = null;
+    entry.next = null;
+  }
+
+  private void checkOwner(@NotNull Entry<T> entry) {
+    if (entry.wheel != this) {
+      throw new IllegalArgumentException("Entry belongs to another wheel");
+    }
+  }
+
+  /**
+   * A scheduled element.
+   *
+   * @param <T> the type of element scheduled
+   */
+  public static final class Entry<T> {
+
+    private final @NotNull T element;
+    private @Nullable TimingWheel<T> wheel;
+    private long expiry;
+    private int level;
+    private int slot;
+    private @Nullable Entry<T> previous;
+    private @Nullable Entry<T> next;
+
+    private Entry(@NotNull T element) {
+      this.element = element;
+    }
+
+    /**
+     * Get the scheduled element.
+     *
+     * @return the element
+     */
+    public @NotNull T getElement() {
+      return element;
+    }
+
+    /**
+     * Get the tick on which the element expires or expired.
+     *
+     * @return the expiry tick
+     */
+    public long getExpiry() {
+      return expiry;
+    }
+
+    /**
+     * Check if the entry is scheduled.
+     *
+     * @return true if the entry has neither expired nor been cancelled
+     */
+    @Contract(pure = true)
+    public boolean isScheduled() {
+      return wheel != null;
+    }
+
+  }
+
+}
@@ -72,6 +72,80 @@ public final class Coords {
     return block >> 4;
   }
 
+  /**
+   * Packs chunk coordinates into a single key. The format matches Minecraft's chunk keys.
+   *
+   * @param chunkX the chunk X coordinate
+   * @param chunkZ the chunk Z coordinate
+   * @return the packed key
+   */
+  public static long packChunk(final int chunkX, final int chunkZ) {
+    return (chunkX & 0xFFFFFFFFL) | (chunkZ & 0xFFFFFFFFL) << 32;
+  }
+
+  /**
+   * Gets the chunk X coordinate from a packed chunk key.
+   *
+   * @param chunkKey the key created by {@link #packChunk(int, int)}
+   * @return the chunk X coordinate
+   */
+  public static int unpackChunkX(final long chunkKey) {
+    return (int) chunkKey;
+  }
+
+  /**
+   * Gets the chunk Z coordinate from a packed chunk key.
+   *
+   * @param chunkKey the key created by {@link #packChunk(int, int)}
+   * @return the chunk Z coordinate
+   */
+  public static int unpackChunkZ(final long chunkKey) {
+    return (int) (chunkKey >>> 32);
+  }
+
+  /**
+   * Packs block coordinates into a single key. The format matches Minecraft's block position keys:
+   * 26 bits each for X and Z and 12 bits for Y.
+   *
+   * @param x the block X coordinate
+   * @param y the block Y coordinate
+   * @param z the block Z coordinate
+   * @return the packed key
+   */
+  public static long packBlock(final int x, final int y, final int z) {
+    return (x & 0x3FFFFFFL) << 38 | (z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+  }
+
+  /**
+   * Gets the block X coordinate from a packed block key.
+   *
+   * @param blockKey the key created by {@link #packBlock(int, int, int)}
+   * @return the block X coordinate
+   */
+  public static int unpackBlockX(final long blockKey) {
+    return (int) (blockKey >> 38);
+  }
+
+  /**
+   * Gets the block Y coordinate from a packed block key.
+   *
+   * @param blockKey the key created by {@link #packBlock(int, int, int)}
+   * @return the block Y coordinate
+   */
+  public static int unpackBlockY(final long blockKey) {
+    return (int) (blockKey << 52 >> 52);
+  }
+
+  /**
+   * Gets the block Z coordinate from a packed block key.
+   *
+   * @param blockKey the key created by {@link #packBlock(int, int, int)}
+   * @return the block Z coordinate
+   */
+  public static int unpackBlockZ(final long blockKey) {
+    return (int) (blockKey << 26 >> 38);
+  }
+
   /**
    * Gets the lowest chunk coordinates of a region.
    *
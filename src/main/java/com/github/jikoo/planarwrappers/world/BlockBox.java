@@ -1,7 +1,11 @@
 package com.github.jikoo.planarwrappers.world;
 
+import com.github.jikoo.planarwrappers.function.IntBiConsumer;
+import com.github.jikoo.planarwrappers.function.IntTriConsumer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -751,6 +755,138 @@ public class BlockBox implements Cloneable {
         false);
   }
 
+  /**
+   * Get the parts of the bounding box not contained by another bounding box.
+   *
+   * <p>The result is a list of up to six disjoint bounding boxes. Slabs outside the other box on
+   * the X axis are split off first, then slabs on the Z axis, then on the Y axis, so that pieces
+   * keep their full height where possible.
+   *
+   * @param other the bounding box to subtract
+   * @return the remaining parts of the bounding box, or an empty list if none remain
+   */
+  public @NotNull List<BlockBox> subtract(@NotNull BlockBox other) {
+    List<BlockBox> parts = new ArrayList<>();
+    if (!intersects(other)) {
+      parts.add(clone());
+      return parts;
+    }
+
+    int coreMinX = this.minX;
+    int coreMaxX = this.maxX;
+    if (other.minX > coreMinX) {
+      parts.add(new BlockBox(
+          coreMinX, this.minY, this.minZ, other.minX - 1, this.maxY, this.maxZ, false));
+      coreMinX = other.minX;
+    }
+    if (other.maxX < coreMaxX) {
+      parts.add(new BlockBox(
+          other.maxX + 1, this.minY, this.minZ, coreMaxX, this.maxY, this.maxZ, false));
+      coreMaxX = other.maxX;
+    }
+
+    int coreMinZ = this.minZ;
+    int coreMaxZ = this.maxZ;
+    if (other.minZ > coreMinZ) {
+      parts.add(new BlockBox(
+          coreMinX, this.minY, coreMinZ, coreMaxX, this.maxY, other.minZ - 1, false));
+      coreMinZ = other.minZ;
+    }
+    if (other.maxZ < coreMaxZ) {
+      parts.add(new BlockBox(
+          coreMinX, this.minY, other.maxZ + 1, coreMaxX, this.maxY, coreMaxZ, false));
+      coreMaxZ = other.maxZ;
+    }
+
+    if (other.minY > this.minY) {
+      parts.add(new BlockBox(
+          coreMinX, this.minY, coreMinZ, coreMaxX, other.minY - 1, coreMaxZ, false));
+    }
+    if (other.maxY < this.maxY) {
+      parts.add(new BlockBox(
+          coreMinX, other.maxY + 1, coreMinZ, coreMaxX, this.maxY, coreMaxZ, false));
+    }
+
+    return parts;
+  }
+
+  /**
+   * Perform an action with the coordinates of each block in the bounding box.
+   *
+   * <p>Blocks are visited in horizontal layers from the bottom up. Within a layer, rows are
+   * visited along the X axis. This matches the layout of chunk storage for boxes within a single
+   * chunk section. For larger boxes, see {@link #forEachBlockBySection(IntTriConsumer)}.
+   *
+   * @param action the action to perform with the block X, Y, and Z coordinates
+   */
+  public void forEachBlock(@NotNull IntTriConsumer action) {
+    forEachBlock(this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ, action);
+  }
+
+  /**
+   * Perform an action with the coordinates of each block in the bounding box, grouped by chunk
+   * section.
+   *
+   * <p>Chunks are visited in the same order as {@link #forEachChunk(IntBiConsumer)}. Within each
+   * chunk, the sections overlapping the box are visited from the bottom up, and the blocks of each
+   * section are visited as in {@link #forEachBlock(IntTriConsumer)}. Each section is completed
+   * before the next is started, which keeps lookups in chunk-based storage local.
+   *
+   * @param action the action to perform with the block X, Y, and Z coordinates
+   */
+  public void forEachBlockBySection(@NotNull IntTriConsumer action) {
+    for (SectionCursor cursor = new SectionCursor(this); cursor.hasSection(); cursor.advance()) {
+      cursor.forEachBlock(action);
+    }
+  }
+
+  static void forEachBlock(
+      int minX,
+      int minY,
+      int minZ,
+      int maxX,
+      int maxY,
+      int maxZ,
+      @NotNull IntTriConsumer action) {
+    for (int y = minY; y <= maxY; ++y) {
+      for (int z = minZ; z <= maxZ; ++z) {
+        for (int x = minX; x <= maxX; ++x) {
+          action.accept(x, y, z);
+        }
+      }
+    }
+  }
+
+  /**
+   * Perform an action with the coordinates of each chunk overlapping the bounding box.
+   *
+   * <p>Chunks are visited in rows along the X axis.
+   *
+   * @param action the action to perform with the chunk X and Z coordinates
+   */
+  public void forEachChunk(@NotNull IntBiConsumer action) {
+    for (int chunkZ = this.minZ >> 4; chunkZ <= this.maxZ >> 4; ++chunkZ) {
+      for (int chunkX = this.minX >> 4; chunkX <= this.maxX >> 4; ++chunkX) {
+        action.accept(chunkX, chunkZ);
+      }
+    }
+  }
+
+  /**
+   * Create a {@link java.util.Spliterator Spliterator} over the blocks in the bounding box.
+   *
+   * <p>The spliterator covers the bounds at the time of creation; later changes to the bounding
+   * box do not affect it. It may be used with {@link java.util.stream.StreamSupport#longStream}
+   * to process large volumes in parallel.
+   *
+   * @return the spliterator
+   * @see BlockBoxSpliterator
+   */
+  public @NotNull BlockBoxSpliterator spliterator() {
+    return new BlockBoxSpliterator(
+        this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ);
+  }
+
   @Override
   public boolean equals(@Nullable Object o) {
     if (this == o) {
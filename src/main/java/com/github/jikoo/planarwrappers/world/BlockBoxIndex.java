@@ -0,0 +1,497 @@
+package com.github.jikoo.planarwrappers.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A spatial index of values keyed by {@link BlockBox}, answering which boxes contain a block,
+ * which boxes intersect a region, and which box is nearest to a block.
+ *
+ * <p>The index is a bounding volume hierarchy. Each box is a leaf, and each branch bounds its two
+ * children. New leaves are placed beside the sibling that grows the total surface area of the tree
+ * least, and branches are rotated on the way back up to keep the tree height balanced. Lookups
+ * descend only into branches overlapping the query, so with reasonably local boxes they visit a
+ * logarithmic number of nodes rather than every box.
+ *
+ * <p>Boxes are copied on insertion, so later changes to a {@code BlockBox} do not affect the index.
+ * The same box may be added several times with different values.
+ *
+ * @param <V> the type of value stored
+ */
+public class BlockBoxIndex<V> {
+
+  private @Nullable Node<V> root;
+  private int size;
+
+  /**
+   * Add a value for a {@link BlockBox}.
+   *
+   * @param box the bounding box
+   * @param value the value
+   */
+  public void insert(@NotNull BlockBox box, @NotNull V value) {
+    Node<V> leaf = new Node<>(box, value);
+    ++size;
+
+    if (root == null) {
+      root = leaf;
+      return;
+    }
+
+    Node<V> sibling = findSibling(leaf);
+    Node<V> oldParent = sibling.parent;
+    Node<V> parent = new Node<>();
+    parent.parent = oldParent;
+    parent.left = sibling;
+    parent.right = leaf;
+    sibling.parent = parent;
+    leaf.parent = parent;
+
+    if (oldParent == null) {
+      root = parent;
+    } else {
+      oldParent.replaceChild(sibling, parent);
+    }
+
+    // The sibling may be a tall branch, so the new branch itself may need rebalancing.
+    refitUpward(parent);
+  }
+
+  /**
+   * Remove a value for a {@link BlockBox}. If the value was added for the box more than once, only
+   * one mapping is removed.
+   *
+   * @param box the bounding box
+   * @param value the value
+   * @return true if a mapping was removed
+   */
+  public boolean remove(@NotNull BlockBox box, @NotNull V value) {
+    Node<V> leaf = findLeaf(root, box, value);
+    if (leaf == null) {
+      return false;
+    }
+
+    --size;
+    Node<V> parent = leaf.parent;
+    if (parent == null) {
+      root = null;
+      return true;
+    }
+
+    Node<V> sibling = parent.left == leaf ? parent.right : parent.left;
+    Node<V> grandparent = parent.parent;
+    sibling.parent = grandparent;
+    if (grandparent == null) {
+      root = sibling;
+    } else {
+      grandparent.replaceChild(parent, sibling);
+      refitUpward(grandparent);
+    }
+    return true;
+  }
+
+  /**
+   * Get all values whose boxes contain the block at the coordinates specified.
+   *
+   * @param x the X coordinate of the block
+   * @param y the Y coordinate of the block
+   * @param z the Z coordinate of the block
+   * @return the values
+   */
+  public @NotNull List<V> query(int x, int y, int z) {
+    List<V> values = new ArrayList<>();
+    if (root != null) {
+      query(root, x, y, z, values);
+    }
+    return values;
+  }
+
+  /**
+   * Get all values whose boxes contain a {@link Block}.
+   *
+   * @param block the block
+   * @return the values
+   */
+  public @NotNull List<V> query(@NotNull Block block) {
+    return query(block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get all values whose boxes intersect a {@link BlockBox}.
+   *
+   * @param box the bounding box
+   * @return the values
+   */
+  public @NotNull List<V> intersecting(@NotNull BlockBox box) {
+    List<V> values = new ArrayList<>();
+    if (root != null) {
+      intersecting(
+          root,
+          box.getMinX(), box.getMinY(), box.getMinZ(),
+          box.getMaxX(), box.getMaxY(), box.getMaxZ(),
+          values);
+    }
+    return values;
+  }
+
+  /**
+   * Get the value whose box is nearest to the block at the coordinates specified. Distance is
+   * measured from the block to the nearest block in each box, so any box containing the block is
+   * at distance zero. Ties are broken arbitrarily.
+   *
+   * @param x the X coordinate of the block
+   * @param y the Y coordinate of the block
+   * @param z the Z coordinate of the block
+   * @return the nearest value or {@code null} if the index is empty
+   */
+  public @Nullable V nearest(int x, int y, int z) {
+    if (root == null) {
+      return null;
+    }
+    Nearest<V> nearest = new Nearest<>(x, y, z);
+    nearest.search(root);
+    return nearest.value;
+  }
+
+  /**
+   * Get the value whose box is nearest to a {@link Block}.
+   *
+   * @param block the block
+   * @return the nearest value or {@code null} if the index is empty
+   * @see #nearest(int, int, int)
+   */
+  public @Nullable V nearest(@NotNull Block block) {
+    return nearest(block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Get the number of mappings in the index.
+   *
+   * @return the number of mappings
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if the index contains no mappings.
+   *
+   * @return true if the index is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Remove all mappings from the index.
+   */
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  /**
+   * Get the height of the tree. An empty index has height -1 and a single box has height 0.
+   *
+   * @return the height of the tree
+   */
+  int height() {
+    return root == null ? -1 : root.height;
+  }
+
+  /**
+   * Check that the children of every branch differ in height by at most one.
+   *
+   * @return true if the tree is balanced
+   */
+  boolean isBalanced() {
+    return root == null || isBalanced(root);
+  }
+
+  private static <V> boolean isBalanced(@NotNull Node<V> node) {
+    return node.isLeaf()
+        || Math.abs(node.left.height - node.right.height) <= 1
+        && isBalanced(node.left)
+        && isBalanced(node.right);
+  }
+
+  /**
+   * Descend from the root towards the node whose pairing with the new leaf adds the least surface
+   * area. A new branch costs the area of its bounds, and each existing branch it passes under must
+   * grow to include the leaf.
+   */
+  private @NotNull Node<V> findSibling(@NotNull Node<V> leaf) {
+    Node<V> node = Objects.requireNonNull(root);
+    while (!node.isLeaf()) {
+      long combined = Node.unionArea(node, leaf);
+      long cost = 2 * combined;
+      long inherited = 2 * (combined - node.area());
+      long leftCost = descendCost(node.left, leaf) + inherited;
+      long rightCost = descendCost(node.right, leaf) + inherited;
+
+      if (cost < leftCost && cost < rightCost) {
+        break;
+      }
+      node = leftCost < rightCost ? node.left : node.right;
+    }
+    return node;
+  }
+
+  private static <V> long descendCost(@NotNull Node<V> child, @NotNull Node<V> leaf) {
+    long combined = Node.unionArea(child, leaf);
+    return child.isLeaf() ? combined : combined - child.area();
+  }
+
+  /** Refit and rebalance each branch from a node up to the root. */
+  private void refitUpward(@Nullable Node<V> node) {
+    while (node != null) {
+      node = balance(node);
+      node = node.parent;
+    }
+  }
+
+  /**
+   * Rotate a branch if one child is more than one level taller than the other.
+   *
+   * @return the node now occupying the branch's position
+   */
+  private @NotNull Node<V> balance(@NotNull Node<V> node) {
+    int balance = node.right.height - node.left.height;
+    if (balance > 1) {
+      return rotate(node, node.right);
+    }
+    if (balance < -1) {
+      return rotate(node, node.left);
+    }
+    node.refit();
+    return node;
+  }
+
+  /**
+   * Promote a child into its parent's position. The child's taller child stays with it and the
+   * shorter one takes the child's former place under the parent. If the demoted parent is still
+   * unbalanced, it is rebalanced in turn.
+   */
+  private @NotNull Node<V> rotate(@NotNull Node<V> node, @NotNull Node<V> child) {
+    Node<V> taller = child.left.height > child.right.height ? child.left : child.right;
+    Node<V> shorter = taller == child.left ? child.right : child.left;
+
+    Node<V> parent = node.parent;
+    child.parent = parent;
+    if (parent == null) {
+      root = child;
+    } else {
+      parent.replaceChild(node, child);
+    }
+
+    node.replaceChild(child, shorter);
+    shorter.parent = node;
+    node.parent = child;
+    child.left = node;
+    child.right = taller;
+
+    balance(node);
+    child.refit();
+    return child;
+  }
+
+  private static <V> @Nullable Node<V> findLeaf(
+      @Nullable Node<V> node,
+      @NotNull BlockBox box,
+      @NotNull V value) {
+    if (node == null || !node.contains(box)) {
+      return null;
+    }
+    if (node.isLeaf()) {
+      return node.matches(box) && value.equals(node.value) ? node : null;
+    }
+    Node<V> leaf = findLeaf(node.left, box, value);
+    return leaf != null ? leaf : findLeaf(node.right, box, value);
+  }
+
+  private static <V> void query(@NotNull Node<V> node, int x, int y, int z, List<V> values) {
+    if (!node.contains(x, y, z)) {
+      return;
+    }
+    if (node.isLeaf()) {
+      values.add(node.value);
+      return;
+    }
+    query(node.left, x, y, z, values);
+    query(node.right, x, y, z, values);
+  }
+
+  private static <V> void intersecting(
+      @NotNull Node<V> node,
+      int minX, int minY, int minZ,
+      int maxX, int maxY, int maxZ,
+      @NotNull List<V> values) {
+    if (!node.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+      return;
+    }
+    if (node.isLeaf()) {
+      values.add(node.value);
+      return;
+    }
+    intersecting(node.left, minX, minY, minZ, maxX, maxY, maxZ, values);
+    intersecting(node.right, minX, minY, minZ, maxX, maxY, maxZ, values);
+  }
+
+  /** Branch and bound search for the leaf nearest a block, visiting nearer children first. */
+  private static final class Nearest<V> {
+
+    private final int x;
+    private final int y;
+    private final int z;
+    private long distance = Long.MAX_VALUE;
+    private @Nullable V value;
+
+    private Nearest(int x, int y, int z) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+
+    private void search(@NotNull Node<V> node) {
+      if (node.isLeaf()) {
+        long leafDistance = node.distanceSquared(x, y, z);
+        if (leafDistance < distance) {
+          distance = leafDistance;
+          value = node.value;
+        }
+        return;
+      }
+
+      long leftDistance = node.left.distanceSquared(x, y, z);
+      long rightDistance = node.right.distanceSquared(x, y, z);
+      if (leftDistance <= rightDistance) {
+        visit(node.left, leftDistance);
+        visit(node.right, rightDistance);
+      } else {
+        visit(node.right, rightDistance);
+        visit(node.left, leftDistance);
+      }
+    }
+
+    private void visit(@NotNull Node<V> node, long nodeDistance) {
+      if (nodeDistance < distance) {
+        search(node);
+      }
+    }
+
+  }
+
+  /**
+   * A node of the tree. Leaves hold a box and value; branches hold two children and the bounds
+   * enclosing both.
+   */
+  private static final class Node<V> {
+
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+    private int height;
+    private Node<V> parent;
+    private Node<V> left;
+    private Node<V> right;
+    private V value;
+
+    private Node() {}
+
+    private Node(@NotNull BlockBox box, @NotNull V value) {
+      this.minX = box.getMinX();
+      this.minY = box.getMinY();
+      this.minZ = box.getMinZ();
+      this.maxX = box.getMaxX();
+      this.maxY = box.getMaxY();
+      this.maxZ = box.getMaxZ();
+      this.value = value;
+    }
+
+    private boolean isLeaf() {
+      return left == null;
+    }
+
+    private void replaceChild(@NotNull Node<V> oldChild, @NotNull Node<V> newChild) {
+      if (left == oldChild) {
+        left = newChild;
+      } else {
+        right = newChild;
+      }
+    }
+
+    private void refit() {
+      minX = Math.min(left.minX, right.minX);
+      minY = Math.min(left.minY, right.minY);
+      minZ = Math.min(left.minZ, right.minZ);
+      maxX = Math.max(left.maxX, right.maxX);
+      maxY = Math.max(left.maxY, right.maxY);
+      maxZ = Math.max(left.maxZ, right.maxZ);
+      height = 1 + Math.max(left.height, right.height);
+    }
+
+    private boolean contains(int x, int y, int z) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    private boolean contains(@NotNull BlockBox box) {
+      return box.getMinX() >= minX && box.getMaxX() <= maxX
+          && box.getMinY() >= minY && box.getMaxY() <= maxY
+          && box.getMinZ() >= minZ && box.getMaxZ() <= maxZ;
+    }
+
+    private boolean matches(@NotNull BlockBox box) {
+      return box.getMinX() == minX && box.getMaxX() == maxX
+          && box.getMinY() == minY && box.getMaxY() == maxY
+          && box.getMinZ() == minZ && box.getMaxZ() == maxZ;
+    }
+
+    private boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+      return minX <= this.maxX && maxX >= this.minX
+          && minY <= this.maxY && maxY >= this.minY
+          && minZ <= this.maxZ && maxZ >= this.minZ;
+    }
+
+    private long distanceSquared(int x, int y, int z) {
+      long dx = axisDistance(x, minX, maxX);
+      long dy = axisDistance(y, minY, maxY);
+      long dz = axisDistance(z, minZ, maxZ);
+      return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static long axisDistance(int value, int min, int max) {
+      if (value < min) {
+        return (long) min - value;
+      }
+      if (value > max) {
+        return (long) value - max;
+      }
+      return 0;
+    }
+
+    /** Half the surface area of the bounds, which orders candidates the same as the full area. */
+    private long area() {
+      return area(maxX - (long) minX + 1, maxY - (long) minY + 1, maxZ - (long) minZ + 1);
+    }
+
+    private static <V> long unionArea(@NotNull Node<V> a, @NotNull Node<V> b) {
+      return area(
+          Math.max(a.maxX, b.maxX) - (long) Math.min(a.minX, b.minX) + 1,
+          Math.max(a.maxY, b.maxY) - (long) Math.min(a.minY, b.minY) + 1,
+          Math.max(a.maxZ, b.maxZ) - (long) Math.min(a.minZ, b.minZ) + 1);
+    }
+
+    private static long area(long length, long height, long width) {
+      return length * height + height * width + width * length;
+    }
+
+  }
+
+}
@@ -0,0 +1,329 @@
+package com.github.jikoo.planarwrappers.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+/**
+ * A set of blocks represented as a list of disjoint {@link BlockBox BlockBoxes}.
+ *
+ * <p>Unlike a list of possibly overlapping boxes, a set supports subtraction and reports its exact
+ * volume. After each change, boxes sharing a full face are merged so that the number of boxes
+ * stays small. Merging is greedy, so the number of boxes is not guaranteed to be minimal.
+ *
+ * <p>Lookups test each box in turn. For sets of many boxes that are queried often, index the
+ * boxes instead.
+ */
+public class BlockBoxSet {
+
+  private final List<BlockBox> boxes = new ArrayList<>();
+  private long volume;
+
+  /**
+   * Add all blocks in a {@link BlockBox} to the set.
+   *
+   * @param box the bounding box to add
+   */
+  public void add(@NotNull BlockBox box) {
+    List<BlockBox> parts = new ArrayList<>();
+    parts.add(box.clone());
+    for (BlockBox existing : boxes) {
+      if (!existing.intersects(box)) {
+        continue;
+      }
+      List<BlockBox> remaining = new ArrayList<>();
+      for (BlockBox part : parts) {
+        remaining.addAll(part.subtract(existing));
+      }
+      parts = remaining;
+      if (parts.isEmpty()) {
+        return;
+      }
+    }
+
+    for (BlockBox part : parts) {
+      insert(part);
+    }
+  }
+
+  /**
+   * Add all blocks in another set to the set.
+   *
+   * @param other the set to add
+   */
+  public void add(@NotNull BlockBoxSet other) {
+    if (other == this) {
+      return;
+    }
+    for (BlockBox box : other.boxes) {
+      add(box);
+    }
+  }
+
+  /**
+   * Remove all blocks in a {@link BlockBox} from the set.
+   *
+   * @param box the bounding box to remove
+   */
+  public void subtract(@NotNull BlockBox box) {
+    List<BlockBox> affected = new ArrayList<>();
+    for (int index = boxes.size() - 1; index >= 0; --index) {
+      BlockBox existing = boxes.get(index);
+      if (existing.intersects(box)) {
+        affected.add(existing);
+        volume -= volume(existing);
+        removeAt(index);
+      }
+    }
+
+    for (BlockBox existing : affected) {
+      for (BlockBox part : existing.subtract(box)) {
+        insert(part);
+      }
+    }
+  }
+
+  /**
+   * Remove all blocks in another set from the set.
+   *
+   * @param other the set to remove
+   */
+  public void subtract(@NotNull BlockBoxSet other) {
+    if (other == this) {
+      clear();
+      return;
+    }
+    for (BlockBox box : other.boxes) {
+      subtract(box);
+    }
+  }
+
+  /**
+   * Remove all blocks not in a {@link BlockBox} from the set.
+   *
+   * @param box the bounding box to retain
+   */
+  public void intersect(@NotNull BlockBox box) {
+    List<BlockBox> retained = new ArrayList<>();
+    for (BlockBox existing : boxes) {
+      BlockBox intersection = existing.intersection(box);
+      if (intersection != null) {
+        retained.add(intersection);
+      }
+    }
+    replace(retained);
+  }
+
+  /**
+   * Remove all blocks not in another set from the set.
+   *
+   * @param other the set to retain
+   */
+  public void intersect(@NotNull BlockBoxSet other) {
+    if (other == this) {
+      return;
+    }
+    // Both sets are disjoint, so the pairwise intersections are too.
+    List<BlockBox> retained = new ArrayList<>();
+    for (BlockBox existing : boxes) {
+      for (BlockBox box : other.boxes) {
+        BlockBox intersection = existing.intersection(box);
+        if (intersection != null) {
+          retained.add(intersection);
+        }
+      }
+    }
+    replace(retained);
+  }
+
+  /**
+   * Check if the set contains the block at the coordinates specified.
+   *
+   * @param x the X coordinate of the block
+   * @param y the Y coordinate of the block
+   * @param z the Z coordinate of the block
+   * @return true if the block is in the set
+   */
+  public boolean contains(int x, int y, int z) {
+    for (BlockBox box : boxes) {
+      if (box.contains(x, y, z)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if the set contains a {@link Block}.
+   *
+   * @param block the block
+   * @return true if the block is in the set
+   */
+  public boolean contains(@NotNull Block block) {
+    return contains(block.getX(), block.getY(), block.getZ());
+  }
+
+  /**
+   * Check if the set contains every block in a {@link BlockBox}.
+   *
+   * @param box the bounding box
+   * @return true if all blocks in the bounding box are in the set
+   */
+  public boolean contains(@NotNull BlockBox box) {
+    long contained = 0;
+    for (BlockBox existing : boxes) {
+      BlockBox intersection = existing.intersection(box);
+      if (intersection != null) {
+        contained += volume(intersection);
+      }
+    }
+    return contained == volume(box);
+  }
+
+  /**
+   * Check if the set contains any block in a {@link BlockBox}.
+   *
+   * @param box the bounding box
+   * @return true if any block in the bounding box is in the set
+   */
+  public boolean intersects(@NotNull BlockBox box) {
+    for (BlockBox existing : boxes) {
+      if (existing.intersects(box)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the number of blocks in the set.
+   *
+   * @return the number of blocks
+   */
+  public long volume() {
+    return volume;
+  }
+
+  /**
+   * Get the number of disjoint boxes making up the set.
+   *
+   * @return the number of boxes
+   */
+  public int size() {
+    return boxes.size();
+  }
+
+  /**
+   * Check if the set contains no blocks.
+   *
+   * @return true if the set is empty
+   */
+  public boolean isEmpty() {
+    return boxes.isEmpty();
+  }
+
+  /**
+   * Get copies of the disjoint boxes making up the set.
+   *
+   * @return the boxes
+   */
+  public @NotNull @Unmodifiable List<BlockBox> getBoxes() {
+    List<BlockBox> copies = new ArrayList<>(boxes.size());
+    for (BlockBox box : boxes) {
+      copies.add(box.clone());
+    }
+    return Collections.unmodifiableList(copies);
+  }
+
+  /**
+   * Get the smallest bounding box containing the set.
+   *
+   * @return the bounds or {@code null} if the set is empty
+   */
+  public @Nullable BlockBox getBounds() {
+    if (boxes.isEmpty()) {
+      return null;
+    }
+    BlockBox bounds = boxes.get(0).clone();
+    for (int index = 1; index < boxes.size(); ++index) {
+      bounds.union(boxes.get(index));
+    }
+    return bounds;
+  }
+
+  /**
+   * Remove all blocks from the set.
+   */
+  public void clear() {
+    boxes.clear();
+    volume = 0;
+  }
+
+  private void replace(@NotNull List<BlockBox> disjoint) {
+    clear();
+    for (BlockBox box : disjoint) {
+      insert(box);
+    }
+  }
+
+  /**
+   * Insert a box known not to overlap the set, merging it with any boxes sharing a full face. The
+   * volume of merged boxes is already counted, so only the new box adds to the total.
+   */
+  private void insert(@NotNull BlockBox box) {
+    volume += volume(box);
+    BlockBox current = box;
+    boolean merged;
+    do {
+      merged = false;
+      for (int index = 0; index < boxes.size(); ++index) {
+        BlockBox union = merge(current, boxes.get(index));
+        if (union != null) {
+          removeAt(index);
+          current = union;
+          merged = true;
+          break;
+        }
+      }
+    } while (merged);
+    boxes.add(current);
+  }
+
+  private void removeAt(int index) {
+    int last = boxes.size() - 1;
+    boxes.set(index, boxes.get(last));
+    boxes.remove(last);
+  }
+
+  /**
+   * Merge two disjoint boxes if their union is also a box.
+   *
+   * @return the union or {@code null} if the boxes do not share a full face
+   */
+  private static @Nullable BlockBox merge(@NotNull BlockBox a, @NotNull BlockBox b) {
+    boolean sameX = a.getMinX() == b.getMinX() && a.getMaxX() == b.getMaxX();
+    boolean sameY = a.getMinY() == b.getMinY() && a.getMaxY() == b.getMaxY();
+    boolean sameZ = a.getMinZ() == b.getMinZ() && a.getMaxZ() == b.getMaxZ();
+    if (sameY && sameZ && adjacent(a.getMinX(), a.getMaxX(), b.getMinX(), b.getMaxX())
+        || sameX && sameZ && adjacent(a.getMinY(), a.getMaxY(), b.getMinY(), b.getMaxY())
+        || sameX && sameY && adjacent(a.getMinZ(), a.getMaxZ(), b.getMinZ(), b.getMaxZ())) {
+      BlockBox union = a.clone();
+      union.union(b);
+      return union;
+    }
+    return null;
+  }
+
+  private static boolean adjacent(int minA, int maxA, int minB, int maxB) {
+    return maxA + 1 == minB || maxB + 1 == minA;
+  }
+
+  private static long volume(@NotNull BlockBox box) {
+    return (long) box.getLength() * box.getHeight() * box.getWidth();
+  }
+
+}
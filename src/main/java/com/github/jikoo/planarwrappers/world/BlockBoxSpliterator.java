@@ -0,0 +1,172 @@
+package com.github.jikoo.planarwrappers.world;
+
+import com.github.jikoo.planarwrappers.function.IntTriConsumer;
+import com.github.jikoo.planarwrappers.util.Coords;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link Spliterator} over the blocks contained by a {@link BlockBox}.
+ *
+ * <p>Blocks are reported as keys created by {@link Coords#packBlock(int, int, int)}, or directly
+ * as coordinates via {@link #tryAdvance(IntTriConsumer)} and
+ * {@link #forEachRemaining(IntTriConsumer)}.
+ * Traversal visits X innermost, then Z, then Y, matching the layout of chunk storage.
+ *
+ * <p>Splitting halves the box along its longest axis. Splits along the X and Z axes are aligned to
+ * chunk boundaries where possible so that parallel workers rarely share chunks. As halves along
+ * the X and Z axes do not form a prefix of the traversal order, the spliterator is not
+ * {@link Spliterator#ORDERED ORDERED}. Once traversal has begun, the spliterator no longer splits.
+ */
+public final class BlockBoxSpliterator implements Spliterator.OfLong {
+
+  private static final int CHUNK_ALIGN_THRESHOLD = 32;
+
+  private int minX;
+  private int minY;
+  private int minZ;
+  private int maxX;
+  private int maxY;
+  private int maxZ;
+  private int x;
+  private int y;
+  private int z;
+  private long remaining;
+
+  BlockBoxSpliterator(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    reset(minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  private void reset(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    this.minX = minX;
+    this.minY = minY;
+    this.minZ = minZ;
+    this.maxX = maxX;
+    this.maxY = maxY;
+    this.maxZ = maxZ;
+    this.x = minX;
+    this.y = minY;
+    this.z = minZ;
+    this.remaining = volume();
+  }
+
+  private long volume() {
+    return ((long) maxX - minX + 1) * ((long) maxY - minY + 1) * ((long) maxZ - minZ + 1);
+  }
+
+  /**
+   * Perform an action with the coordinates of the next block, if any.
+   *
+   * @param action the action to perform with the block X, Y, and Z coordinates
+   * @return false if no blocks remained
+   */
+  public boolean tryAdvance(@NotNull IntTriConsumer action) {
+    if (remaining == 0) {
+      return false;
+    }
+    action.accept(x, y, z);
+    --remaining;
+    if (x < maxX) {
+      ++x;
+    } else {
+      x = minX;
+      if (z < maxZ) {
+        ++z;
+      } else {
+        z = minZ;
+        ++y;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Perform an action with the coordinates of each remaining block.
+   *
+   * @param action the action to perform with the block X, Y, and Z coordinates
+   */
+  public void forEachRemaining(@NotNull IntTriConsumer action) {
+    if (remaining == 0) {
+      return;
+    }
+    // Mark traversal complete first so that the action cannot observe blocks twice.
+    remaining = 0;
+    int localX = x;
+    int localZ = z;
+    for (int localY = y; localY <= maxY; ++localY) {
+      for (; localZ <= maxZ; ++localZ) {
+        for (; localX <= maxX; ++localX) {
+          action.accept(localX, localY, localZ);
+        }
+        localX = minX;
+      }
+      localZ = minZ;
+    }
+  }
+
+  @Override
+  public boolean tryAdvance(@NotNull LongConsumer action) {
+    return tryAdvance((blockX, blockY, blockZ) ->
+        action.accept(Coords.packBlock(blockX, blockY, blockZ)));
+  }
+
+  @Override
+  public void forEachRemaining(@NotNull LongConsumer action) {
+    forEachRemaining((blockX, blockY, blockZ) ->
+        action.accept(Coords.packBlock(blockX, blockY, blockZ)));
+  }
+
+  @Override
+  public @Nullable BlockBoxSpliterator trySplit() {
+    if (remaining < 2 || remaining != volume()) {
+      return null;
+    }
+
+    int lengthX = maxX - minX + 1;
+    int lengthY = maxY - minY + 1;
+    int lengthZ = maxZ - minZ + 1;
+
+    // Prefer splitting into horizontal slabs so that rows stay long.
+    BlockBoxSpliterator prefix;
+    if (lengthY >= lengthX && lengthY >= lengthZ) {
+      int split = minY + lengthY / 2;
+      prefix = new BlockBoxSpliterator(minX, minY, minZ, maxX, split - 1, maxZ);
+      reset(minX, split, minZ, maxX, maxY, maxZ);
+    } else if (lengthZ >= lengthX) {
+      int split = splitPoint(minZ, lengthZ);
+      prefix = new BlockBoxSpliterator(minX, minY, minZ, maxX, maxY, split - 1);
+      reset(minX, minY, split, maxX, maxY, maxZ);
+    } else {
+      int split = splitPoint(minX, lengthX);
+      prefix = new BlockBoxSpliterator(minX, minY, minZ, split - 1, maxY, maxZ);
+      reset(split, minY, minZ, maxX, maxY, maxZ);
+    }
+    return prefix;
+  }
+
+  /**
+   * Get the first coordinate of the upper half of a horizontal axis. If the axis is long enough,
+   * the midpoint is rounded down to a chunk boundary.
+   */
+  private static int splitPoint(int min, int length) {
+    int split = min + length / 2;
+    if (length >= CHUNK_ALIGN_THRESHOLD) {
+      // At least 16 blocks remain below the midpoint, so the aligned point stays above the minimum.
+      split &= ~0xF;
+    }
+    return split;
+  }
+
+  @Override
+  public long estimateSize() {
+    return remaining;
+  }
+
+  @Override
+  public int characteristics() {
+    return SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+  }
+
+}
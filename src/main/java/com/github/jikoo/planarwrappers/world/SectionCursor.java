@@ -0,0 +1,113 @@
+package com.github.jikoo.planarwrappers.world;
+
+import com.github.jikoo.planarwrappers.function.IntTriConsumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cursor over the parts of a {@link BlockBox} within each chunk section.
+ *
+ * <p>Chunks are visited in rows along the X axis. Within each chunk, the sections overlapping the
+ * box are visited from the bottom up. Every section of a chunk is therefore visited before the next
+ * chunk is started.
+ */
+final class SectionCursor {
+
+  private final int minX;
+  private final int minY;
+  private final int minZ;
+  private final int maxX;
+  private final int maxY;
+  private final int maxZ;
+  private int chunkX;
+  private int chunkZ;
+  private int sectionY;
+
+  /**
+   * Construct a new {@code SectionCursor} positioned at the first section of a box. Later changes
+   * to the box do not affect the cursor.
+   *
+   * @param box the bounding box
+   */
+  SectionCursor(@NotNull BlockBox box) {
+    this.minX = box.getMinX();
+    this.minY = box.getMinY();
+    this.minZ = box.getMinZ();
+    this.maxX = box.getMaxX();
+    this.maxY = box.getMaxY();
+    this.maxZ = box.getMaxZ();
+    this.chunkX = minX >> 4;
+    this.chunkZ = minZ >> 4;
+    this.sectionY = minY >> 4;
+  }
+
+  /**
+   * Check if the cursor is positioned at a section.
+   *
+   * @return false if all sections have been passed
+   */
+  boolean hasSection() {
+    return chunkZ <= maxZ >> 4;
+  }
+
+  /**
+   * Move to the next section.
+   */
+  void advance() {
+    if (sectionY < maxY >> 4) {
+      ++sectionY;
+      return;
+    }
+    sectionY = minY >> 4;
+    if (chunkX < maxX >> 4) {
+      ++chunkX;
+    } else {
+      chunkX = minX >> 4;
+      ++chunkZ;
+    }
+  }
+
+  /**
+   * Perform an action with the coordinates of each block in the box within the current section.
+   * Blocks are visited as in {@link BlockBox#forEachBlock(IntTriConsumer)}.
+   *
+   * @param action the action to perform with the block X, Y, and Z coordinates
+   */
+  void forEachBlock(@NotNull IntTriConsumer action) {
+    BlockBox.forEachBlock(
+        getMinX(), getMinY(), getMinZ(), getMaxX(), getMaxY(), getMaxZ(), action);
+  }
+
+  /**
+   * Get the number of blocks in the box within the current section.
+   *
+   * @return the number of blocks
+   */
+  int getVolume() {
+    return (getMaxX() - getMinX() + 1) * (getMaxY() - getMinY() + 1) * (getMaxZ() - getMinZ() + 1);
+  }
+
+  private int getMinX() {
+    return Math.max(minX, chunkX << 4);
+  }
+
+  private int getMinY() {
+    return Math.max(minY, sectionY << 4);
+  }
+
+  private int getMinZ() {
+    return Math.max(minZ, chunkZ << 4);
+  }
+
+  private int getMaxX() {
+    return Math.min(maxX, chunkX << 4 | 0xF);
+  }
+
+  private int getMaxY() {
+    return Math.min(maxY, sectionY << 4 | 0xF);
+  }
+
+  private int getMaxZ() {
+    return Math.min(maxZ, chunkZ << 4 | 0xF);
+  }
+
+}
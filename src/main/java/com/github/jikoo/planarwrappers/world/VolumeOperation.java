@@ -0,0 +1,103 @@
+package com.github.jikoo.planarwrappers.world;
+
+import java.util.Set;
+import java.util.function.Predicate;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An operation applied to each block in a volume by a {@link VolumeTask}.
+ *
+ * <p>Operations accumulate their result as blocks are visited, so each instance should only be used
+ * for a single task.
+ *
+ * @param <R> the type of result
+ */
+public interface VolumeOperation<R> {
+
+  /**
+   * Apply the operation to a block.
+   *
+   * @param block the block
+   */
+  void apply(@NotNull Block block);
+
+  /**
+   * Get the result of the operation once all blocks have been visited.
+   *
+   * @return the result
+   */
+  @NotNull R getResult();
+
+  /**
+   * Create an operation setting every block to the specified {@link BlockData}. Physics are not
+   * applied so that neighbouring blocks are not disturbed while the volume is partially filled.
+   *
+   * @param data the data to set
+   * @return the operation, resulting in the number of blocks set
+   */
+  @Contract("_ -> new")
+  static @NotNull VolumeOperation<Long> fill(@NotNull BlockData data) {
+    return replace(block -> true, data);
+  }
+
+  /**
+   * Create an operation setting blocks matching a filter to the specified {@link BlockData}.
+   * Physics are not applied so that neighbouring blocks are not disturbed while the volume is
+   * partially filled.
+   *
+   * @param filter the filter for blocks to replace
+   * @param data the data to set
+   * @return the operation, resulting in the number of blocks replaced
+   */
+  @Contract("_, _ -> new")
+  static @NotNull VolumeOperation<Long> replace(
+      @NotNull Predicate<@NotNull Block> filter,
+      @NotNull BlockData data) {
+    return new VolumeOperation<>() {
+      private long replaced;
+
+      @Override
+      public void apply(@NotNull Block block) {
+        if (filter.test(block)) {
+          block.setBlockData(data, false);
+          ++replaced;
+        }
+      }
+
+      @Override
+      public @NotNull Long getResult() {
+        return replaced;
+      }
+    };
+  }
+
+  /**
+   * Create an operation counting blocks of the specified types.
+   *
+   * @param materials the types of block to count
+   * @return the operation, resulting in the number of matching blocks
+   */
+  @Contract("_ -> new")
+  static @NotNull VolumeOperation<Long> count(@NotNull Set<@NotNull Material> materials) {
+    return new VolumeOperation<>() {
+      private long count;
+
+      @Override
+      public void apply(@NotNull Block block) {
+        if (materials.contains(block.getType())) {
+          ++count;
+        }
+      }
+
+      @Override
+      public @NotNull Long getResult() {
+        return count;
+      }
+    };
+  }
+
+}
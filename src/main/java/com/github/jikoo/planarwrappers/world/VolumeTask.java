@@ -0,0 +1,176 @@
+package com.github.jikoo.planarwrappers.world;
+
+import com.github.jikoo.planarwrappers.function.IntTriConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A task applying a {@link VolumeOperation} to every block in a {@link BlockBox} over several
+ * server ticks.
+ *
+ * <p>Work is divided into chunk sections, the parts of the box within each 16x16x16 section of a
+ * chunk. Each tick, sections are processed until the time budget is spent. At least one section is
+ * always processed so that the task makes progress however small the budget. Every section of a
+ * chunk is completed before the next chunk is started, so each chunk is only loaded once.
+ *
+ * <p>Progress may be polled each tick, and the result is delivered through a
+ * {@link CompletableFuture}. If the operation throws an exception, the task stops and the future
+ * completes exceptionally. Cancelling the future stops the task.
+ *
+ * <p>The task must be advanced on the main thread, either manually via {@link #tick()} or by
+ * scheduling it with {@link #schedule(Plugin)}.
+ *
+ * @param <R> the type of result
+ */
+public class VolumeTask<R> {
+
+  private final @NotNull VolumeOperation<R> operation;
+  private final @NotNull IntTriConsumer applyToBlock;
+  private final long budgetNanos;
+  private final long totalBlocks;
+  private final @NotNull CompletableFuture<R> future = new CompletableFuture<>();
+  private final @NotNull SectionCursor cursor;
+  private long processedBlocks;
+  private int taskId = -1;
+
+  /**
+   * Construct a new {@code VolumeTask}.
+   *
+   * @param world the world containing the volume
+   * @param box the volume; later changes to the box do not affect the task
+   * @param operation the operation to apply to each block
+   * @param budget the maximum time to spend per tick
+   * @param budgetUnit the {@link TimeUnit} of the budget
+   * @throws IllegalArgumentException if the budget is not positive
+   */
+  public VolumeTask(
+      @NotNull World world,
+      @NotNull BlockBox box,
+      @NotNull VolumeOperation<R> operation,
+      long budget,
+      @NotNull TimeUnit budgetUnit) {
+    this.budgetNanos = budgetUnit.toNanos(budget);
+    if (budgetNanos <= 0) {
+      throw new IllegalArgumentException("Budget must be positive");
+    }
+    this.operation = operation;
+    this.applyToBlock = (x, y, z) -> operation.apply(world.getBlockAt(x, y, z));
+    this.totalBlocks = (long) box.getLength() * box.getHeight() * box.getWidth();
+    this.cursor = new SectionCursor(box);
+  }
+
+  /**
+   * Get the future completed with the result of the operation.
+   *
+   * @return the future
+   */
+  public @NotNull CompletableFuture<R> getFuture() {
+    return future;
+  }
+
+  /**
+   * Get the number of blocks the operation has been applied to.
+   *
+   * @return the number of blocks processed
+   */
+  public long getProcessedBlocks() {
+    return processedBlocks;
+  }
+
+  /**
+   * Get the number of blocks in the volume.
+   *
+   * @return the total number of blocks
+   */
+  public long getTotalBlocks() {
+    return totalBlocks;
+  }
+
+  /**
+   * Get the fraction of blocks the operation has been applied to.
+   *
+   * @return the progress, from {@code 0} to {@code 1}
+   */
+  public double getProgress() {
+    return (double) processedBlocks / totalBlocks;
+  }
+
+  /**
+   * Process sections until the time budget is spent or the volume is complete.
+   */
+  public void tick() {
+    if (future.isDone()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      do {
+        if (!processSection()) {
+          future.complete(operation.getResult());
+          return;
+        }
+      } while (System.nanoTime() - start < budgetNanos);
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Apply the operation to the next section.
+   *
+   * @return false if no sections remain afterwards
+   */
+  private boolean processSection() {
+    cursor.forEachBlock(applyToBlock);
+    processedBlocks += cursor.getVolume();
+    cursor.advance();
+    return cursor.hasSection();
+  }
+
+  /**
+   * Schedule the task to tick with the Bukkit scheduler. The task is cancelled automatically once
+   * the future is done.
+   *
+   * @param plugin the plugin scheduling the task
+   * @return the same task instance
+   */
+  @Contract("_ -> this")
+  public @NotNull VolumeTask<R> schedule(@NotNull Plugin plugin) {
+    if (taskId != -1) {
+      cancelTask(plugin);
+    }
+
+    taskId = plugin.getServer().getScheduler().scheduleSyncRepeatingTask(plugin, () -> {
+      tick();
+      if (future.isDone()) {
+        cancelTask(plugin);
+      }
+    }, 1, 1);
+
+    return this;
+  }
+
+  /**
+   * Cancel the task scheduled with the Bukkit scheduler. If the operation is not complete, the
+   * future is cancelled.
+   *
+   * @param plugin the plugin cancelling the task
+   */
+  public void cancel(@NotNull Plugin plugin) {
+    cancelTask(plugin);
+    future.cancel(false);
+  }
+
+  private void cancelTask(@NotNull Plugin plugin) {
+    if (taskId != -1) {
+      plugin.getServer().getScheduler().cancelTask(taskId);
+      taskId = -1;
+    }
+  }
+
+}
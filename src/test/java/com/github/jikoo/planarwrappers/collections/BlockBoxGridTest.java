@@ -0,0 +1,119 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.github.jikoo.planarwrappers.world.BlockBox;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Feature: Bucket block-based bounding boxes by chunk")
+class BlockBoxGridTest {
+
+  @DisplayName("Grid must bucket boxes into each chunk they overlap.")
+  @Test
+  void testChunks() {
+    BlockBoxGrid<String> grid = new BlockBoxGrid<>();
+    grid.insert(new BlockBox(-8, 0, -8, 7, 10, 7), "a");
+    grid.insert(new BlockBox(0, 0, 0, 15, 10, 15), "b");
+
+    assertThat("Size must match", grid.size(), is(2));
+    assertThat("Boxes must be bucketed into overlapped chunks", grid.getChunkCount(), is(4));
+    assertThat("Shared chunk must contain both",
+        new HashSet<>(grid.getChunk(0, 0)), is(Set.of("a", "b")));
+    assertThat("Other chunk must contain one", grid.getChunk(-1, -1), is(List.of("a")));
+    assertThat("Distant chunk must be empty", grid.getChunk(5, 5).isEmpty());
+  }
+
+  @DisplayName("Grid must find boxes by block and region.")
+  @Test
+  void testLookups() {
+    BlockBoxGrid<String> grid = new BlockBoxGrid<>();
+    grid.insert(new BlockBox(-8, 0, -8, 7, 10, 7), "a");
+    grid.insert(new BlockBox(0, 0, 0, 15, 10, 15), "b");
+
+    assertThat("Block in one box must be contained", grid.contains(-1, 0, -1));
+    assertThat("Block in one box must find it", grid.query(-1, 0, -1), is(List.of("a")));
+    assertThat("Block in overlap must find both",
+        new HashSet<>(grid.query(3, 5, 3)), is(Set.of("a", "b")));
+    assertThat("Block above boxes must not be contained", grid.contains(3, 11, 3), is(false));
+    assertThat("Block in empty chunk must not be contained", grid.contains(100, 0, 100), is(false));
+    assertThat("Intersecting must report each box once",
+        grid.intersecting(new BlockBox(-16, 0, -16, 31, 0, 31)).size(), is(2));
+  }
+
+  @DisplayName("Removal must remove a single matching mapping from every chunk.")
+  @Test
+  void testRemove() {
+    BlockBoxGrid<String> grid = new BlockBoxGrid<>();
+    BlockBox box = new BlockBox(0, 0, 0, 31, 0, 31);
+    grid.insert(box, "a");
+    grid.insert(box, "a");
+
+    assertThat("Removal with other value must fail", grid.remove(box, "b"), is(false));
+    assertThat("Removal must succeed", grid.remove(box, "a"));
+    assertThat("Duplicate must remain", grid.query(20, 0, 20), is(List.of("a")));
+    assertThat("Removal must succeed", grid.remove(box, "a"));
+    assertThat("Grid must be empty", grid.isEmpty());
+    assertThat("Empty chunks must be removed", grid.getChunkCount(), is(0));
+  }
+
+  @DisplayName("Grid must match a linear scan after random changes.")
+  @Test
+  void testRandomChanges() {
+    Random random = new Random(0);
+    BlockBoxGrid<Integer> grid = new BlockBoxGrid<>();
+    List<BlockBox> boxes = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+
+    for (int operation = 0; operation < 2000; ++operation) {
+      if (boxes.isEmpty() || random.nextInt(3) != 0) {
+        int x = random.nextInt(512) - 256;
+        int y = random.nextInt(128);
+        int z = random.nextInt(512) - 256;
+        BlockBox box = new BlockBox(
+            x, y, z, x + random.nextInt(48), y + random.nextInt(32), z + random.nextInt(48));
+        grid.insert(box, operation);
+        boxes.add(box);
+        values.add(operation);
+      } else {
+        int removed = random.nextInt(boxes.size());
+        assertThat("Removal must succeed",
+            grid.remove(boxes.remove(removed), values.remove(removed)));
+      }
+    }
+
+    assertThat("Size must match", grid.size(), is(boxes.size()));
+
+    for (int query = 0; query < 500; ++query) {
+      int x = random.nextInt(576) - 288;
+      int y = random.nextInt(192) - 32;
+      int z = random.nextInt(576) - 288;
+      BlockBox region = new BlockBox(
+          x, y, z, x + random.nextInt(64), y + random.nextInt(64), z + random.nextInt(64));
+      Set<Integer> expected = new HashSet<>();
+      Set<Integer> expectedIntersecting = new HashSet<>();
+      for (int i = 0; i < boxes.size(); ++i) {
+        if (boxes.get(i).contains(x, y, z)) {
+          expected.add(values.get(i));
+        }
+        if (boxes.get(i).intersects(region)) {
+          expectedIntersecting.add(values.get(i));
+        }
+      }
+
+      assertThat("Query must match", new HashSet<>(grid.query(x, y, z)), is(expected));
+      assertThat("Containment must match", grid.contains(x, y, z), is(!expected.isEmpty()));
+      List<Integer> intersecting = grid.intersecting(region);
+      assertThat("Intersecting must not repeat values",
+          intersecting.size(), is(expectedIntersecting.size()));
+      assertThat("Intersecting must match", new HashSet<>(intersecting), is(expectedIntersecting));
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Feature: Page BlockMap content with chunk lifecycle")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BlockMapPagerTest {
+
+  private static final int CHUNKS = 10;
+  private static final int PER_CHUNK = 100;
+
+  World world;
+  Plugin plugin;
+  BlockingQueue<Runnable> mainThread;
+  BlockMap<String> blockMap;
+
+  @BeforeAll
+  void beforeAll() {
+    String worldName = "world";
+    world = WorldMocks.newWorld(worldName);
+    Server server = ServerMocks.newServer();
+    when(server.getWorld(worldName)).thenReturn(world);
+
+    mainThread = new LinkedBlockingQueue<>();
+    BukkitScheduler scheduler = mock(BukkitScheduler.class);
+    doAnswer(invocation -> {
+      mainThread.add(invocation.getArgument(1));
+      return null;
+    }).when(scheduler).runTask(any(Plugin.class), any(Runnable.class));
+
+    plugin = mock(Plugin.class);
+    doReturn(true).when(plugin).isEnabled();
+    doReturn("Test").when(plugin).getName();
+    doReturn(server).when(plugin).getServer();
+    doReturn(scheduler).when(server).getScheduler();
+    doReturn(Logger.getLogger("BlockMapPagerTest")).when(plugin).getLogger();
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    mainThread.clear();
+    blockMap = new BlockMap<>();
+    for (int chunkX = 0; chunkX < CHUNKS; ++chunkX) {
+      for (int i = 0; i < PER_CHUNK; ++i) {
+        blockMap.put(world, chunkX << 4 | (i & 0xF), i, i >> 4, "value " + chunkX + "/" + i);
+      }
+    }
+  }
+
+  @AfterAll
+  void afterAll() {
+    ServerMocks.unsetBukkitServer();
+  }
+
+  @DisplayName("Unloaded chunks over budget should be paged out and restored on load")
+  @Test
+  void testMemoryStore() throws Exception {
+    testPaging(ChunkPageStore.memory());
+  }
+
+  @DisplayName("Paging should support file storage")
+  @Test
+  void testDirectoryStore(@TempDir Path directory) throws Exception {
+    testPaging(ChunkPageStore.directory(directory));
+  }
+
+  @DisplayName("Paging should not notify listeners or record chunks as changed")
+  @Test
+  void testPagingUnobserved() throws Exception {
+    List<String> changes = new ArrayList<>();
+    blockMap.addListener((worldName, x, y, z, oldValue, newValue, removed) ->
+        changes.add(x + "," + y + "," + z));
+    blockMap.setTrackingDirtyChunks(true);
+    BlockMapPager<String> pager =
+        new BlockMapPager<>(plugin, blockMap, ValueCodec.utf(), ChunkPageStore.memory(), 0);
+    pager.register();
+
+    try {
+      call(ChunkUnloadEvent.getHandlerList(), new ChunkUnloadEvent(world.getChunkAt(0, 0)));
+      assertThat("Chunk should be paged out", blockMap.get(world, 0, 0), empty());
+
+      CompletableFuture<Integer> restore = pager.pageIn(world.getName(), 0, 0);
+      Runnable completion = mainThread.poll(10, TimeUnit.SECONDS);
+      assertThat("Restore should complete on main thread", completion, notNullValue());
+      completion.run();
+      assertThat("All mappings should be restored", restore.get(), is(PER_CHUNK));
+    } finally {
+      pager.unregister();
+    }
+
+    assertThat("Paging should not be reported", changes, empty());
+    assertThat("Paging should not record chunks", blockMap.drainDirtyChunks().isEmpty());
+  }
+
+  private void testPaging(ChunkPageStore store) throws Exception {
+    BlockMapPager<String> pager = new BlockMapPager<>(plugin, blockMap, ValueCodec.utf(), store, 3);
+    pager.register();
+
+    try {
+      for (int chunkX = 0; chunkX < CHUNKS; ++chunkX) {
+        call(ChunkUnloadEvent.getHandlerList(), new ChunkUnloadEvent(world.getChunkAt(chunkX, 0)));
+      }
+
+      assertThat("Budget should be respected", pager.getResidentChunks(), is(3));
+      assertThat("Chunks should be paged out", pager.getPageOuts(), is(CHUNKS - 3L));
+      assertThat("Paged-out content should be absent", blockMap.get(world, 0, 0), empty());
+      assertThat("Resident content should remain", blockMap.get(world, 9, 0), hasSize(PER_CHUNK));
+
+      // Mapping added while paged out takes precedence.
+      blockMap.put(world, 5, 5, 0, "override");
+
+      call(ChunkLoadEvent.getHandlerList(), new ChunkLoadEvent(world.getChunkAt(9, 0), false));
+      call(ChunkLoadEvent.getHandlerList(), new ChunkLoadEvent(world.getChunkAt(0, 0), false));
+      CompletableFuture<Integer> restore = pager.pageIn(world.getName(), 0, 0);
+
+      Runnable completion = mainThread.poll(10, TimeUnit.SECONDS);
+      assertThat("Restore should complete on main thread", completion, notNullValue());
+      completion.run();
+
+      assertThat("Non-conflicting mappings should be restored", restore.get(), is(PER_CHUNK - 1));
+      assertThat("Hits should be counted", pager.getHits(), is(1L));
+      assertThat("Misses should be counted", pager.getMisses(), is(1L));
+      assertThat("Chunk should be restored", blockMap.get(world, 0, 0), hasSize(PER_CHUNK));
+      assertThat("Newer mapping should be kept", blockMap.get(world, 5, 5, 0), is("override"));
+    } finally {
+      pager.unregister();
+    }
+
+    assertThat("No chunks should remain paged out", pager.getPagedOutChunks(), is(0));
+    int[] count = new int[1];
+    blockMap.forEach((worldName, x, y, z, value) -> ++count[0]);
+    assertThat("All mappings should be restored", count[0], is(CHUNKS * PER_CHUNK));
+  }
+
+  private static void call(HandlerList handlerList, Event event) throws Exception {
+    for (RegisteredListener listener : handlerList.getRegisteredListeners()) {
+      listener.callEvent(event);
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Feature: Persist BlockMaps in a binary format")
+class BlockMapSnapshotTest {
+
+  @TempDir
+  Path directory;
+
+  @DisplayName("Snapshot should round trip all mappings")
+  @Test
+  void testRoundTrip() throws IOException {
+    BlockMap<String> blockMap = new BlockMap<>();
+    Map<List<Object>, String> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 5_000; ++i) {
+      String world = random.nextBoolean() ? "world" : "world_nether";
+      int x = random.nextInt(-500, 500);
+      int y = random.nextInt(-64, 320);
+      int z = random.nextInt(-500, 500);
+      String value = "value " + i;
+      blockMap.put(world, x, y, z, value);
+      expected.put(List.of(world, x, y, z), value);
+    }
+
+    Path path = directory.resolve("snapshot.bin");
+    BlockMapSnapshot.write(blockMap, path, ValueCodec.utf());
+    BlockMap<String> read = BlockMapSnapshot.read(path, ValueCodec.utf());
+
+    Map<List<Object>, String> actual = new HashMap<>();
+    read.forEach((world, x, y, z, value) -> actual.put(List.of(world, x, y, z), value));
+    assertThat("All mappings should be read", actual, is(expected));
+  }
+
+  @DisplayName("Snapshot should support reading individual chunks")
+  @Test
+  void testPartialLoad() throws IOException {
+    BlockMap<String> blockMap = new BlockMap<>();
+    blockMap.put("world", 0, -64, 0, "bottom");
+    blockMap.put("world", 15, 319, 15, "top");
+    blockMap.put("world", 16, 0, 0, "neighbor");
+
+    Path path = directory.resolve("snapshot.bin");
+    BlockMapSnapshot.write(blockMap, path, ValueCodec.utf());
+
+    try (BlockMapSnapshot<String> snapshot = BlockMapSnapshot.open(path, ValueCodec.utf())) {
+      assertThat("Chunk should be present", snapshot.contains("world", 0, 0));
+      assertThat("Chunk should not be present", !snapshot.contains("world", 5, 5));
+
+      BlockMap<String> partial = new BlockMap<>();
+      assertThat("Chunk should be read", snapshot.loadChunk("world", 0, 0, partial), is(2));
+      assertThat(
+          "Chunk mappings should be loaded",
+          partial.get("world", 0, 0),
+          containsInAnyOrder("bottom", "top"));
+      assertThat("Negative Y should be preserved", partial.get("world", 0, -64, 0), is("bottom"));
+      assertThat("Other chunks should not be loaded", partial.get("world", 1, 0), empty());
+      assertThat(
+          "Missing chunks should not be loaded",
+          snapshot.loadChunk("world_nether", 0, 0, partial),
+          is(0));
+      assertThat("Missing world should not be created", partial.get("world_nether", 0, 0, 0),
+          nullValue());
+    }
+  }
+
+  @DisplayName("Loading a chunk should notify listeners and record the chunk as changed")
+  @Test
+  void testLoadNotifies() throws IOException {
+    BlockMap<String> blockMap = new BlockMap<>();
+    blockMap.put("world", 0, 0, 0, "origin");
+    blockMap.put("world", 16, 0, 0, "neighbor");
+
+    Path path = directory.resolve("snapshot.bin");
+    BlockMapSnapshot.write(blockMap, path, ValueCodec.utf());
+
+    BlockMap<String> target = new BlockMap<>();
+    target.put("world", 0, 0, 0, "stale");
+    List<String> changes = new ArrayList<>();
+    target.addListener((worldName, x, y, z, oldValue, newValue, removed) ->
+        changes.add(x + "," + y + "," + z + ":" + oldValue + "->" + newValue));
+    target.setTrackingDirtyChunks(true);
+
+    try (BlockMapSnapshot<String> snapshot = BlockMapSnapshot.open(path, ValueCodec.utf())) {
+      snapshot.loadChunk("world", 0, 0, target);
+    }
+
+    assertThat("Loaded mappings should be reported", changes, contains("0,0,0:stale->origin"));
+    ChunkSet dirty = target.drainDirtyChunks();
+    assertThat("Only the loaded chunk should be recorded", dirty.size(), is(1));
+    assertThat("Loaded chunk should be recorded", dirty.contains("world", 0, 0));
+  }
+
+  @DisplayName("Snapshot should reject invalid files")
+  @Test
+  void testInvalid() throws IOException {
+    Path path = directory.resolve("invalid.bin");
+    Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+    assertThrows(IOException.class, () -> BlockMapSnapshot.open(path, ValueCodec.utf()));
+
+    BlockMap<String> blockMap = new BlockMap<>();
+    blockMap.put("world", 0, 0, 0, "value");
+    Path negative = directory.resolve("negative.bin");
+    BlockMapSnapshot.write(blockMap, negative, ValueCodec.utf());
+    // The index ends with the length of the only chunk's extent.
+    byte[] bytes = Files.readAllBytes(negative);
+    ByteBuffer.wrap(bytes).putInt(bytes.length - Integer.BYTES, -1);
+    Files.write(negative, bytes);
+
+    assertThrows(IOException.class, () -> BlockMapSnapshot.open(negative, ValueCodec.utf()));
+  }
+
+}
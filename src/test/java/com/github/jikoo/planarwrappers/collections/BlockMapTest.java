@@ -2,12 +2,17 @@ package com.github.jikoo.planarwrappers.collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.in;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
@@ -15,11 +20,15 @@ import com.github.jikoo.planarwrappers.collections.BlockMap.BlockMapEntry;
 import com.github.jikoo.planarwrappers.mock.ServerMocks;
 import com.github.jikoo.planarwrappers.mock.world.BlockMocks;
 import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import com.github.jikoo.planarwrappers.world.BlockBox;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import org.bukkit.Chunk;
 import org.bukkit.Server;
 import org.bukkit.World;
@@ -29,6 +38,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 @DisplayName("Feature: Map objects to blocks")
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -95,6 +106,376 @@ class BlockMapTest {
     assertThat("Block data should not be set after removal", blockMap.get(chunk), empty());
   }
 
+  @DisplayName("Map should support densely populated chunks")
+  @Test
+  void testDenseChunk() {
+    for (int x = 0; x < 16; ++x) {
+      for (int y = 0; y < 16; ++y) {
+        for (int z = 0; z < 16; ++z) {
+          blockMap.put(world.getBlockAt(x, y, z), x + "," + y + "," + z);
+        }
+      }
+    }
+
+    Block block = world.getBlockAt(3, 4, 5);
+    Chunk chunk = block.getChunk();
+    assertThat("Value should be set", blockMap.get(block), is("3,4,5"));
+    assertThat("All values are returned for chunk", blockMap.get(chunk).size(), is(4096));
+
+    for (int x = 0; x < 16; ++x) {
+      for (int y = 0; y < 16; ++y) {
+        for (int z = 1; z < 16; ++z) {
+          blockMap.remove(world.getBlockAt(x, y, z));
+        }
+      }
+    }
+
+    assertThat("Value should be removed", blockMap.get(block), nullValue());
+    assertThat("Value should be retained", blockMap.get(world.getBlockAt(3, 4, 0)), is("3,4,0"));
+    assertThat("Remaining values are returned for chunk", blockMap.get(chunk).size(), is(256));
+
+    // Dropping below the sparse threshold converts the section back to sparse storage.
+    long dense = blockMap.memoryFootprint();
+    for (int y = 0; y < 16; ++y) {
+      blockMap.remove(world.getBlockAt(15, y, 0));
+    }
+
+    assertThat("Sparse storage should be smaller", blockMap.memoryFootprint(), lessThan(dense));
+    List<String> expected = new ArrayList<>();
+    for (int x = 0; x < 15; ++x) {
+      for (int y = 0; y < 16; ++y) {
+        String value = x + "," + y + ",0";
+        expected.add(value);
+        assertThat("Value should be retained", blockMap.get(world.getBlockAt(x, y, 0)), is(value));
+      }
+    }
+    assertThat("Value should be removed", blockMap.get(world.getBlockAt(15, 4, 0)), nullValue());
+    assertThat(
+        "Remaining values are returned for chunk",
+        blockMap.get(chunk),
+        containsInAnyOrder(expected.toArray()));
+
+    blockMap.put(block, "3,4,5");
+    assertThat("Value should be set", blockMap.get(block), is("3,4,5"));
+    assertThat("Values are returned for chunk", blockMap.get(chunk).size(), is(241));
+  }
+
+  @DisplayName("Map should find worlds by name when world instances change")
+  @Test
+  void testWorldReload() {
+    Block block = world.getBlockAt(0, 0, 0);
+    String value = "value";
+    blockMap.put(block, value);
+
+    World reloaded = WorldMocks.newWorld(world.getName());
+    Block reloadedBlock = reloaded.getBlockAt(0, 0, 0);
+    assertThat("Value should be found by name", blockMap.get(reloadedBlock), is(value));
+    assertThat(
+        "Chunk values should be found by world",
+        blockMap.get(reloaded, 0, 0),
+        containsInAnyOrder(value));
+    assertThat(
+        "Chunk values should be found by name",
+        blockMap.get(world.getName(), 0, 0),
+        containsInAnyOrder(value));
+    assertThat("Value should be removed", blockMap.remove(reloadedBlock), is(value));
+    assertThat("Value should be removed for original world", blockMap.get(block), nullValue());
+  }
+
+  @DisplayName("Map should support manipulation by coordinates")
+  @Test
+  void testManipulateCoordinates() {
+    String worldName = world.getName();
+    Object object1 = "An object";
+    Object object2 = "A different object";
+
+    assertThat("Block should not be mapped beforehand", !blockMap.containsKey(worldName, 1, 2, 3));
+    assertThat("Previous value should be null", blockMap.put(worldName, 1, 2, 3, object1), nullValue());
+    assertThat("Block should be mapped", blockMap.containsKey(world, 1, 2, 3));
+    assertThat("Value should be set", blockMap.get(world.getBlockAt(1, 2, 3)), is(object1));
+    assertThat("Previous value should be returned", blockMap.put(world, 1, 2, 3, object2), is(object1));
+    assertThat("Value should be set", blockMap.get(worldName, 1, 2, 3), is(object2));
+    assertThat("Value should be removed", blockMap.remove(worldName, 1, 2, 3), is(object2));
+    assertThat("Block should not be mapped", !blockMap.containsKey(world.getBlockAt(1, 2, 3)));
+  }
+
+  @DisplayName("Map should visit chunk contents by coordinates")
+  @Test
+  void testForEachInChunk() {
+    String worldName = world.getName();
+    blockMap.put(worldName, -16, 5, -1, "value");
+    blockMap.put(worldName, -1, -64, -16, "other value");
+    blockMap.put(worldName, 0, 0, 0, "different chunk value");
+
+    Map<String, Object> visited = new HashMap<>();
+    blockMap.forEachInChunk(
+        worldName, -1, -1, (x, y, z, value) -> visited.put(x + "," + y + "," + z, value));
+
+    assertThat(
+        "Correct coordinates are visited",
+        visited.keySet(),
+        containsInAnyOrder("-16,5,-1", "-1,-64,-16"));
+    assertThat(
+        "Correct values are visited",
+        visited.values(),
+        containsInAnyOrder("value", "other value"));
+  }
+
+  @DisplayName("Map should support box-based manipulation")
+  @Test
+  void testManipulateWithin() {
+    String worldName = world.getName();
+    blockMap.put(worldName, 0, 0, 0, "corner");
+    blockMap.put(worldName, 17, 20, -3, "across chunks");
+    blockMap.put(worldName, 18, 20, -3, "outside X");
+    blockMap.put(worldName, 17, 21, -3, "outside Y");
+    blockMap.put(worldName, 17, 20, -4, "outside Z");
+    BlockBox box = new BlockBox(0, 0, -3, 17, 20, 0);
+
+    Collection<Object> values = Arrays.asList("corner", "across chunks");
+
+    assertThat("Correct values are counted", blockMap.countWithin(worldName, box), is(2));
+    assertThat(
+        "Correct values are returned for box",
+        blockMap.getWithin(worldName, box),
+        containsInAnyOrder(values.toArray()));
+    assertThat(
+        "Correct values are returned for box removal",
+        blockMap.removeWithin(worldName, box),
+        containsInAnyOrder(values.toArray()));
+    assertThat("Values should not be set after removal", blockMap.getWithin(worldName, box), empty());
+    assertThat("Values outside box are retained", blockMap.get(worldName, 18, 20, -3), is("outside X"));
+  }
+
+  @DisplayName("Map should support distance queries")
+  @Test
+  void testDistance() {
+    String worldName = world.getName();
+    blockMap.put(worldName, 0, 64, 0, "origin");
+    blockMap.put(worldName, 3, 64, 4, "five");
+    blockMap.put(worldName, -20, 64, 0, "twenty");
+    blockMap.put(worldName, 0, 64, 40, "forty");
+    blockMap.put(worldName, 0, 100, 0, "thirty-six");
+
+    BlockEntry<Object> nearest = blockMap.nearest(worldName, 1, 64, 1, 32);
+    assertThat("Nearest should be found", nearest, is(new BlockEntry<>(worldName, 0, 64, 0, "origin")));
+    assertThat(
+        "Nearest should respect maximum distance",
+        blockMap.nearest(worldName, 0, 64, 80, 32),
+        nullValue());
+    assertThat(
+        "Nearest mappings should be ordered by distance",
+        blockMap.nearest(worldName, 0, 64, 0, 32, 3).stream().map(BlockEntry::value).toList(),
+        contains("origin", "five", "twenty"));
+    assertThat(
+        "Radius should include boundary",
+        blockMap.withinRadius(worldName, 0, 64, 0, 20).stream().map(BlockEntry::value).toList(),
+        containsInAnyOrder("origin", "five", "twenty"));
+    assertThat("Unknown world should be empty", blockMap.withinRadius("other", 0, 0, 0, 64), empty());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> blockMap.nearest(worldName, 0, 0, 0, Double.NaN));
+  }
+
+  @DisplayName("Bulk insertion should match individual insertion")
+  @ParameterizedTest
+  @ValueSource(ints = { 16, 4096, 50_000_000 })
+  void testPutAll(int spread) {
+    String worldName = world.getName();
+    Random random = new Random(spread);
+    int size = 2000;
+    int[] xs = new int[size];
+    int[] ys = new int[size];
+    int[] zs = new int[size];
+    Object[] values = new Object[size];
+    BlockMap<Object> expected = new BlockMap<>();
+    for (int i = 0; i < size; ++i) {
+      xs[i] = random.nextInt(spread) - spread / 2;
+      ys[i] = random.nextInt(384) - 64;
+      zs[i] = random.nextInt(spread) - spread / 2;
+      values[i] = i;
+      expected.put(worldName, xs[i], ys[i], zs[i], values[i]);
+    }
+    blockMap.put(worldName, xs[0], ys[0], zs[0], "replaced");
+    blockMap.putAll(worldName, xs, ys, zs, values);
+
+    Map<String, Object> actualEntries = new HashMap<>();
+    blockMap.forEach((name, x, y, z, value) -> actualEntries.put(x + "," + y + "," + z, value));
+    Map<String, Object> expectedEntries = new HashMap<>();
+    expected.forEach((name, x, y, z, value) -> expectedEntries.put(x + "," + y + "," + z, value));
+    assertThat("Mappings should match", actualEntries, is(expectedEntries));
+
+    BlockMapBuilder<Object> builder = new BlockMapBuilder<>();
+    for (int i = size - 1; i >= 0; --i) {
+      builder.add(worldName, xs[i], ys[i], zs[i], values[i]);
+    }
+    assertThat("Builder should count mappings", builder.size(), is(size));
+    BlockMap<Object> built = builder.build();
+    for (int i = 0; i < size; ++i) {
+      assertThat(
+          "Built mapping should be present",
+          built.containsKey(worldName, xs[i], ys[i], zs[i]));
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> blockMap.putAll(worldName, xs, ys, new int[0], values),
+        "Arrays must be the same length");
+  }
+
+  @DisplayName("Changes should be reported to listeners and recorded by chunk")
+  @Test
+  void testChangeTracking() {
+    assertThat("Dirty chunks should not be tracked by default", !blockMap.isTrackingDirtyChunks());
+    assertThat("Untracked map should have no dirty chunks", blockMap.drainDirtyChunks().isEmpty());
+
+    List<String> changes = new ArrayList<>();
+    BlockChangeListener<Object> listener = (worldName, x, y, z, oldValue, newValue, removed) -> {
+      String change = removed ? " removed" : "->" + newValue;
+      changes.add(x + "," + y + "," + z + ":" + oldValue + change);
+    };
+    blockMap.addListener(listener);
+    blockMap.setTrackingDirtyChunks(true);
+
+    blockMap.put("world", 0, 0, 0, "value");
+    blockMap.put("world", 0, 0, 0, "new value");
+    blockMap.put("world", 16, 0, 0, "other chunk");
+    blockMap.remove("world", 1, 1, 1);
+    blockMap.remove("world", 0, 0, 0);
+
+    assertThat(
+        "Changes should be reported in order",
+        changes,
+        contains(
+            "0,0,0:null->value",
+            "0,0,0:value->new value",
+            "16,0,0:null->other chunk",
+            "0,0,0:new value removed"));
+    ChunkSet dirty = blockMap.drainDirtyChunks();
+    assertThat("Changed chunks should be recorded", dirty.size(), is(2));
+    assertThat("Emptied chunks should be recorded", dirty.contains("world", 0, 0));
+    assertThat("Drained chunks should be reset", blockMap.drainDirtyChunks().isEmpty());
+
+    changes.clear();
+    blockMap.put("world", 17, 0, 0, "box");
+    blockMap.removeWithin("world", new BlockBox(17, 0, 0, 17, 0, 0));
+    blockMap.remove("world", 1, 0);
+    assertThat(
+        "Bulk removals should report each mapping",
+        changes,
+        contains("17,0,0:null->box", "17,0,0:box removed", "16,0,0:other chunk removed"));
+    assertThat("Bulk removals should record chunks", blockMap.drainDirtyChunks().size(), is(1));
+
+    assertThat("Listener should be removed", blockMap.removeListener(listener));
+    assertThat("Listener should not be removed twice", !blockMap.removeListener(listener));
+    blockMap.setTrackingDirtyChunks(false);
+    blockMap.put("world", 0, 0, 0, "untracked");
+    assertThat("Untracked changes should not be recorded", blockMap.drainDirtyChunks().isEmpty());
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> blockMap.snapshot().addListener(listener),
+        "Snapshots cannot be listened to");
+  }
+
+  @DisplayName("Snapshot should be unaffected by later changes")
+  @Test
+  void testSnapshot() {
+    String worldName = world.getName();
+    blockMap.put(worldName, 0, 0, 0, "unchanged");
+    blockMap.put(worldName, 1, 0, 0, "replaced");
+    blockMap.put(worldName, 2, 0, 0, "removed");
+    blockMap.put(worldName, 32, 0, 0, "removed chunk");
+
+    BlockMap<Object> snapshot = blockMap.snapshot();
+    blockMap.put(worldName, 1, 0, 0, "replacement");
+    blockMap.remove(worldName, 2, 0, 0);
+    blockMap.remove(worldName, 2, 0);
+    blockMap.put(worldName, 48, 0, 0, "added");
+    blockMap.put("other world", 0, 0, 0, "added");
+
+    assertThat("Unchanged value should be shared", snapshot.get(worldName, 0, 0, 0), is("unchanged"));
+    assertThat("Replaced value should be retained", snapshot.get(worldName, 1, 0, 0), is("replaced"));
+    assertThat("Removed value should be retained", snapshot.get(worldName, 2, 0, 0), is("removed"));
+    assertThat("Removed chunk should be retained", snapshot.get(worldName, 2, 0), hasSize(1));
+    assertThat("Added chunk should be absent", snapshot.get(worldName, 48, 0, 0), nullValue());
+    assertThat("Added world should be absent", snapshot.get("other world", 0, 0, 0), nullValue());
+    assertThat("Map should be changed", blockMap.get(worldName, 1, 0, 0), is("replacement"));
+    assertThat("Map should be changed", blockMap.get(worldName, 2, 0, 0), nullValue());
+
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.put(worldName, 0, 0, 0, "new"));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(worldName, 0, 0));
+    assertThrows(UnsupportedOperationException.class, snapshot::trim);
+  }
+
+  @DisplayName("Snapshot storage should only be copied when a mapping is removed")
+  @Test
+  void testSnapshotRemoveMissing() {
+    String worldName = world.getName();
+    blockMap.put(worldName, 0, 0, 0, "value");
+    blockMap.put(worldName, 16, 0, 0, "other chunk");
+
+    BlockMap<Object> snapshot = blockMap.snapshot();
+    BlockWorld<Object> shared = snapshot.getWorld(worldName);
+    assertThat("Snapshot world should exist", shared, notNullValue());
+    blockMap.remove(worldName, 1, 1, 1);
+    blockMap.removeWithin(worldName, new BlockBox(0, 64, 0, 31, 128, 15));
+
+    BlockWorld<Object> blockWorld = blockMap.getWorld(worldName);
+    assertThat("Map world should exist", blockWorld, notNullValue());
+    assertThat(
+        "Missing block removal should not copy storage",
+        blockWorld.getChunk(0, 0),
+        sameInstance(shared.getChunk(0, 0)));
+    assertThat(
+        "Empty box removal should not copy storage",
+        blockWorld.getChunk(1, 0),
+        sameInstance(shared.getChunk(1, 0)));
+
+    assertThat("Mapping should be removed", blockMap.remove(worldName, 0, 0, 0), is("value"));
+    assertThat("Snapshot should retain mapping", snapshot.get(worldName, 0, 0, 0), is("value"));
+    assertThat(
+        "Box removal should remove mappings",
+        blockMap.removeWithin(worldName, new BlockBox(16, 0, 0, 31, 0, 15)),
+        contains("other chunk"));
+    assertThat(
+        "Snapshot should retain chunk",
+        snapshot.get(worldName, 16, 0, 0),
+        is("other chunk"));
+  }
+
+  @DisplayName("Map should release unused capacity when trimmed")
+  @Test
+  void testTrim() {
+    String worldName = world.getName();
+    for (int chunkX = 0; chunkX < 100; ++chunkX) {
+      for (int y = 0; y < 16; ++y) {
+        blockMap.put(worldName, chunkX << 4, y, 0, "value");
+      }
+    }
+    blockMap.put("other world", 0, 0, 0, "value");
+    long full = blockMap.memoryFootprint();
+
+    for (int chunkX = 1; chunkX < 100; ++chunkX) {
+      blockMap.remove(worldName, chunkX, 0);
+    }
+    for (int y = 1; y < 16; ++y) {
+      blockMap.remove(worldName, 0, y, 0);
+    }
+    blockMap.remove("other world", 0, 0, 0);
+    long removed = blockMap.memoryFootprint();
+    assertThat("Removal should shrink storage", removed, lessThan(full));
+
+    blockMap.trim();
+    assertThat("Trim should release capacity", blockMap.memoryFootprint(), lessThan(removed));
+    assertThat("Empty world should be discarded", blockMap.getWorld("other world"), nullValue());
+    assertThat("Content should be retained", blockMap.get(worldName, 0, 0, 0), is("value"));
+
+    blockMap.put("other world", 0, 0, 0, "new value");
+    assertThat("Discarded world should be recreated", blockMap.get("other world", 0, 0, 0),
+        is("new value"));
+    assertThrows(IllegalArgumentException.class, () -> new BlockMap<>(-1));
+  }
+
   @DisplayName("Map entry set should contain expected content.")
   @Test
   void testEntries() {
@@ -114,6 +495,48 @@ class BlockMapTest {
         both(everyItem(is(in(values)))).and(containsInAnyOrder(values.toArray())));
   }
 
+  @DisplayName("Map entry view should contain expected content.")
+  @Test
+  void testEntryView() {
+    Map<Block, Object> normalMap = new HashMap<>();
+    for (int i = 0; i < 64; ++i) {
+      normalMap.put(world.getBlockAt(i * 7, i, -i * 5), i);
+    }
+
+    normalMap.forEach(blockMap::put);
+    Collection<Entry<Block, Object>> values = blockMap.entries();
+
+    assertThat("View size must match", values.size(), is(normalMap.size()));
+    assertThat(
+        "Entries must match!",
+        normalMap.entrySet(),
+        both(everyItem(is(in(values)))).and(containsInAnyOrder(values.toArray())));
+    assertThat(
+        "Parallel entries must match!",
+        values.parallelStream().toList(),
+        containsInAnyOrder(normalMap.entrySet().toArray()));
+  }
+
+  @DisplayName("Map visitor should visit all content.")
+  @Test
+  void testVisitor() {
+    blockMap.put(world.getBlockAt(1, 2, 3), "value");
+    blockMap.put("unloaded", -1, -2, -3, "unloaded value");
+
+    Map<String, Object> visited = new HashMap<>();
+    blockMap.forEach(
+        (worldName, x, y, z, value) -> visited.put(worldName + ":" + x + "," + y + "," + z, value));
+
+    assertThat(
+        "Correct coordinates are visited",
+        visited.keySet(),
+        containsInAnyOrder("world:1,2,3", "unloaded:-1,-2,-3"));
+    assertThat(
+        "Correct values are visited",
+        visited.values(),
+        containsInAnyOrder("value", "unloaded value"));
+  }
+
   @DisplayName("Map entry is an immutable data container")
   @Test
   void testEntry() {
@@ -2,13 +2,17 @@ package com.github.jikoo.planarwrappers.collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.in;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.github.jikoo.planarwrappers.mock.ServerMocks;
@@ -137,4 +141,73 @@ class BlockMultimapTest {
     assertThat("Block data should not be set after removal", blockMultimap.get(chunk), empty());
   }
 
+  @DisplayName("Bulk insertion should append to existing values")
+  @Test
+  void testPutAll() {
+    Block block = world.getBlockAt(0, 0, 0);
+    blockMultimap.put(block, "existing");
+    blockMultimap.putAll(
+        "world",
+        new int[] {0, 1, 0},
+        new int[] {0, 0, 0},
+        new int[] {0, 0, 0},
+        new Object[] {"first", "other", "second"});
+
+    assertThat(
+        "Values should be appended in order",
+        blockMultimap.get(block),
+        contains("existing", "first", "second"));
+    assertThat("Other block should be mapped", blockMultimap.get(block.getChunk()), hasSize(4));
+  }
+
+  @DisplayName("Values returned should not reflect later additions")
+  @Test
+  void testGetSnapshot() {
+    Block block = world.getBlockAt(0, 0, 0);
+    blockMultimap.put(block, "first");
+    Collection<Object> single = blockMultimap.get(block);
+    blockMultimap.put(block, "second");
+    Collection<Object> multiple = blockMultimap.get(block);
+    blockMultimap.put(block, "third");
+
+    assertThat("Single value should be a snapshot", single, contains("first"));
+    assertThat("Multiple values should be a snapshot", multiple, contains("first", "second"));
+    assertThat(
+        "New values should be returned",
+        blockMultimap.get(block),
+        contains("first", "second", "third"));
+  }
+
+  @DisplayName("Map should handle growth from single to many values")
+  @Test
+  void testManyValues() {
+    Block block = world.getBlockAt(0, 0, 0);
+    blockMultimap.put(block, "value");
+
+    assertThat("Single value should be returned", blockMultimap.get(block), contains("value"));
+
+    List<Object> expected = new ArrayList<>();
+    expected.add("value");
+    for (int i = 0; i < 20; ++i) {
+      blockMultimap.put(block, i);
+      expected.add(i);
+    }
+    blockMultimap.put(world.getBlockAt(1, 0, 0), "other");
+
+    assertThat("All values should be returned", blockMultimap.get(block), is(expected));
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> blockMultimap.get(block).add("illegal"),
+        "Values should not be modifiable");
+    assertThat(
+        "Chunk should contain all values",
+        blockMultimap.get(block.getChunk()),
+        hasSize(expected.size() + 1));
+
+    long footprint = blockMultimap.memoryFootprint();
+    blockMultimap.trim();
+    assertThat("Trim should release capacity", blockMultimap.memoryFootprint(), lessThan(footprint));
+    assertThat("Values should be retained", blockMultimap.get(block), is(expected));
+  }
+
 }
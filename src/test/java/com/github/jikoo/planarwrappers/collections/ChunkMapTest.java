@@ -0,0 +1,105 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import com.github.jikoo.planarwrappers.util.Coords;
+import com.github.jikoo.planarwrappers.util.Coords.Coord;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Feature: Map objects to chunks")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChunkMapTest {
+
+  World world;
+  ChunkMap<String> chunkMap;
+
+  @BeforeAll
+  void beforeAll() {
+    world = WorldMocks.newWorld("world");
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    chunkMap = new ChunkMap<>();
+  }
+
+  @DisplayName("Map should support standard manipulation operations")
+  @Test
+  void testManipulate() {
+    Chunk chunk = world.getChunkAt(-4, 7);
+
+    assertThat("Chunk data should not be set beforehand", chunkMap.get(chunk), nullValue());
+    assertThat("Previous value should be null", chunkMap.put(chunk, "value"), nullValue());
+    assertThat("Value should be set", chunkMap.get(chunk), is("value"));
+    assertThat("Value should be set by coordinates", chunkMap.get("world", -4, 7), is("value"));
+    assertThat("Other worlds should not be affected", !chunkMap.containsKey("other", -4, 7));
+    assertThat("Previous value should be returned", chunkMap.put(chunk, "new value"), is("value"));
+    assertThat("Size should be tracked", chunkMap.size(), is(1));
+    assertThat("Value should be removed", chunkMap.remove(chunk), is("new value"));
+    assertThat("Map should be empty", chunkMap.isEmpty());
+  }
+
+  @DisplayName("Region operations should match region coordinates")
+  @ParameterizedTest
+  @ValueSource(ints = {0, 2000})
+  void testRegion(int padding) {
+    // Padding makes the map large enough to look up every chunk in the region instead of scanning.
+    for (int i = 0; i < padding; ++i) {
+      chunkMap.put("world", 1000 + i, 1000, "padding");
+    }
+    chunkMap.put("world", -32, 0, "lowest");
+    chunkMap.put("world", -1, 31, "highest");
+    chunkMap.put("world", -33, 0, "outside X");
+    chunkMap.put("world", -1, 32, "outside Z");
+    chunkMap.put("other", -32, 0, "other world");
+
+    Coord lowest = Coords.getRegionChunkCoords("r.-1.0.mca");
+    assertThat("Region lowest chunk should match", chunkMap.get("world", lowest.x(), lowest.z()),
+        is("lowest"));
+    assertThat(
+        "Region values should be returned",
+        chunkMap.getRegion("world", -1, 0),
+        containsInAnyOrder("lowest", "highest"));
+    assertThat(
+        "Region values should be removed",
+        chunkMap.removeRegion("world", -1, 0),
+        containsInAnyOrder("lowest", "highest"));
+    assertThat("Region should be empty", chunkMap.getRegion("world", -1, 0), empty());
+    assertThat("Other chunks should remain", chunkMap.size(), is(padding + 3));
+  }
+
+  @DisplayName("Set should track chunk presence")
+  @Test
+  void testSet() {
+    ChunkSet chunkSet = new ChunkSet();
+    assertThat("Chunk should be added", chunkSet.add(world.getChunkAt(0, 0)));
+    assertThat("Duplicate should not be added", !chunkSet.add("world", 0, 0));
+    assertThat("Chunk should be added", chunkSet.add("world", 31, 31));
+    assertThat("Chunk should be added", chunkSet.add("world", 32, 0));
+
+    assertThat("Chunk should be present", chunkSet.contains("world", 31, 31));
+    assertThat(
+        "Region should contain chunks",
+        chunkSet.getRegion("world", 0, 0),
+        containsInAnyOrder(new Coord(0, 0), new Coord(31, 31)));
+    assertThat("Region should be removed", chunkSet.removeRegion("world", 0, 0), is(2));
+    assertThat("Chunk outside region should remain", chunkSet.getRegion("world", 1, 0), hasSize(1));
+    assertThat("Chunk should be removed", chunkSet.remove("world", 32, 0));
+    assertThat("Set should be empty", chunkSet.isEmpty());
+  }
+
+}
@@ -0,0 +1,147 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@DisplayName("Feature: Map objects to blocks concurrently")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConcurrentBlockMapTest {
+
+  private static final String WORLD = "world";
+
+  ConcurrentBlockMap<Long> blockMap;
+
+  @BeforeEach
+  void beforeEach() {
+    blockMap = new ConcurrentBlockMap<>();
+  }
+
+  @DisplayName("Map should support standard manipulation operations")
+  @Test
+  void testManipulate() {
+    assertThat("Block data should not be set beforehand",
+        blockMap.get(WORLD, 1, 2, 3), nullValue());
+    assertThat("Previous value should be null", blockMap.put(WORLD, 1, 2, 3, 1L), nullValue());
+    assertThat("Value should be set", blockMap.get(WORLD, 1, 2, 3), is(1L));
+    assertThat("Key should be present", blockMap.containsKey(WORLD, 1, 2, 3));
+    assertThat("Previous value should be returned", blockMap.put(WORLD, 1, 2, 3, 2L), is(1L));
+    assertThat("Value should be removed", blockMap.remove(WORLD, 1, 2, 3), is(2L));
+    assertThat("Key should not be present", !blockMap.containsKey(WORLD, 1, 2, 3));
+  }
+
+  @DisplayName("Map should support chunk-based manipulation")
+  @Test
+  void testManipulateChunk() {
+    assertThat("Chunk should be empty beforehand", blockMap.get(WORLD, 0, 0), empty());
+
+    blockMap.put(WORLD, 0, 1, 0, 1L);
+    blockMap.put(WORLD, 15, 1, 15, 2L);
+    blockMap.put(WORLD, 16, 1, 0, 3L);
+
+    assertThat("Values should be retrieved", blockMap.get(WORLD, 0, 0), containsInAnyOrder(1L, 2L));
+
+    List<Long> visited = new ArrayList<>();
+    blockMap.forEachInChunk(WORLD, 0, 0, (x, y, z, value) -> visited.add(value));
+    assertThat("Values should be visited", visited, containsInAnyOrder(1L, 2L));
+
+    assertThat(
+        "Values should be removed", blockMap.remove(WORLD, 0, 0), containsInAnyOrder(1L, 2L));
+    assertThat("Chunk should be empty", blockMap.get(WORLD, 0, 0), empty());
+    assertThat("Other chunks should be unaffected", blockMap.get(WORLD, 16, 1, 0), is(3L));
+  }
+
+  @DisplayName("Reads racing writes should only observe written values")
+  @Test
+  void testConcurrentReads() {
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicInteger mismatches = new AtomicInteger();
+    List<CompletableFuture<Void>> readers = new ArrayList<>();
+    for (int i = 0; i < 4; ++i) {
+      readers.add(CompletableFuture.runAsync(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!done.get()) {
+          int x = random.nextInt(-32, 32);
+          int y = random.nextInt(64);
+          int z = random.nextInt(-32, 32);
+          Long value = blockMap.get(WORLD, x, y, z);
+          if (value != null && value != encode(x, y, z)) {
+            mismatches.incrementAndGet();
+          }
+        }
+      }));
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < 200_000; ++i) {
+      int x = random.nextInt(-32, 32);
+      int y = random.nextInt(64);
+      int z = random.nextInt(-32, 32);
+      if (random.nextInt(4) == 0) {
+        blockMap.remove(WORLD, x, y, z);
+      } else {
+        blockMap.put(WORLD, x, y, z, encode(x, y, z));
+      }
+    }
+    done.set(true);
+    readers.forEach(CompletableFuture::join);
+
+    assertThat("Readers should never see another block's value", mismatches.get(), is(0));
+  }
+
+  @DisplayName("Chunk removal should be atomic")
+  @Test
+  void testConcurrentChunkRemoval() {
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicInteger removed = new AtomicInteger();
+    CompletableFuture<Void> remover = CompletableFuture.runAsync(() -> {
+      while (!done.get()) {
+        removed.addAndGet(blockMap.remove(WORLD, 0, 0).size());
+      }
+    });
+
+    int writers = 4;
+    int perWriter = 16 * 16 * 64;
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int writer = 0; writer < writers; ++writer) {
+      int yOffset = writer * 64;
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (int i = 0; i < perWriter; ++i) {
+          int x = i & 0xF;
+          int z = (i >> 4) & 0xF;
+          int y = yOffset + (i >> 8);
+          blockMap.put(WORLD, x, y, z, encode(x, y, z));
+        }
+      }));
+    }
+    futures.forEach(CompletableFuture::join);
+    done.set(true);
+    remover.join();
+
+    int[] remaining = new int[1];
+    blockMap.forEach((world, x, y, z, value) -> ++remaining[0]);
+
+    assertThat(
+        "Every value should be removed exactly once or remain",
+        removed.get() + remaining[0],
+        is(writers * perWriter));
+  }
+
+  private static long encode(int x, int y, int z) {
+    return ((long) x * 1_000_003 + y) * 1_000_003 + z;
+  }
+
+}
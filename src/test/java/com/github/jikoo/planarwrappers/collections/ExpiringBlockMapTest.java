@@ -0,0 +1,143 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.BlockMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+
+@DisplayName("Feature: Map objects to blocks with expiration")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExpiringBlockMapTest {
+
+  World world;
+  List<String> evicted;
+  ExpiringBlockMap<String> blockMap;
+
+  @BeforeAll
+  void beforeAll() {
+    String worldName = "world";
+    world = WorldMocks.newWorld(worldName);
+    Server server = ServerMocks.newServer();
+    when(server.getWorld(worldName)).thenReturn(world);
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    evicted = new ArrayList<>();
+    blockMap = new ExpiringBlockMap<>((worldName, x, y, z, value) -> evicted.add(value));
+  }
+
+  private void tick(int ticks) {
+    for (int i = 0; i < ticks; ++i) {
+      blockMap.tick();
+    }
+  }
+
+  @DisplayName("Mappings should expire and notify the listener")
+  @Test
+  void testExpire() {
+    Block block = BlockMocks.newBlock(world, 0, 0, 0);
+    assertThat("Previous value should be null", blockMap.put(block, "value", 10), nullValue());
+    assertThat("Value should be set", blockMap.get(block), is("value"));
+    assertThat(
+        "Remaining time should be tracked",
+        blockMap.getRemainingTicks("world", 0, 0, 0),
+        is(10L));
+
+    tick(9);
+    assertThat("Mapping should not expire early", blockMap.containsKey(block));
+    tick(1);
+    assertThat("Mapping should expire", !blockMap.containsKey(block));
+    assertThat("Listener should be notified", evicted, contains("value"));
+    assertThat("Map should be empty", blockMap.isEmpty());
+  }
+
+  @DisplayName("Durations should be converted to ticks")
+  @Test
+  void testDuration() {
+    blockMap.put("world", 1, 2, 3, "value", 1, TimeUnit.SECONDS);
+    assertThat(
+        "Duration should be converted",
+        blockMap.getRemainingTicks("world", 1, 2, 3),
+        is(20L));
+    assertThat(
+        "Missing mappings should have no time",
+        blockMap.getRemainingTicks("world", 0, 0, 0),
+        is(-1L));
+  }
+
+  @DisplayName("Replaced, removed, and cleared mappings should not notify the listener")
+  @Test
+  void testReplace() {
+    blockMap.put("world", 0, 0, 0, "first", 5);
+    assertThat(
+        "Previous value should be returned",
+        blockMap.put("world", 0, 0, 0, "second", 20),
+        is("first"));
+    blockMap.put("world", 1, 0, 0, "removed", 5);
+    assertThat("Value should be removed", blockMap.remove("world", 1, 0, 0), is("removed"));
+    blockMap.put("world", 2, 0, 0, "touched", 5);
+    assertThat("Existing mapping should be touched", blockMap.touch("world", 2, 0, 0, 30));
+    assertThat("Missing mapping should not be touched", !blockMap.touch("world", 3, 0, 0, 30));
+
+    tick(20);
+    assertThat("Only replacement should expire", evicted, contains("second"));
+    assertThat("Size should be tracked", blockMap.size(), is(1));
+
+    blockMap.clear();
+    tick(20);
+    assertThat("Cleared mappings should not expire", blockMap.get("world", 2, 0, 0), nullValue());
+    assertThat("Cleared mappings should not notify", evicted, contains("second"));
+
+    List<String> values = new ArrayList<>();
+    blockMap.forEach((worldName, x, y, z, value) -> values.add(value));
+    assertThat("Map should be empty", values, is(empty()));
+  }
+
+  @DisplayName("Map should tick with the scheduler")
+  @Test
+  void testSchedule() {
+    BukkitScheduler scheduler = mock(BukkitScheduler.class);
+    ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+    when(scheduler.scheduleSyncRepeatingTask(any(), runnable.capture(), anyLong(), anyLong()))
+        .thenReturn(2);
+    Server server = mock(Server.class);
+    doReturn(scheduler).when(server).getScheduler();
+    Plugin plugin = mock(Plugin.class);
+    doReturn(server).when(plugin).getServer();
+
+    blockMap.schedule(plugin);
+    blockMap.put("world", 0, 0, 0, "value", 1);
+    runnable.getValue().run();
+    assertThat("Scheduled task should tick map", evicted, contains("value"));
+
+    blockMap.cancel(plugin);
+    verify(scheduler).cancelTask(2);
+  }
+
+}
@@ -0,0 +1,150 @@
+package com.github.jikoo.planarwrappers.collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Feature: Primitive long-keyed hash map")
+class LongObjectMapTest {
+
+  /** Table size of a map constructed with default capacity. */
+  private static final int DEFAULT_TABLE_SIZE = 8;
+
+  @DisplayName("Removal should keep wrapped probe runs reachable")
+  @Test
+  void testWrappedCollisions() {
+    // Keys hashing to the final slot wrap around to the start of the table, where a key hashing to
+    // the first slot sits in the middle of the run. It must not be shifted back past its own slot.
+    long[] last = keysForSlot(DEFAULT_TABLE_SIZE - 1, 3);
+    long first = keysForSlot(0, 1)[0];
+    LongObjectMap<String> map = new LongObjectMap<>();
+    map.put(last[0], "last " + last[0]);
+    map.put(first, "first");
+    map.put(last[1], "last " + last[1]);
+    map.put(last[2], "last " + last[2]);
+
+    assertThat("Removed value should be returned", map.remove(last[0]), is("last " + last[0]));
+    assertThat("Removed key should be absent", !map.containsKey(last[0]));
+    assertThat("Wrapped key should be found", map.get(last[1]), is("last " + last[1]));
+    assertThat("Wrapped key should be found", map.get(last[2]), is("last " + last[2]));
+    assertThat("Key inside wrapped run should be found", map.get(first), is("first"));
+
+    assertThat("Removed value should be returned", map.remove(last[2]), is("last " + last[2]));
+    assertThat("Key inside wrapped run should be found", map.get(first), is("first"));
+    assertThat("Remaining key should be found", map.get(last[1]), is("last " + last[1]));
+    assertThat("Size should be tracked", map.size(), is(2));
+    assertThat("Missing key should not be removed", map.remove(last[0]), nullValue());
+  }
+
+  @DisplayName("Zero key should be stored separately from the table")
+  @Test
+  void testZeroKey() {
+    LongObjectMap<String> map = new LongObjectMap<>();
+    assertThat("Zero key should not be present", !map.containsKey(0));
+    assertThat("Null value should be stored", map.put(0, null), nullValue());
+    assertThat("Zero key should be present", map.containsKey(0));
+    assertThat("Previous value should be returned", map.put(0, "zero"), nullValue());
+    assertThat("Size should count zero key", map.size(), is(1));
+
+    for (long key = 1; key <= 100; ++key) {
+      map.put(key, "value " + key);
+    }
+    assertThat("Zero key should survive growth", map.get(0), is("zero"));
+
+    int[] zeroVisits = new int[1];
+    map.forEach((key, value) -> {
+      if (key == 0) {
+        ++zeroVisits[0];
+        assertThat("Zero key value should be visited", value, is("zero"));
+      }
+    });
+    assertThat("Zero key should be visited once", zeroVisits[0], is(1));
+
+    assertThat("Zero key value should be removed", map.remove(0), is("zero"));
+    assertThat("Zero key should not be present", !map.containsKey(0));
+    assertThat("Zero key should not be removed twice", map.remove(0), nullValue());
+    assertThat("Size should be tracked", map.size(), is(100));
+  }
+
+  @DisplayName("Map should match a reference map under random churn")
+  @Test
+  void testRandomChurn() {
+    LongObjectMap<Integer> map = new LongObjectMap<>();
+    Map<Long, Integer> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; ++i) {
+      // A small key range forces frequent collisions, removals and resizes in both directions.
+      long key = random.nextInt(512) - 256;
+      if (random.nextInt(3) == 0) {
+        assertThat("Removed value should match", map.remove(key), is(expected.remove(key)));
+      } else {
+        assertThat("Previous value should match", map.put(key, i), is(expected.put(key, i)));
+      }
+    }
+
+    assertThat("Size should match", map.size(), is(expected.size()));
+    for (long key = -256; key < 256; ++key) {
+      assertThat("Value should match", map.get(key), is(expected.get(key)));
+    }
+    int[] count = new int[1];
+    map.forEach((key, value) -> {
+      assertThat("Entry should match", value, is(expected.get(key)));
+      ++count[0];
+    });
+    assertThat("All entries should be visited", count[0], is(expected.size()));
+  }
+
+  @DisplayName("Table should grow and shrink back to its requested capacity")
+  @Test
+  void testGrowAndShrink() {
+    LongObjectMap<String> map = new LongObjectMap<>(100);
+    long initial = map.memoryFootprint();
+    for (long key = 1; key <= 10_000; ++key) {
+      map.put(key, "value");
+    }
+    assertThat("Table should grow", map.memoryFootprint(), greaterThan(initial));
+
+    for (long key = 1; key <= 10_000; ++key) {
+      map.remove(key);
+    }
+    assertThat("Map should be empty", map.isEmpty());
+    assertThat("Table should shrink to requested capacity", map.memoryFootprint(), is(initial));
+
+    map.put(1, "one");
+    map.put(2, "two");
+    assertThat("Trim should ignore requested capacity", map.trim());
+    assertThat("Trim should shrink table", map.memoryFootprint(), lessThan(initial));
+    assertThat("Trimmed table should not be trimmed again", !map.trim());
+    assertThat("Trim should retain entries", map.get(1), is("one"));
+    assertThat("Trim should retain entries", map.get(2), is("two"));
+
+    assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<>(-1));
+  }
+
+  /**
+   * Find non-zero keys that hash to a slot of a map with the default table size. Mirrors the hash
+   * mixing of {@link LongObjectMap}.
+   */
+  private static long[] keysForSlot(int slot, int count) {
+    long[] keys = new long[count];
+    int found = 0;
+    for (long key = 1; found < count; ++key) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 32;
+      if (((int) (hash ^ (hash >>> 16)) & DEFAULT_TABLE_SIZE - 1) == slot) {
+        keys[found++] = key;
+      }
+    }
+    return keys;
+  }
+
+}
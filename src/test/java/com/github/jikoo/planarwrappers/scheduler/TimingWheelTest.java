@@ -0,0 +1,103 @@
+package com.github.jikoo.planarwrappers.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Feature: Expire elements by tick")
+class TimingWheelTest {
+
+  @DisplayName("Elements should expire on the tick they are due")
+  @ParameterizedTest
+  @ValueSource(longs = { 1, 63, 64, 65, 4095, 4096, 262_145, 16_777_300 })
+  void testExpiry(long delay) {
+    TimingWheel<String> wheel = new TimingWheel<>();
+    // Start off a wheel boundary so that higher wheels are entered mid-rotation.
+    wheel.advance(37, value -> {});
+    long expected = wheel.getTick() + delay;
+    TimingWheel.Entry<String> entry = wheel.schedule("value", delay);
+    assertThat("Expiry should be calculated", entry.getExpiry(), is(expected));
+
+    List<Long> expiredAt = new ArrayList<>();
+    wheel.advance(delay + 64, value -> expiredAt.add(wheel.getTick()));
+
+    assertThat("Element should expire once when due", expiredAt, contains(expected));
+    assertThat("Entry should no longer be scheduled", !entry.isScheduled());
+    assertThat("Wheel should be empty", wheel.size(), is(0));
+  }
+
+  @DisplayName("Delays under one tick should expire on the next tick")
+  @Test
+  void testImmediate() {
+    TimingWheel<String> wheel = new TimingWheel<>();
+    wheel.schedule("value", -5);
+    List<String> expired = new ArrayList<>();
+    wheel.advance(expired::add);
+    assertThat("Element should expire", expired, contains("value"));
+  }
+
+  @DisplayName("Cancelled elements should not expire")
+  @Test
+  void testCancel() {
+    TimingWheel<String> wheel = new TimingWheel<>();
+    TimingWheel.Entry<String> entry = wheel.schedule("value", 100);
+    assertThat("Size should be tracked", wheel.size(), is(1));
+    assertThat("Entry should be cancelled", wheel.cancel(entry));
+    assertThat("Entry should not be cancelled twice", !wheel.cancel(entry));
+
+    List<String> expired = new ArrayList<>();
+    wheel.advance(200, expired::add);
+    assertThat("Cancelled element should not expire", expired, is(empty()));
+    TimingWheel.Entry<String> other = wheel.schedule("other", 1);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new TimingWheel<String>().cancel(other),
+        "Entries from other wheels should be rejected");
+  }
+
+  @DisplayName("Rescheduled elements should expire on their new tick")
+  @Test
+  void testReschedule() {
+    TimingWheel<String> wheel = new TimingWheel<>();
+    TimingWheel.Entry<String> entry = wheel.schedule("value", 5000);
+    wheel.advance(10, value -> {});
+    wheel.reschedule(entry, 3);
+
+    List<Long> expiredAt = new ArrayList<>();
+    wheel.advance(6000, value -> expiredAt.add(wheel.getTick()));
+    assertThat("Element should expire once at new tick", expiredAt, contains(13L));
+
+    wheel.reschedule(entry, 1);
+    assertThat("Expired entry should be scheduled again", entry.isScheduled());
+    assertThat("Size should be tracked", wheel.size(), is(1));
+  }
+
+  @DisplayName("Elements expiring together may be cancelled during expiry")
+  @Test
+  void testCancelDuringExpiry() {
+    TimingWheel<String> wheel = new TimingWheel<>();
+    List<TimingWheel.Entry<String>> entries = new ArrayList<>();
+    for (int i = 0; i < 5; ++i) {
+      entries.add(wheel.schedule("value" + i, 10));
+    }
+
+    List<String> expired = new ArrayList<>();
+    wheel.advance(10, value -> {
+      expired.add(value);
+      entries.forEach(wheel::cancel);
+    });
+
+    assertThat("Only one element should expire", expired.size(), is(1));
+    assertThat("Wheel should be empty", wheel.size(), is(0));
+  }
+
+}
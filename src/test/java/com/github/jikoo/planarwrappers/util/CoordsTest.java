@@ -98,6 +98,31 @@ class CoordsTest {
     assertThat("Value reverts as expected", revert.applyAsInt(expectedConvert), is(expectedRevert));
   }
 
+  @DisplayName("Packed chunk keys should unpack to the original coordinates")
+  @ParameterizedTest
+  @CsvSource({"0,0", "-1,-1", "1,-1", "2147483647,-2147483648", "-1875000,1875000"})
+  void testPackChunk(int chunkX, int chunkZ) {
+    long key = Coords.packChunk(chunkX, chunkZ);
+    assertThat("X value must unpack correctly", Coords.unpackChunkX(key), is(chunkX));
+    assertThat("Z value must unpack correctly", Coords.unpackChunkZ(key), is(chunkZ));
+  }
+
+  @DisplayName("Packed block keys should unpack to the original coordinates")
+  @ParameterizedTest
+  @CsvSource({
+    "0,0,0",
+    "-1,-1,-1",
+    "15,-64,-16",
+    "30000000,2047,-30000000",
+    "-33554432,-2048,33554431"
+  })
+  void testPackBlock(int x, int y, int z) {
+    long key = Coords.packBlock(x, y, z);
+    assertThat("X value must unpack correctly", Coords.unpackBlockX(key), is(x));
+    assertThat("Y value must unpack correctly", Coords.unpackBlockY(key), is(y));
+    assertThat("Z value must unpack correctly", Coords.unpackBlockZ(key), is(z));
+  }
+
   @DisplayName("Valid MCA file names should be converted to chunk coordinates")
   @ParameterizedTest
   @CsvSource({
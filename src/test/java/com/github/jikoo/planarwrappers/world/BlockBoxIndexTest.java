@@ -0,0 +1,161 @@
+package com.github.jikoo.planarwrappers.world;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Feature: Index values by block-based bounding box")
+class BlockBoxIndexTest {
+
+  @DisplayName("Empty index must not find values.")
+  @Test
+  void testEmpty() {
+    BlockBoxIndex<String> index = new BlockBoxIndex<>();
+
+    assertThat("Index must be empty", index.isEmpty());
+    assertThat("Query must be empty", index.query(0, 0, 0).isEmpty());
+    assertThat("Intersecting must be empty",
+        index.intersecting(new BlockBox(0, 0, 0, 10, 10, 10)).isEmpty());
+    assertThat("Nearest must be null", index.nearest(0, 0, 0), is(nullValue()));
+    assertThat("Removal must fail", index.remove(new BlockBox(0, 0, 0, 0, 0, 0), ""), is(false));
+  }
+
+  @DisplayName("Index must find boxes by block, region and distance.")
+  @Test
+  void testLookups() {
+    BlockBoxIndex<String> index = new BlockBoxIndex<>();
+    index.insert(new BlockBox(0, 0, 0, 9, 9, 9), "a");
+    index.insert(new BlockBox(5, 5, 5, 14, 14, 14), "b");
+    index.insert(new BlockBox(100, 0, 100, 109, 9, 109), "c");
+
+    assertThat("Size must match", index.size(), is(3));
+    assertThat("Block in one box must find it", index.query(0, 0, 0), is(List.of("a")));
+    assertThat("Block in overlap must find both",
+        new HashSet<>(index.query(7, 7, 7)), is(Set.of("a", "b")));
+    assertThat("Block outside boxes must find nothing", index.query(50, 0, 50).isEmpty());
+    assertThat("Intersecting must find overlapping boxes",
+        new HashSet<>(index.intersecting(new BlockBox(12, 0, 12, 100, 9, 100))),
+        is(Set.of("b", "c")));
+    assertThat("Nearest must find closest box", index.nearest(90, 5, 90), is("c"));
+    assertThat("Nearest must find containing box", index.nearest(1, 1, 1), is("a"));
+  }
+
+  @DisplayName("Removal must remove a single matching mapping.")
+  @Test
+  void testRemove() {
+    BlockBoxIndex<String> index = new BlockBoxIndex<>();
+    BlockBox box = new BlockBox(0, 0, 0, 9, 9, 9);
+    index.insert(box, "a");
+    index.insert(box, "b");
+    index.insert(box, "b");
+
+    assertThat("Removal with other value must fail", index.remove(box, "c"), is(false));
+    assertThat("Removal with other box must fail",
+        index.remove(new BlockBox(0, 0, 0, 9, 9, 8), "a"), is(false));
+    assertThat("Removal must succeed", index.remove(box, "b"), is(true));
+    assertThat("Duplicate must remain",
+        new HashSet<>(index.query(0, 0, 0)), is(Set.of("a", "b")));
+    assertThat("Size must match", index.size(), is(2));
+
+    index.clear();
+    assertThat("Cleared index must be empty", index.isEmpty());
+    assertThat("Cleared index must not find values", index.query(0, 0, 0).isEmpty());
+  }
+
+  @DisplayName("Index must stay balanced when boxes are inserted beside branches.")
+  @Test
+  void testBalancedInsertion() {
+    BlockBoxIndex<Integer> index = new BlockBoxIndex<>();
+    int count = 0;
+    for (int i = 0; i < 1024; ++i) {
+      index.insert(new BlockBox(i * 16, 0, 0, i * 16 + 7, 7, 7), count++);
+    }
+    assertThat("Sorted insertion must stay balanced", index.isBalanced());
+    assertThat("Sorted insertion must stay logarithmic",
+        index.height(), is(lessThanOrEqualTo(2 * log2(index.size()))));
+
+    // Boxes enclosing a run of sorted boxes fit best beside the branch holding the run, so the
+    // new branch pairs a tall subtree with a single leaf.
+    for (int span = 2; span <= 1024; span *= 2) {
+      for (int start = 0; start < 1024; start += span) {
+        index.insert(
+            new BlockBox(start * 16 - 1, -1, -1, (start + span) * 16 - 8, 8, 8), count++);
+        assertThat("Insertion beside a branch must stay balanced", index.isBalanced());
+      }
+    }
+    assertThat("Insertion beside branches must stay logarithmic",
+        index.height(), is(lessThanOrEqualTo(2 * log2(index.size()))));
+  }
+
+  @DisplayName("Index must match a linear scan after random changes.")
+  @Test
+  void testRandomChanges() {
+    Random random = new Random(0);
+    BlockBoxIndex<Integer> index = new BlockBoxIndex<>();
+    List<BlockBox> boxes = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+
+    for (int operation = 0; operation < 2000; ++operation) {
+      if (boxes.isEmpty() || random.nextInt(3) != 0) {
+        int x = random.nextInt(512);
+        int y = random.nextInt(128);
+        int z = random.nextInt(512);
+        BlockBox box = new BlockBox(
+            x, y, z, x + random.nextInt(32), y + random.nextInt(32), z + random.nextInt(32));
+        index.insert(box, operation);
+        boxes.add(box);
+        values.add(operation);
+      } else {
+        int removed = random.nextInt(boxes.size());
+        assertThat("Removal must succeed",
+            index.remove(boxes.remove(removed), values.remove(removed)));
+      }
+    }
+
+    assertThat("Size must match", index.size(), is(boxes.size()));
+    assertThat("Tree must be balanced", index.isBalanced());
+    assertThat("Height must be logarithmic", index.height(), is(lessThanOrEqualTo(
+        2 * log2(boxes.size()))));
+
+    for (int query = 0; query < 500; ++query) {
+      int x = random.nextInt(576) - 32;
+      int y = random.nextInt(192) - 32;
+      int z = random.nextInt(576) - 32;
+      Set<Integer> expected = new HashSet<>();
+      long nearest = Long.MAX_VALUE;
+      for (int i = 0; i < boxes.size(); ++i) {
+        BlockBox box = boxes.get(i);
+        if (box.contains(x, y, z)) {
+          expected.add(values.get(i));
+        }
+        nearest = Math.min(nearest, distanceSquared(box, x, y, z));
+      }
+
+      assertThat("Query must match", new HashSet<>(index.query(x, y, z)), is(expected));
+      Integer value = index.nearest(x, y, z);
+      assertThat("Nearest must match",
+          distanceSquared(boxes.get(values.indexOf(value)), x, y, z), is(nearest));
+    }
+  }
+
+  private static int log2(int value) {
+    return 32 - Integer.numberOfLeadingZeros(value);
+  }
+
+  private static long distanceSquared(BlockBox box, int x, int y, int z) {
+    long dx = Math.max(0, Math.max(box.getMinX() - x, x - box.getMaxX()));
+    long dy = Math.max(0, Math.max(box.getMinY() - y, y - box.getMaxY()));
+    long dz = Math.max(0, Math.max(box.getMinZ() - z, z - box.getMaxZ()));
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+}
@@ -0,0 +1,130 @@
+package com.github.jikoo.planarwrappers.world;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Feature: Combine block-based bounding boxes")
+class BlockBoxSetTest {
+
+  @DisplayName("Adding overlapping boxes must count shared blocks once.")
+  @Test
+  void testAdd() {
+    BlockBoxSet set = new BlockBoxSet();
+    set.add(new BlockBox(0, 0, 0, 9, 9, 9));
+    set.add(new BlockBox(5, 5, 5, 14, 14, 14));
+
+    assertThat("Volume must exclude overlap", set.volume(), is(2000L - 125L));
+    assertThat("Block in first box must be contained", set.contains(0, 0, 0));
+    assertThat("Block in second box must be contained", set.contains(14, 14, 14));
+    assertThat("Block outside boxes must not be contained", set.contains(14, 0, 0), is(false));
+    assertThat("Bounds must cover both boxes", set.getBounds(),
+        is(new BlockBox(0, 0, 0, 14, 14, 14)));
+  }
+
+  @DisplayName("Adjacent boxes must be merged.")
+  @Test
+  void testMerge() {
+    BlockBoxSet set = new BlockBoxSet();
+    for (int y = 0; y < 8; ++y) {
+      set.add(new BlockBox(0, y, 0, 7, y, 7));
+    }
+
+    assertThat("Layers must merge into a single box", set.size(), is(1));
+    assertThat("Box must cover layers", set.getBoxes(),
+        is(List.of(new BlockBox(0, 0, 0, 7, 7, 7))));
+
+    BlockBox hole = new BlockBox(2, 2, 2, 4, 4, 4);
+    set.subtract(hole);
+    assertThat("Hole must be removed", set.contains(3, 3, 3), is(false));
+    assertThat("Volume must exclude hole", set.volume(), is(512L - 27L));
+
+    set.add(hole);
+    assertThat("Filled hole must merge back into a single box", set.size(), is(1));
+  }
+
+  @DisplayName("Intersection must retain only shared blocks.")
+  @Test
+  void testIntersect() {
+    BlockBoxSet set = new BlockBoxSet();
+    set.add(new BlockBox(0, 0, 0, 9, 0, 9));
+    set.add(new BlockBox(20, 0, 0, 29, 0, 9));
+
+    BlockBoxSet other = new BlockBoxSet();
+    other.add(new BlockBox(5, 0, 5, 24, 0, 5));
+    set.intersect(other);
+
+    assertThat("Volume must be shared blocks", set.volume(), is(10L));
+    assertThat("Shared block must be retained", set.contains(7, 0, 5));
+    assertThat("Unshared block must be removed", set.contains(7, 0, 6), is(false));
+
+    set.intersect(new BlockBox(100, 100, 100, 101, 101, 101));
+    assertThat("Disjoint intersection must empty set", set.isEmpty());
+    assertThat("Empty set must have no bounds", set.getBounds(), is(nullValue()));
+  }
+
+  @DisplayName("Set must match individual blocks after random operations.")
+  @Test
+  void testRandomOperations() {
+    int size = 16;
+    Random random = new Random(0);
+    BlockBoxSet set = new BlockBoxSet();
+    boolean[][][] expected = new boolean[size][size][size];
+
+    for (int operation = 0; operation < 100; ++operation) {
+      BlockBox box = new BlockBox(
+          random.nextInt(size), random.nextInt(size), random.nextInt(size),
+          random.nextInt(size), random.nextInt(size), random.nextInt(size));
+      boolean add = random.nextInt(3) != 0;
+      if (add) {
+        set.add(box);
+      } else {
+        set.subtract(box);
+      }
+      box.forEachBlock((x, y, z) -> expected[x][y][z] = add);
+    }
+
+    long volume = 0;
+    for (int x = 0; x < size; ++x) {
+      for (int y = 0; y < size; ++y) {
+        for (int z = 0; z < size; ++z) {
+          assertThat("Containment must match", set.contains(x, y, z), is(expected[x][y][z]));
+          if (expected[x][y][z]) {
+            ++volume;
+          }
+        }
+      }
+    }
+    assertThat("Volume must match", set.volume(), is(volume));
+
+    List<BlockBox> boxes = set.getBoxes();
+    for (int i = 0; i < boxes.size(); ++i) {
+      for (int j = i + 1; j < boxes.size(); ++j) {
+        assertThat("Boxes must be disjoint", boxes.get(i).intersects(boxes.get(j)), is(false));
+      }
+    }
+  }
+
+  @DisplayName("Box queries must consider all boxes in the set.")
+  @Test
+  void testBoxQueries() {
+    BlockBoxSet set = new BlockBoxSet();
+    set.add(new BlockBox(0, 0, 0, 4, 0, 0));
+    set.add(new BlockBox(5, 0, 0, 9, 0, 0));
+    set.add(new BlockBox(0, 1, 0, 3, 1, 0));
+
+    assertThat("Box spanning parts must be contained",
+        set.contains(new BlockBox(2, 0, 0, 7, 0, 0)));
+    assertThat("Box with gap must not be contained", set.contains(new BlockBox(0, 0, 0, 9, 1, 0)),
+        is(false));
+    assertThat("Overlapping box must intersect", set.intersects(new BlockBox(9, 0, 0, 20, 0, 0)));
+    assertThat("Distant box must not intersect", set.intersects(new BlockBox(0, 5, 0, 9, 5, 0)),
+        is(false));
+  }
+
+}
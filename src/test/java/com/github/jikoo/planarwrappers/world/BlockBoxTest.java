@@ -3,16 +3,23 @@ package com.github.jikoo.planarwrappers.world;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.github.jikoo.planarwrappers.function.TriConsumer;
 import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import com.github.jikoo.planarwrappers.util.Coords;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -363,6 +370,139 @@ class BlockBoxTest {
             boxB.getMinZ()));
   }
 
+  @DisplayName("Bounding box subtraction must leave disjoint remaining parts.")
+  @Test
+  void testSubtract() {
+    BlockBox box = new BlockBox(0, 0, 0, 9, 9, 9);
+    BlockBox hole = new BlockBox(3, 3, 3, 5, 5, 5);
+    List<BlockBox> parts = box.subtract(hole);
+
+    assertThat("Hole must split into six parts", parts.size(), is(6));
+    int volume = 0;
+    for (int i = 0; i < parts.size(); ++i) {
+      BlockBox part = parts.get(i);
+      volume += part.getVolume();
+      assertThat("Part must be within box", box.contains(part));
+      assertThat("Part must not overlap hole", part.intersects(hole), is(false));
+      for (int j = i + 1; j < parts.size(); ++j) {
+        assertThat("Parts must be disjoint", part.intersects(parts.get(j)), is(false));
+      }
+    }
+    assertThat("Parts must cover remainder", volume, is(box.getVolume() - hole.getVolume()));
+
+    assertThat(
+        "Disjoint subtraction must not change box",
+        box.subtract(new BlockBox(20, 20, 20, 21, 21, 21)),
+        is(List.of(box)));
+    assertThat(
+        "Covering subtraction must leave nothing",
+        hole.subtract(box),
+        is(List.of()));
+  }
+
+  @DisplayName("Bounding box must visit each contained block once with X innermost.")
+  @Test
+  void testForEachBlock() {
+    BlockBox box = new BlockBox(-2, 10, 14, 3, 12, 17);
+    List<List<Integer>> expected = new ArrayList<>();
+    for (int y = 10; y <= 12; ++y) {
+      for (int z = 14; z <= 17; ++z) {
+        for (int x = -2; x <= 3; ++x) {
+          expected.add(List.of(x, y, z));
+        }
+      }
+    }
+
+    List<List<Integer>> visited = new ArrayList<>();
+    box.forEachBlock((x, y, z) -> visited.add(List.of(x, y, z)));
+    assertThat("Blocks must be visited in order", visited, is(expected));
+  }
+
+  @DisplayName("Bounding box must visit each contained block once grouped by chunk section.")
+  @Test
+  void testForEachBlockBySection() {
+    BlockBox box = new BlockBox(-20, -3, 5, 20, 40, 18);
+    Set<List<Integer>> expected = new HashSet<>();
+    box.forEachBlock((x, y, z) -> expected.add(List.of(x, y, z)));
+
+    List<List<Integer>> visited = new ArrayList<>();
+    List<List<Integer>> sections = new ArrayList<>();
+    box.forEachBlockBySection((x, y, z) -> {
+      visited.add(List.of(x, y, z));
+      List<Integer> section = List.of(x >> 4, y >> 4, z >> 4);
+      if (sections.isEmpty() || !sections.get(sections.size() - 1).equals(section)) {
+        sections.add(section);
+      }
+    });
+
+    assertThat("Blocks must be visited once", visited.size(), is(box.getVolume()));
+    assertThat("All blocks must be visited", new HashSet<>(visited), is(expected));
+    assertThat(
+        "Each section must be visited once",
+        new HashSet<>(sections).size(),
+        is(sections.size()));
+  }
+
+  @DisplayName("Bounding box must visit each overlapping chunk once.")
+  @Test
+  void testForEachChunk() {
+    BlockBox box = new BlockBox(-17, 0, 15, 16, 0, 16);
+    List<List<Integer>> visited = new ArrayList<>();
+    box.forEachChunk((chunkX, chunkZ) -> visited.add(List.of(chunkX, chunkZ)));
+
+    List<List<Integer>> expected = List.of(
+        List.of(-2, 0), List.of(-1, 0), List.of(0, 0), List.of(1, 0),
+        List.of(-2, 1), List.of(-1, 1), List.of(0, 1), List.of(1, 1));
+    assertThat("Chunks must be visited in order", visited, is(expected));
+  }
+
+  @DisplayName("Bounding box spliterator must cover each contained block once when split.")
+  @Test
+  void testSpliterator() {
+    BlockBox box = new BlockBox(-40, -64, -3, 70, 0, 9);
+    BlockBoxSpliterator spliterator = box.spliterator();
+    assertThat("Size must be volume", spliterator.estimateSize(), is((long) box.getVolume()));
+
+    BlockBoxSpliterator prefix = spliterator.trySplit();
+    assertThat("Spliterator must split", prefix, is(notNullValue()));
+    assertThat(
+        "Split must preserve size",
+        prefix.estimateSize() + spliterator.estimateSize(),
+        is((long) box.getVolume()));
+
+    Set<Long> expected = new HashSet<>();
+    box.forEachBlock((x, y, z) -> expected.add(Coords.packBlock(x, y, z)));
+    Set<Long> visited = StreamSupport.longStream(box.spliterator(), true)
+        .boxed()
+        .collect(Collectors.toSet());
+    assertThat("All blocks must be visited", visited, is(expected));
+    assertThat(
+        "Blocks must be visited once",
+        StreamSupport.longStream(box.spliterator(), true).count(),
+        is((long) box.getVolume()));
+  }
+
+  @DisplayName("Bounding box spliterator must not split once traversal has started.")
+  @Test
+  void testSpliteratorStarted() {
+    BlockBoxSpliterator spliterator = new BlockBox(0, 0, 0, 3, 3, 3).spliterator();
+    List<List<Integer>> visited = new ArrayList<>();
+    assertThat(
+        "Spliterator must advance",
+        spliterator.tryAdvance((x, y, z) -> visited.add(List.of(x, y, z))));
+    assertThat("Started spliterator must not split", spliterator.trySplit(), is(nullValue()));
+    assertThat("Remaining size must decrease", spliterator.estimateSize(), is(63L));
+
+    spliterator.forEachRemaining((x, y, z) -> visited.add(List.of(x, y, z)));
+    assertThat("All blocks must be visited", visited.size(), is(64));
+    assertThat("First block must be minimum corner", visited.get(0), is(List.of(0, 0, 0)));
+    assertThat("Last block must be maximum corner", visited.get(63), is(List.of(3, 3, 3)));
+    assertThat(
+        "Exhausted spliterator must not advance",
+        spliterator.tryAdvance((x, y, z) -> visited.add(List.of(x, y, z))),
+        is(false));
+  }
+
   @DisplayName("Bounding box intersection must be overlapping area.")
   @ParameterizedTest
   @MethodSource("getIntersections")
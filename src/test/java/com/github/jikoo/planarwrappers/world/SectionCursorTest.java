@@ -0,0 +1,58 @@
+package com.github.jikoo.planarwrappers.world;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Feature: Traverse block-based bounding boxes by chunk section")
+class SectionCursorTest {
+
+  @DisplayName("Cursor must complete each chunk's sections before the next chunk.")
+  @Test
+  void testOrder() {
+    BlockBox box = new BlockBox(-1, 15, 15, 16, 16, 16);
+    List<List<Integer>> sections = new ArrayList<>();
+    int volume = 0;
+    for (SectionCursor cursor = new SectionCursor(box); cursor.hasSection(); cursor.advance()) {
+      int[] first = new int[3];
+      int[] count = new int[1];
+      cursor.forEachBlock((x, y, z) -> {
+        if (count[0]++ == 0) {
+          first[0] = x;
+          first[1] = y;
+          first[2] = z;
+        }
+      });
+      assertThat("Volume must match blocks visited", cursor.getVolume(), is(count[0]));
+      volume += count[0];
+      sections.add(List.of(first[0] >> 4, first[1] >> 4, first[2] >> 4));
+    }
+
+    // Chunks in rows along X, then sections from the bottom up within each chunk.
+    List<List<Integer>> expected = List.of(
+        List.of(-1, 0, 0), List.of(-1, 1, 0),
+        List.of(0, 0, 0), List.of(0, 1, 0),
+        List.of(1, 0, 0), List.of(1, 1, 0),
+        List.of(-1, 0, 1), List.of(-1, 1, 1),
+        List.of(0, 0, 1), List.of(0, 1, 1),
+        List.of(1, 0, 1), List.of(1, 1, 1));
+    assertThat("Sections must be visited in order", sections, is(expected));
+    assertThat("All blocks must be visited", volume, is(box.getVolume()));
+  }
+
+  @DisplayName("Cursor must visit a box within a single section once.")
+  @Test
+  void testSingleSection() {
+    SectionCursor cursor = new SectionCursor(new BlockBox(1, 2, 3, 4, 5, 6));
+
+    assertThat("Cursor must start at a section", cursor.hasSection());
+    assertThat("Volume must match box", cursor.getVolume(), is(64));
+    cursor.advance();
+    assertThat("Cursor must be exhausted", cursor.hasSection(), is(false));
+  }
+
+}
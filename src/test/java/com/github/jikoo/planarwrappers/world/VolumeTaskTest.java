@@ -0,0 +1,193 @@
+package com.github.jikoo.planarwrappers.world;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.jikoo.planarwrappers.mock.ServerMocks;
+import com.github.jikoo.planarwrappers.mock.world.BlockDataMocks;
+import com.github.jikoo.planarwrappers.mock.world.WorldMocks;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+
+@DisplayName("Feature: Apply operations to volumes across ticks")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VolumeTaskTest {
+
+  private World world;
+  private BlockData stone;
+
+  @BeforeAll
+  void beforeAll() {
+    ServerMocks.newServer();
+    world = WorldMocks.newWorld("world");
+    stone = BlockDataMocks.newData(Material.STONE);
+  }
+
+  @DisplayName("Task must process one section per tick when over budget.")
+  @Test
+  void testSectionPerTick() throws ExecutionException, InterruptedException {
+    // Spans 2 chunks on X, 1 on Z, and 2 sections on Y.
+    BlockBox box = new BlockBox(12, 14, 2, 17, 17, 3);
+    VolumeTask<Long> task =
+        new VolumeTask<>(world, box, VolumeOperation.fill(stone), 1, TimeUnit.NANOSECONDS);
+
+    assertThat("Total must be volume", task.getTotalBlocks(), is((long) box.getVolume()));
+    int ticks = 0;
+    double progress = 0;
+    while (!task.getFuture().isDone()) {
+      task.tick();
+      ++ticks;
+      assertThat("Progress must increase", task.getProgress(), greaterThan(progress));
+      progress = task.getProgress();
+    }
+
+    assertThat("Each section must take a tick", ticks, is(4));
+    assertThat("Progress must be complete", task.getProgress(), is(1.0));
+    assertThat("All blocks must be filled", task.getFuture().get(), is((long) box.getVolume()));
+    assertThat("Blocks must be set", world.getBlockAt(17, 17, 3).getType(), is(Material.STONE));
+  }
+
+  @DisplayName("Task must complete in a single tick when within budget.")
+  @Test
+  void testWithinBudget() throws ExecutionException, InterruptedException {
+    BlockBox filled = new BlockBox(0, 0, 20, 1, 1, 21);
+    new VolumeTask<>(world, filled, VolumeOperation.fill(stone), 1, TimeUnit.MINUTES).tick();
+
+    VolumeTask<Long> task = new VolumeTask<>(
+        world,
+        new BlockBox(0, 0, 20, 1, 2, 21),
+        VolumeOperation.count(Set.of(Material.STONE)),
+        1,
+        TimeUnit.MINUTES);
+    task.tick();
+
+    assertThat("Task must be complete", task.getFuture().isDone());
+    assertThat("Matching blocks must be counted", task.getFuture().get(), is(8L));
+  }
+
+  @DisplayName("Replace must only set blocks matching the filter.")
+  @Test
+  void testReplace() throws ExecutionException, InterruptedException {
+    VolumeTask<Long> task = new VolumeTask<>(
+        world,
+        new BlockBox(0, 0, 30, 3, 3, 33),
+        VolumeOperation.replace(block -> block.getY() == 0, stone),
+        1,
+        TimeUnit.MINUTES);
+    task.tick();
+
+    assertThat("Matching blocks must be replaced", task.getFuture().get(), is(16L));
+    assertThat(
+        "Matching block must be set",
+        world.getBlockAt(0, 0, 30).getType(),
+        is(Material.STONE));
+    assertThat(
+        "Other blocks must not be set",
+        world.getBlockAt(0, 1, 30).getType(),
+        is(Material.AIR));
+  }
+
+  @DisplayName("Failing operation must complete the future exceptionally.")
+  @Test
+  void testFailure() {
+    VolumeTask<Long> task = new VolumeTask<>(
+        world,
+        new BlockBox(0, 0, 40, 3, 3, 43),
+        VolumeOperation.replace(block -> {
+          throw new IllegalStateException("Failure");
+        }, stone),
+        1,
+        TimeUnit.MINUTES);
+    task.tick();
+
+    assertThat("Future must fail", task.getFuture().isCompletedExceptionally());
+    ExecutionException exception = assertThrows(ExecutionException.class, task.getFuture()::get);
+    assertThat(
+        "Cause must be operation failure",
+        exception.getCause().getClass(),
+        is(IllegalStateException.class));
+  }
+
+  @DisplayName("Cancelled task must stop processing.")
+  @Test
+  void testCancel() {
+    Plugin plugin = mock(Plugin.class);
+    ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+    BukkitScheduler scheduler = mockScheduler(plugin, runnable);
+
+    VolumeTask<Long> task = new VolumeTask<>(
+        world,
+        new BlockBox(0, 0, 50, 40, 40, 90),
+        VolumeOperation.count(Set.of(Material.STONE)),
+        1,
+        TimeUnit.NANOSECONDS).schedule(plugin);
+    runnable.getValue().run();
+    task.cancel(plugin);
+    long processed = task.getProcessedBlocks();
+    task.tick();
+
+    assertThat("Future must be cancelled", task.getFuture().isCancelled());
+    assertThat("Task must not progress", task.getProcessedBlocks(), is(processed));
+    verify(scheduler).cancelTask(7);
+  }
+
+  @DisplayName("Scheduled task must cancel itself when complete.")
+  @Test
+  void testSchedule() {
+    Plugin plugin = mock(Plugin.class);
+    ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+    BukkitScheduler scheduler = mockScheduler(plugin, runnable);
+
+    VolumeTask<Long> task = new VolumeTask<>(
+        world,
+        new BlockBox(0, 0, 100, 1, 1, 101),
+        VolumeOperation.count(Set.of(Material.STONE)),
+        1,
+        TimeUnit.MINUTES).schedule(plugin);
+    runnable.getValue().run();
+
+    assertThat("Task must be complete", task.getFuture().isDone());
+    verify(scheduler).cancelTask(7);
+  }
+
+  @DisplayName("Budget must be positive.")
+  @Test
+  void testInvalidBudget() {
+    BlockBox box = new BlockBox(0, 0, 0, 1, 1, 1);
+    VolumeOperation<Long> operation = VolumeOperation.fill(stone);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new VolumeTask<>(world, box, operation, 0, TimeUnit.SECONDS));
+  }
+
+  private static BukkitScheduler mockScheduler(Plugin plugin, ArgumentCaptor<Runnable> runnable) {
+    BukkitScheduler scheduler = mock(BukkitScheduler.class);
+    when(scheduler.scheduleSyncRepeatingTask(any(), runnable.capture(), anyLong(), anyLong()))
+        .thenReturn(7);
+    Server server = mock(Server.class);
+    doReturn(scheduler).when(server).getScheduler();
+    doReturn(server).when(plugin).getServer();
+    return scheduler;
+  }
+
+}